@@ -2,10 +2,13 @@ package clinicapp;
 
 import clinicapp.gui.LoginFrame;
 import clinicapp.gui.MainFrame;
+import clinicapp.monitoring.ClinicMBeans;
 import clinicapp.service.*;
+import clinicapp.util.IdAllocator;
 import com.formdev.flatlaf.FlatLightLaf;
 
 import javax.swing.*;
+import java.nio.file.Paths;
 
 /**
  * Main entry point for Clinic Management System
@@ -21,12 +24,21 @@ public class ClinicManagementGUI {
             e.printStackTrace();
         }
 
+        // Keep ID high-water marks on disk so IDs continue after a restart
+        // (override the file with -Dclinicapp.ids.file=...)
+        if (System.getProperty("clinicapp.ids.file") == null) {
+            IdAllocator.setStore(new IdAllocator.FileStore(Paths.get("clinic-ids.properties")));
+        }
+
         SwingUtilities.invokeLater(() -> {
             // Initialize managers
             PatientManager patientManager = new PatientManager();
             DoctorManager doctorManager = new DoctorManager();
             AppointmentManager appointmentManager = new AppointmentManager(patientManager, doctorManager);
 
+            // Expose live metrics over JMX (JConsole, VisualVM)
+            ClinicMBeans.register(patientManager, doctorManager, appointmentManager);
+
             // Initialize demo data
             clinicapp.util.DemoDataInitializer.initializeDemoData(
                     patientManager, doctorManager, appointmentManager);
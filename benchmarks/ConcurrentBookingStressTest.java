@@ -0,0 +1,180 @@
+package clinicapp.benchmarks;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.AppointmentStatus;
+import clinicapp.model.Doctor;
+import clinicapp.model.Patient;
+import clinicapp.service.AppointmentManager;
+import clinicapp.service.DoctorManager;
+import clinicapp.service.PatientManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Hammers one AppointmentManager from many threads with bookings, reschedules,
+ * confirmations and cancellations, then checks that no doctor ended up
+ * double-booked. The roster is small enough that threads keep contending for the
+ * same doctors, but the calendar is wide enough that most bookings succeed, and
+ * reschedules, confirmations and cancellations pick from the appointments that
+ * were actually booked, so they race against bookings on live appointments.
+ * Undo is left out: restoring an old slot is not conflict-checked by design.
+ * Run: java clinicapp.benchmarks.ConcurrentBookingStressTest [threads] [operationsPerThread]
+ * Exits with status 1 if any invariant is violated.
+ */
+public class ConcurrentBookingStressTest {
+
+    private static final int DOCTORS = 32;
+    private static final int DAYS = 3 * 365;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        PatientManager patientManager = new PatientManager();
+        DoctorManager doctorManager = new DoctorManager();
+        AppointmentManager appointmentManager = new AppointmentManager(patientManager, doctorManager);
+
+        List<String> allDays = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            allDays.add(day.name());
+        }
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++) {
+            doctors.add(doctorManager.addDoctor("Doctor " + i, "General", "1234567890", null,
+                    allDays, "08:00", "17:00"));
+        }
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            patients.add(patientManager.addPatient("Patient " + i, LocalDate.of(1990, 1, 1), "Female",
+                    "1234567890", null, "", null, null));
+        }
+
+        LocalDate firstDay = LocalDate.of(2025, 3, 3);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger changed = new AtomicInteger();
+        // IDs of the successful bookings, in the order their slots were claimed.
+        // A slot reads as 0 until its booking thread has filled it in.
+        AtomicIntegerArray bookedIds = new AtomicIntegerArray(threads * operations);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < operations; i++) {
+                    int op = random.nextInt(10);
+                    if (op < 6) {
+                        Doctor doctor = doctors.get(random.nextInt(doctors.size()));
+                        LocalTime startTime = LocalTime.of(8, 0).plusMinutes(15L * random.nextInt(32));
+                        LocalTime endTime = startTime.plusMinutes(15L * (1 + random.nextInt(4)));
+                        Appointment appointment = appointmentManager.scheduleAppointment(
+                                patients.get(random.nextInt(patients.size())), doctor,
+                                firstDay.plusDays(random.nextInt(DAYS)), startTime, endTime, "Stress");
+                        if (appointment != null) {
+                            bookedIds.set(booked.getAndIncrement(), appointment.getId());
+                        } else {
+                            rejected.incrementAndGet();
+                        }
+                    } else {
+                        int count = booked.get();
+                        int id = count > 0 ? bookedIds.get(random.nextInt(count)) : 0;
+                        if (id == 0) {
+                            continue;
+                        }
+                        boolean done;
+                        if (op == 6) {
+                            done = appointmentManager.confirmAppointment(id);
+                        } else if (op == 7) {
+                            done = appointmentManager.cancelAppointment(id);
+                        } else {
+                            LocalTime startTime = LocalTime.of(8, 0).plusMinutes(15L * random.nextInt(32));
+                            done = appointmentManager.updateAppointment(id, firstDay.plusDays(random.nextInt(DAYS)),
+                                    startTime, startTime.plusMinutes(30), null, null);
+                        }
+                        if (done) {
+                            changed.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+
+        List<String> failures = verify(appointmentManager);
+        System.out.printf("%d threads x %d operations in %d ms: %d booked, %d rejected, %d confirmed/cancelled/rescheduled%n",
+                threads, operations, elapsedMillis, booked.get(), rejected.get(), changed.get());
+
+        if (failures.isEmpty()) {
+            System.out.println("PASS: no double bookings, ids unique, indexes consistent");
+        } else {
+            failures.stream().limit(20).forEach(f -> System.out.println("FAIL: " + f));
+            System.exit(1);
+        }
+    }
+
+    private static List<String> verify(AppointmentManager manager) {
+        List<String> failures = new ArrayList<>();
+        List<Appointment> all = manager.getAllAppointments();
+
+        Set<Integer> ids = new HashSet<>();
+        Map<String, List<Appointment>> activeByDoctorDay = new HashMap<>();
+        for (Appointment apt : all) {
+            if (!ids.add(apt.getId())) {
+                failures.add("duplicate id " + apt.getId());
+            }
+            if (apt.getStatus() == AppointmentStatus.SCHEDULED || apt.getStatus() == AppointmentStatus.CONFIRMED) {
+                activeByDoctorDay.computeIfAbsent(apt.getDoctor().getId() + "@" + apt.getAppointmentDate(),
+                        k -> new ArrayList<>()).add(apt);
+            }
+        }
+
+        for (Map.Entry<String, List<Appointment>> entry : activeByDoctorDay.entrySet()) {
+            List<Appointment> day = entry.getValue();
+            day.sort(Comparator.comparing(Appointment::getStartTime));
+            for (int i = 1; i < day.size(); i++) {
+                Appointment previous = day.get(i - 1);
+                Appointment current = day.get(i);
+                if (current.getStartTime().isBefore(previous.getEndTime())) {
+                    failures.add("double booking for doctor/day " + entry.getKey() + ": #"
+                            + previous.getId() + " and #" + current.getId());
+                }
+            }
+        }
+
+        int byStatus = 0;
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            byStatus += manager.getAppointmentsByStatus(status).size();
+        }
+        if (byStatus != all.size()) {
+            failures.add("status index holds " + byStatus + " appointments, expected " + all.size());
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,132 @@
+package clinicapp.benchmarks;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.AppointmentStatus;
+import clinicapp.model.Doctor;
+import clinicapp.model.Patient;
+import clinicapp.service.AppointmentManager;
+import clinicapp.service.DoctorManager;
+import clinicapp.service.PatientManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares conflict detection through the per-doctor, per-day booking index
+ * against the previous full scan over every appointment. The indexed side asks
+ * scheduleAppointment for slots that are already booked, so every call runs the
+ * manager's conflict check and is rejected without booking anything.
+ * Run: java clinicapp.benchmarks.ConflictCheckBenchmark [doctors] [days]
+ */
+public class ConflictCheckBenchmark {
+
+    public static void main(String[] args) {
+        int doctorCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+
+        PatientManager patientManager = new PatientManager();
+        DoctorManager doctorManager = new DoctorManager();
+        AppointmentManager appointmentManager = new AppointmentManager(patientManager, doctorManager);
+
+        List<String> allDays = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            allDays.add(day.name());
+        }
+
+        Patient patient = patientManager.addPatient("Bench Patient", LocalDate.of(1990, 1, 1), "Male",
+                "1234567890", null, "", null, null);
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < doctorCount; i++) {
+            doctors.add(doctorManager.addDoctor("Doctor " + i, "General", "1234567890", null,
+                    allDays, "08:00", "17:00"));
+        }
+
+        // Fill every other 30-minute slot so half of the day stays free
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+        for (int d = 0; d < days; d++) {
+            LocalDate date = firstDay.plusDays(d);
+            for (Doctor doctor : doctors) {
+                for (int slot = 0; slot < 18; slot += 2) {
+                    LocalTime start = LocalTime.of(8, 0).plusMinutes(30L * slot);
+                    appointmentManager.scheduleAppointment(patient, doctor, date, start,
+                            start.plusMinutes(30), "Benchmark");
+                }
+            }
+        }
+        System.out.println("Appointments: " + appointmentManager.getAppointmentCount());
+
+        List<Appointment> snapshot = appointmentManager.getAllAppointments();
+        int queries = 20_000;
+
+        // Warm up both paths before measuring
+        runIndexed(appointmentManager, patient, doctors, firstDay, days, queries);
+        runFullScan(snapshot, doctors, firstDay, days, 200);
+
+        long start = System.nanoTime();
+        int indexedConflicts = runIndexed(appointmentManager, patient, doctors, firstDay, days, queries);
+        long indexedNanos = System.nanoTime() - start;
+
+        int scanQueries = 200;
+        start = System.nanoTime();
+        int scanConflicts = runFullScan(snapshot, doctors, firstDay, days, scanQueries);
+        long scanNanos = System.nanoTime() - start;
+
+        // Each query checks the doctor's 9 booked slots of a day
+        double indexedPerCheck = indexedNanos / (queries * 9.0);
+        double scanPerCheck = scanNanos / (scanQueries * 9.0);
+        System.out.printf("Indexed:   %,.0f ns per conflict check (%d conflicts found)%n", indexedPerCheck, indexedConflicts);
+        System.out.printf("Full scan: %,.0f ns per conflict check (%d conflicts found)%n", scanPerCheck, scanConflicts);
+        System.out.printf("Speed-up:  %.0fx%n", scanPerCheck / indexedPerCheck);
+    }
+
+    // Try to book each booked slot again; the conflict check rejects every one.
+    private static int runIndexed(AppointmentManager manager, Patient patient, List<Doctor> doctors,
+            LocalDate firstDay, int days, int queries) {
+        int conflicts = 0;
+        for (int i = 0; i < queries; i++) {
+            Doctor doctor = doctors.get(i % doctors.size());
+            LocalDate date = firstDay.plusDays(i % days);
+            for (int slot = 0; slot < 18; slot += 2) {
+                LocalTime start = LocalTime.of(8, 0).plusMinutes(30L * slot);
+                if (manager.scheduleAppointment(patient, doctor, date, start, start.plusMinutes(30), "Probe") == null) {
+                    conflicts++;
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    // Same booked slots, but each check scans every appointment like the old hasConflict.
+    private static int runFullScan(List<Appointment> appointments, List<Doctor> doctors,
+            LocalDate firstDay, int days, int queries) {
+        int conflicts = 0;
+        for (int i = 0; i < queries; i++) {
+            Doctor doctor = doctors.get(i % doctors.size());
+            LocalDate date = firstDay.plusDays(i % days);
+            for (int slot = 0; slot < 18; slot += 2) {
+                LocalTime start = LocalTime.of(8, 0).plusMinutes(30L * slot);
+                if (scanConflict(appointments, doctor, date, start, start.plusMinutes(30))) {
+                    conflicts++;
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private static boolean scanConflict(List<Appointment> appointments, Doctor doctor, LocalDate date,
+            LocalTime startTime, LocalTime endTime) {
+        for (Appointment apt : appointments) {
+            if ((apt.getStatus() == AppointmentStatus.SCHEDULED ||
+                    apt.getStatus() == AppointmentStatus.CONFIRMED) &&
+                    apt.getDoctor().getId() == doctor.getId() &&
+                    apt.getAppointmentDate().equals(date) &&
+                    startTime.isBefore(apt.getEndTime()) && apt.getStartTime().isBefore(endTime)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
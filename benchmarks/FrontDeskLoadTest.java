@@ -0,0 +1,407 @@
+package clinicapp.benchmarks;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.TriageLevel;
+import clinicapp.model.Doctor;
+import clinicapp.model.Patient;
+import clinicapp.monitoring.ClinicMBeans;
+import clinicapp.service.AppointmentManager;
+import clinicapp.service.AppointmentManager.DoctorSlot;
+import clinicapp.service.DoctorManager;
+import clinicapp.service.PatientManager;
+import clinicapp.util.DatasetGenerator;
+import clinicapp.util.Histogram;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * End-to-end load driver for the service layer, without Swing.
+ *
+ * Loads a DatasetGenerator dataset, then runs a number of front desk clients,
+ * each on its own thread, issuing a weighted mix of calls against the real
+ * managers: booking the earliest free slot, rescheduling, confirming and
+ * cancelling their own bookings, registering and serving walk-ins, searching
+ * patients and doctors, and pulling the reports behind the dashboard.
+ *
+ * Every call's latency goes into a per-client Histogram per operation; after a
+ * warm-up the measured run is merged into one table with count, failures,
+ * throughput and p50/p99/p999, as text or CSV. Clients are closed-loop (each
+ * waits for its previous call), so latencies under overload show contention
+ * rather than queueing in front of the managers.
+ *
+ * Run: java clinicapp.benchmarks.FrontDeskLoadTest [key=value ...]
+ * e.g. java -Xmx8g clinicapp.benchmarks.FrontDeskLoadTest clients=64 seconds=60 patients=1000000 doctors=500
+ *      java clinicapp.benchmarks.FrontDeskLoadTest format=csv out=load.csv
+ */
+public class FrontDeskLoadTest {
+
+    // Load test settings. Public fields with defaults, changed before run().
+    public static class Config {
+        public int clients = 32;
+        public int warmupSeconds = 5;
+        public int seconds = 30;
+        public long seed = 42;
+        // Dataset loaded before the clients start (history ends today)
+        public int patients = 50_000;
+        public int doctors = 100;
+        public int historyDays = 365;
+        public int futureDays = 30;
+        // Upcoming bookings each client remembers to reschedule, confirm or cancel
+        public int bookingsPerClient = 64;
+        public boolean csv = false;
+        public String out = null;
+    }
+
+    // Operations and how often a client picks each one, in percent
+    private static final String[] OPERATIONS = { "schedule", "reschedule", "confirm", "cancel",
+            "walkIn", "serveWalkIn", "searchPatient", "searchDoctor", "dailyReport", "monthReport" };
+    private static final int[] WEIGHTS = { 20, 10, 10, 5, 7, 8, 20, 8, 8, 4 };
+
+    private static final String[] NAME_FRAGMENTS = { "smith", "maria", "santos", "jo", "nguyen", "lee",
+            "cruz", "an", "wang", "xyz" };
+
+    private final Config config;
+    private PatientManager patientManager;
+    private DoctorManager doctorManager;
+    private AppointmentManager appointmentManager;
+    private List<Patient> patients;
+    private List<Doctor> doctors;
+    private List<String> specializations;
+
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    public FrontDeskLoadTest(Config config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = new Config();
+        for (String arg : args) {
+            apply(config, arg);
+        }
+        FrontDeskLoadTest test = new FrontDeskLoadTest(config);
+        test.load();
+        String report = test.run();
+        if (config.out != null) {
+            Files.writeString(Paths.get(config.out), report);
+            System.out.println("Wrote " + config.out);
+        } else {
+            System.out.print(report);
+        }
+    }
+
+    // Fill the managers with the dataset the clients work on.
+    public void load() {
+        patientManager = new PatientManager();
+        doctorManager = new DoctorManager();
+        appointmentManager = new AppointmentManager(patientManager, doctorManager);
+        // Watch the run live in JConsole or VisualVM
+        ClinicMBeans.register(patientManager, doctorManager, appointmentManager);
+
+        DatasetGenerator.Config data = new DatasetGenerator.Config();
+        data.seed = config.seed;
+        data.patients = config.patients;
+        data.doctors = config.doctors;
+        data.historyDays = config.historyDays;
+        data.futureDays = config.futureDays;
+        data.today = LocalDate.now();
+        data.nowTime = LocalTime.now().withSecond(0).withNano(0);
+        DatasetGenerator.Result result = new DatasetGenerator(data)
+                .generate(patientManager, doctorManager, appointmentManager);
+        System.err.println("Loaded " + result);
+
+        patients = result.patients;
+        doctors = result.doctors;
+        TreeSet<String> names = new TreeSet<>();
+        for (Doctor doctor : doctors) {
+            names.add(doctor.getSpecialization());
+        }
+        specializations = new ArrayList<>(names);
+    }
+
+    /**
+     * Run the clients through the warm-up and the measured period.
+     *
+     * @return The report, as text or CSV depending on the config
+     */
+    public String run() throws Exception {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < config.clients; i++) {
+            clients.add(new Client(i));
+        }
+
+        long gcCountBefore = 0;
+        long gcMillisBefore = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(config.clients);
+        long measuredNanos;
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (Client client : clients) {
+                running.add(pool.submit(client::loop));
+            }
+
+            TimeUnit.SECONDS.sleep(config.warmupSeconds);
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCountBefore += Math.max(0, gc.getCollectionCount());
+                gcMillisBefore += Math.max(0, gc.getCollectionTime());
+            }
+            long start = System.nanoTime();
+            measuring = true;
+            TimeUnit.SECONDS.sleep(config.seconds);
+            measuring = false;
+            measuredNanos = System.nanoTime() - start;
+            stopped = true;
+
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long gcCount = -gcCountBefore;
+        long gcMillis = -gcMillisBefore;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+
+        // Merge the clients' histograms
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        long[] failures = new long[OPERATIONS.length];
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            Histogram merged = new Histogram();
+            for (Client client : clients) {
+                merged.add(client.latencies[op]);
+                failures[op] += client.failures[op];
+            }
+            latencies.put(OPERATIONS[op], merged);
+        }
+
+        return config.csv ? csv(latencies, failures, measuredNanos)
+                : text(latencies, failures, measuredNanos, gcCount, gcMillis);
+    }
+
+    // One front desk terminal issuing calls back to back
+    private class Client {
+        final SplittableRandom random;
+        final Histogram[] latencies = new Histogram[OPERATIONS.length];
+        final long[] failures = new long[OPERATIONS.length];
+        // Upcoming bookings made by this client, oldest overwritten first
+        final int[] bookings = new int[config.bookingsPerClient];
+        int bookingCount;
+        final List<Appointment> walkIns = new ArrayList<>();
+
+        Client(int index) {
+            this.random = new SplittableRandom(config.seed * 31 + index);
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Histogram();
+            }
+        }
+
+        void loop() {
+            while (!stopped) {
+                int op = pickOperation();
+                boolean record = measuring;
+                long start = System.nanoTime();
+                boolean ok = call(op);
+                long elapsed = System.nanoTime() - start;
+                if (record) {
+                    latencies[op].record(elapsed);
+                    if (!ok) {
+                        failures[op]++;
+                    }
+                }
+            }
+        }
+
+        int pickOperation() {
+            int draw = random.nextInt(100);
+            for (int op = 0; op < WEIGHTS.length; op++) {
+                draw -= WEIGHTS[op];
+                if (draw < 0) {
+                    return op;
+                }
+            }
+            return 0;
+        }
+
+        boolean call(int op) {
+            switch (OPERATIONS[op]) {
+                case "schedule": return schedule();
+                case "reschedule": return withBooking(this::reschedule);
+                case "confirm": return withBooking(id -> appointmentManager.confirmAppointment(id));
+                case "cancel": return withBooking(id -> appointmentManager.cancelAppointment(id));
+                case "walkIn": return walkIn();
+                case "serveWalkIn": return serveWalkIn();
+                case "searchPatient":
+                    return !patientManager.searchPatientByName(pick(NAME_FRAGMENTS)).isEmpty();
+                case "searchDoctor":
+                    return !doctorManager.searchDoctorBySpecialization(pick(specializations)).isEmpty();
+                case "dailyReport": {
+                    LocalDate date = LocalDate.now().plusDays(random.nextInt(-7, 8));
+                    appointmentManager.getDailyStatistics(date);
+                    return appointmentManager.getAppointmentsByDate(date) != null;
+                }
+                case "monthReport":
+                    return appointmentManager.getAppointmentsByMonth(
+                            YearMonth.now().minusMonths(random.nextInt(12))) != null;
+                default:
+                    throw new IllegalStateException("Unknown operation " + op);
+            }
+        }
+
+        // Book the earliest free slot in a random specialization, searching two weeks
+        // from a random upcoming day.
+        boolean schedule() {
+            LocalDateTime from = LocalDateTime.now().plusDays(1 + random.nextInt(config.futureDays))
+                    .withHour(8).withMinute(0).withSecond(0).withNano(0);
+            List<DoctorSlot> slots = appointmentManager.findEarliestSlots(pick(specializations), from, 14, 30, 1);
+            if (slots.isEmpty()) {
+                return false;
+            }
+            DoctorSlot slot = slots.get(0);
+            Appointment appointment = appointmentManager.scheduleAppointment(
+                    patients.get(random.nextInt(patients.size())), slot.getDoctor(), slot.getDate(),
+                    slot.getStartTime(), slot.getEndTime(), "Load test");
+            if (appointment == null) {
+                return false; // another client took the slot first
+            }
+            bookings[bookingCount++ % bookings.length] = appointment.getId();
+            return true;
+        }
+
+        // Move one of this client's bookings to another day at the same time.
+        boolean reschedule(int id) {
+            Appointment appointment = appointmentManager.getAppointmentById(id);
+            if (appointment == null) {
+                return false;
+            }
+            LocalDate date = appointment.getAppointmentDate().plusDays(random.nextInt(1, 8));
+            return appointmentManager.updateAppointment(id, date, appointment.getStartTime(),
+                    appointment.getEndTime(), null, null);
+        }
+
+        boolean withBooking(IntPredicate action) {
+            if (bookingCount == 0) {
+                return false;
+            }
+            int id = bookings[random.nextInt(Math.min(bookingCount, bookings.length))];
+            return action.test(id);
+        }
+
+        boolean walkIn() {
+            TriageLevel[] levels = TriageLevel.values();
+            Appointment appointment = appointmentManager.scheduleWalkIn(
+                    patients.get(random.nextInt(patients.size())), pick(specializations), "Walk-in",
+                    levels[random.nextInt(levels.length)]);
+            if (appointment == null) {
+                return false; // nobody of that specialization works today
+            }
+            walkIns.add(appointment);
+            return true;
+        }
+
+        // See the next walk-in waiting for the doctor of one of this client's walk-ins.
+        boolean serveWalkIn() {
+            if (walkIns.isEmpty()) {
+                return false;
+            }
+            Appointment registered = walkIns.remove(walkIns.size() - 1);
+            Appointment next = appointmentManager.processNextWalkIn(registered.getDoctor().getId());
+            return next != null && appointmentManager.completeAppointment(next.getId(), "Seen");
+        }
+
+        String pick(String[] values) {
+            return values[random.nextInt(values.length)];
+        }
+
+        String pick(List<String> values) {
+            return values.get(random.nextInt(values.size()));
+        }
+    }
+
+    private String text(Map<String, Histogram> latencies, long[] failures, long measuredNanos,
+            long gcCount, long gcMillis) {
+        double seconds = measuredNanos / 1e9;
+        Runtime runtime = Runtime.getRuntime();
+        long totalCalls = 0;
+        for (Histogram h : latencies.values()) {
+            totalCalls += h.getCount();
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%d clients for %.1f s after %d s warm-up; %,d patients, %d doctors, %,d appointments%n",
+                config.clients, seconds, config.warmupSeconds, patientManager.getPatientCount(),
+                doctorManager.getDoctorCount(), appointmentManager.getAppointmentCount()));
+        out.append(String.format("Throughput %,.0f calls/s; heap used %,d MB of %,d MB; %d GCs, %,d ms in GC%n%n",
+                totalCalls / seconds, (runtime.totalMemory() - runtime.freeMemory()) >> 20,
+                runtime.maxMemory() >> 20, gcCount, gcMillis));
+        out.append(String.format("Latency (us)     %10s %8s %10s %8s %8s %8s %8s %8s%n",
+                "count", "failed", "calls/s", "mean", "p50", "p99", "p999", "max"));
+        int op = 0;
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            Histogram h = entry.getValue();
+            out.append(String.format("  %-14s %,10d %8d %,10.0f %8.1f %8.1f %8.1f %8.1f %8.1f%n", entry.getKey(),
+                    h.getCount(), failures[op++], h.getCount() / seconds, h.getMean() / 1000,
+                    h.getPercentile(50) / 1000.0, h.getPercentile(99) / 1000.0,
+                    h.getPercentile(99.9) / 1000.0, h.getMax() / 1000.0));
+        }
+        return out.toString();
+    }
+
+    private String csv(Map<String, Histogram> latencies, long[] failures, long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        StringBuilder out = new StringBuilder(
+                "operation,count,failed,calls_per_s,mean_us,p50_us,p99_us,p999_us,max_us\n");
+        int op = 0;
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            Histogram h = entry.getValue();
+            out.append(String.format("%s,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f%n", entry.getKey(), h.getCount(),
+                    failures[op++], h.getCount() / seconds, h.getMean() / 1000, h.getPercentile(50) / 1000.0,
+                    h.getPercentile(99) / 1000.0, h.getPercentile(99.9) / 1000.0, h.getMax() / 1000.0));
+        }
+        return out.toString();
+    }
+
+    private static void apply(Config config, String arg) {
+        String[] parts = arg.split("=", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected key=value, got: " + arg);
+        }
+        String value = parts[1].trim();
+        switch (parts[0].trim()) {
+            case "clients": config.clients = Integer.parseInt(value); break;
+            case "warmupSeconds": config.warmupSeconds = Integer.parseInt(value); break;
+            case "seconds": config.seconds = Integer.parseInt(value); break;
+            case "seed": config.seed = Long.parseLong(value); break;
+            case "patients": config.patients = Integer.parseInt(value); break;
+            case "doctors": config.doctors = Integer.parseInt(value); break;
+            case "historyDays": config.historyDays = Integer.parseInt(value); break;
+            case "futureDays": config.futureDays = Integer.parseInt(value); break;
+            case "bookingsPerClient": config.bookingsPerClient = Integer.parseInt(value); break;
+            case "format": config.csv = value.equalsIgnoreCase("csv"); break;
+            case "out": config.out = value; break;
+            default: throw new IllegalArgumentException("Unknown setting: " + parts[0]);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package clinicapp.benchmarks;
+
+import clinicapp.util.IdAllocator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Measures ID allocation throughput with many threads: a single shared atomic
+ * counter (the previous per-class nextId) against the block-reserving IdAllocator,
+ * with in-memory and file-backed high-water marks. Also checks every ID is unique.
+ * Run: java clinicapp.benchmarks.IdAllocatorBenchmark [threads] [idsPerThread]
+ */
+public class IdAllocatorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        AtomicInteger shared = new AtomicInteger(1);
+        Path file = Files.createTempFile("clinic-ids", ".properties");
+        try {
+            for (int round = 0; round < 3; round++) {
+                System.out.println("Round " + (round + 1) + ":");
+                run("Shared AtomicInteger", threads, perThread, shared::getAndIncrement);
+
+                IdAllocator.setStore(new IdAllocator.MemoryStore());
+                run("IdAllocator (memory)", threads, perThread, IdAllocator.APPOINTMENTS::nextId);
+
+                IdAllocator.setStore(new IdAllocator.FileStore(file));
+                run("IdAllocator (file)", threads, perThread, IdAllocator.APPOINTMENTS::nextId);
+                shared.set(1);
+            }
+            for (String line : Files.readAllLines(file)) {
+                if (!line.startsWith("#")) {
+                    System.out.println("Persisted high-water mark: " + line);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Have each thread take perThread IDs, report throughput and check uniqueness.
+    private static void run(String name, int threads, int perThread, IntSupplier nextId)
+            throws InterruptedException {
+        int[][] taken = new int[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int[] ids = taken[t];
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = nextId.getAsInt();
+                }
+            });
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        BitSet seen = new BitSet();
+        int duplicates = 0;
+        for (int[] ids : taken) {
+            for (int id : ids) {
+                if (seen.get(id)) {
+                    duplicates++;
+                }
+                seen.set(id);
+            }
+        }
+
+        long total = (long) threads * perThread;
+        System.out.printf("  %-22s %2d threads: %,12.0f ids/s  (%,d ids in %d ms, %s)%n",
+                name, threads, total / (elapsed / 1e9), total, elapsed / 1_000_000,
+                duplicates == 0 ? "all unique" : duplicates + " DUPLICATES");
+        if (duplicates > 0) {
+            throw new IllegalStateException(name + " handed out duplicate IDs");
+        }
+    }
+}
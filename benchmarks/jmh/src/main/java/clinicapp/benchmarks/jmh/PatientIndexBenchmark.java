@@ -0,0 +1,134 @@
+package clinicapp.benchmarks.jmh;
+
+import clinicapp.model.Patient;
+import clinicapp.service.AppointmentManager;
+import clinicapp.service.DoctorManager;
+import clinicapp.service.PatientManager;
+import clinicapp.service.PatientQuery;
+import clinicapp.util.DatasetGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the patient lookups backed by PatientManager's indexes, on a
+ * generated population (see DatasetGenerator) with no appointments:
+ * - getPatientsByAge: a ten-year age band, walked in the date of birth index,
+ * - scanPatientsByAge: the same band by checking getAge() of every patient,
+ *   as getPatientsByAge did before the index, for comparison,
+ * - birthdaysThisWeek: birthdays in a seven-day window,
+ * - searchPatientByName / searchPatientsFuzzy: trigram name search, exact and misspelled,
+ * - queryPatients: the first page of a query combining blood type, gender,
+ *   an age band and a name.
+ *
+ * Run: java -jar target/benchmarks.jar PatientIndexBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class PatientIndexBenchmark {
+    private static final String[] NAMES = { "smith", "maria", "nguyen", "santos", "john" };
+    private static final String[] BLOOD_TYPES = { "A+", "O-", "AB-", "B+" };
+    private static final String[] MISSPELLED_NAMES = { "Jon Smyth", "Mairia", "Patrica Gracia", "Nguyn", "Khna" };
+
+    @Param({ "100000", "1000000" })
+    public int patients;
+
+    private PatientManager patientManager;
+    private LocalDate today;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DatasetGenerator.Config config = new DatasetGenerator.Config();
+        config.patients = patients;
+        config.doctors = 1;
+        config.historyDays = 0;
+        config.futureDays = 0;
+
+        patientManager = new PatientManager();
+        DoctorManager doctorManager = new DoctorManager();
+        new DatasetGenerator(config).generate(patientManager, doctorManager,
+                new AppointmentManager(patientManager, doctorManager));
+        today = LocalDate.now();
+    }
+
+    @Benchmark
+    public List<Patient> getPatientsByAge() {
+        int minAge = counter++ % 70;
+        return patientManager.getPatientsByAge(minAge, minAge + 9);
+    }
+
+    @Benchmark
+    public List<Patient> scanPatientsByAge() {
+        int minAge = counter++ % 70;
+        List<Patient> results = new ArrayList<>();
+        for (Patient patient : patientManager.getAllPatients()) {
+            int age = patient.getAge();
+            if (age >= minAge && age <= minAge + 9) {
+                results.add(patient);
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<Patient> birthdaysThisWeek() {
+        LocalDate from = today.plusDays(counter++ % 365);
+        return patientManager.getPatientsWithBirthdayBetween(from, from.plusDays(6));
+    }
+
+    @Benchmark
+    public List<Patient> searchPatientByName() {
+        return patientManager.searchPatientByName(NAMES[counter++ % NAMES.length]);
+    }
+
+    @Benchmark
+    public List<PatientManager.PatientMatch> searchPatientsFuzzy() {
+        return patientManager.searchPatientsFuzzy(MISSPELLED_NAMES[counter++ % MISSPELLED_NAMES.length], null,
+                null, 10);
+    }
+
+    @Benchmark
+    public PatientManager.PatientPage queryPatients() {
+        int n = counter++;
+        PatientQuery query = new PatientQuery();
+        query.bloodType = BLOOD_TYPES[n % BLOOD_TYPES.length];
+        query.gender = n % 2 == 0 ? "Female" : "Male";
+        query.minAge = n % 60;
+        query.maxAge = n % 60 + 9;
+        query.name = NAMES[n % NAMES.length];
+        return patientManager.queryPatients(query, 0, 50);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PatientIndexBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,188 @@
+package clinicapp.benchmarks.jmh;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Doctor;
+import clinicapp.model.Patient;
+import clinicapp.service.AppointmentManager;
+import clinicapp.service.DoctorManager;
+import clinicapp.service.PatientManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the main service-layer operations as the data grows.
+ *
+ * The dataset has the given number of doctors, each working every day from 08:00
+ * to 17:00, with appointments filling their 30-minute slots day after day, and
+ * one patient per five appointments (at least 1000). Operations that change state
+ * are paired with undoLastAction so the dataset stays the same size:
+ * - scheduleThenUndo: book a free slot and undo the booking,
+ * - updateThenUndo: change an appointment's reason and undo the change,
+ * - rejectedBooking: book an occupied slot, which fails in the conflict check.
+ *
+ * Run with allocation rates: java -jar target/benchmarks.jar -prof gc
+ * (or run main(), which adds the gc profiler).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ServiceLayerBenchmark {
+    private static final String[] FIRST_NAMES = { "James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Maria", "Wei", "Aisha", "Carlos" };
+    private static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Santos", "Reyes", "Cruz", "Nguyen", "Khan", "Tan" };
+    private static final String[] SPECIALIZATIONS = { "General Practice", "Pediatrics", "Cardiology",
+            "Dermatology", "Orthopedics" };
+    private static final String[] SEARCH_TERMS = { "smith", "mar", "nguyen", "ez", "john", "xyz" };
+    private static final String[] MISSPELLED_NAMES = { "Jon Smyth", "Mairia", "Patrica Gracia", "Nguyn", "Khna" };
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 6);
+    private static final LocalTime OPEN = LocalTime.of(8, 0);
+    private static final int SLOT_MINUTES = 30;
+    private static final int SLOTS_PER_DAY = 18;
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int appointments;
+
+    @Param({ "100", "500" })
+    public int doctors;
+
+    private PatientManager patientManager;
+    private AppointmentManager appointmentManager;
+    private List<Doctor> doctorList;
+    private List<Patient> patientList;
+    private List<Appointment> appointmentList;
+    private int filledDays;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        patientManager = new PatientManager();
+        DoctorManager doctorManager = new DoctorManager();
+        appointmentManager = new AppointmentManager(patientManager, doctorManager);
+
+        List<String> allDays = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            allDays.add(day.name());
+        }
+        doctorList = new ArrayList<>();
+        for (int i = 0; i < doctors; i++) {
+            doctorList.add(doctorManager.addDoctor("Doctor " + i, SPECIALIZATIONS[i % SPECIALIZATIONS.length],
+                    "1234567890", null, allDays, "08:00", "17:00"));
+        }
+
+        int patientCount = Math.max(1000, appointments / 5);
+        patientList = new ArrayList<>();
+        for (int i = 0; i < patientCount; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            LocalDate dob = LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            patientList.add(patientManager.addPatient(name, dob, random.nextBoolean() ? "Male" : "Female",
+                    "1234567890", null, "", null, null));
+        }
+
+        // Fill each doctor's slots in order, one day after another
+        appointmentList = new ArrayList<>(appointments);
+        for (int k = 0; k < appointments; k++) {
+            int perDoctor = k / doctors;
+            LocalDate date = FIRST_DAY.plusDays(perDoctor / SLOTS_PER_DAY);
+            LocalTime start = OPEN.plusMinutes((long) SLOT_MINUTES * (perDoctor % SLOTS_PER_DAY));
+            appointmentList.add(appointmentManager.scheduleAppointment(patientList.get(random.nextInt(patientCount)),
+                    doctorList.get(k % doctors), date, start, start.plusMinutes(SLOT_MINUTES), "Check-up"));
+        }
+        filledDays = Math.max(1, (appointments / doctors + SLOTS_PER_DAY - 1) / SLOTS_PER_DAY);
+    }
+
+    @Benchmark
+    public Appointment scheduleThenUndo() {
+        int n = counter++;
+        // Days after the filled range are empty, so every slot there is free
+        LocalDate date = FIRST_DAY.plusDays(filledDays + n % 30);
+        LocalTime start = OPEN.plusMinutes((long) SLOT_MINUTES * (n % SLOTS_PER_DAY));
+        Appointment appointment = appointmentManager.scheduleAppointment(patientList.get(n % patientList.size()),
+                doctorList.get(n % doctors), date, start, start.plusMinutes(SLOT_MINUTES), "Benchmark");
+        appointmentManager.undoLastAction();
+        return appointment;
+    }
+
+    @Benchmark
+    public Appointment rejectedBooking() {
+        Appointment booked = appointmentList.get(counter++ % appointmentList.size());
+        return appointmentManager.scheduleAppointment(booked.getPatient(), booked.getDoctor(),
+                booked.getAppointmentDate(), booked.getStartTime(), booked.getEndTime(), "Benchmark");
+    }
+
+    @Benchmark
+    public Object getAvailableTimeSlots() {
+        int n = counter++;
+        return appointmentManager.getAvailableTimeSlots(doctorList.get(n % doctors),
+                FIRST_DAY.plusDays(n % filledDays));
+    }
+
+    @Benchmark
+    public List<Appointment> getAppointmentsByDate() {
+        return appointmentManager.getAppointmentsByDate(FIRST_DAY.plusDays(counter++ % filledDays));
+    }
+
+    @Benchmark
+    public boolean updateThenUndo() {
+        Appointment appointment = appointmentList.get(counter++ % appointmentList.size());
+        boolean updated = appointmentManager.updateAppointment(appointment.getId(), null, null, null,
+                "Follow-up", null);
+        appointmentManager.undoLastAction();
+        return updated;
+    }
+
+    @Benchmark
+    public List<Patient> searchPatientByName() {
+        return patientManager.searchPatientByName(SEARCH_TERMS[counter++ % SEARCH_TERMS.length]);
+    }
+
+    @Benchmark
+    public List<PatientManager.PatientMatch> searchPatientsFuzzy() {
+        return patientManager.searchPatientsFuzzy(MISSPELLED_NAMES[counter++ % MISSPELLED_NAMES.length], null,
+                null, 10);
+    }
+
+    @Benchmark
+    public List<Patient> getPatientsByAge() {
+        int minAge = 20 + counter++ % 40;
+        return patientManager.getPatientsByAge(minAge, minAge + 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ServiceLayerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
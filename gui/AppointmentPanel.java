@@ -5,6 +5,7 @@ import clinicapp.model.Appointment;
 import clinicapp.model.Doctor;
 import clinicapp.model.Patient;
 import clinicapp.service.AppointmentManager;
+import clinicapp.service.ChangeEvent;
 import clinicapp.service.DoctorManager;
 import clinicapp.service.PatientManager;
 import clinicapp.util.InputValidator;
@@ -15,7 +16,14 @@ import java.awt.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 // Appointment Panel - Search bar + table + action buttons
 public class AppointmentPanel extends JPanel {
@@ -26,6 +34,15 @@ public class AppointmentPanel extends JPanel {
     private DefaultTableModel tableModel;
     private JComboBox<String> sortCombo;
 
+    // Appointments shown in the table, row for row, in the current sort order
+    private final List<Appointment> rows = new ArrayList<>();
+
+    // Appointment ID -> appointment shown in the table, to tell which changes touch shown rows
+    private final Map<Integer, Appointment> rowsById = new HashMap<>();
+
+    // Batches larger than this are cheaper to apply as one full reload
+    private static final int MAX_INCREMENTAL_CHANGES = 200;
+
     public AppointmentPanel(AppointmentManager appointmentManager,
             PatientManager patientManager,
             DoctorManager doctorManager) {
@@ -33,6 +50,9 @@ public class AppointmentPanel extends JPanel {
         this.patientManager = patientManager;
         this.doctorManager = doctorManager;
         initializeUI();
+
+        // Keep the table in step with changes made anywhere, one batch per EDT tick
+        appointmentManager.addChangeListener(new CoalescingChangeListener<>(this::applyChanges));
     }
 
     private void initializeUI() {
@@ -164,11 +184,15 @@ public class AppointmentPanel extends JPanel {
         deleteButton.setPreferredSize(new Dimension(100, 35));
         deleteButton.addActionListener(e -> deleteAppointment());
 
-        // Undo button - uses Stack
+        // Undo/Redo buttons - use the undo journal
         JButton undoButton = new JButton("Undo Last");
         undoButton.setPreferredSize(new Dimension(100, 35));
         undoButton.addActionListener(e -> undoLastAction());
 
+        JButton redoButton = new JButton("Redo");
+        redoButton.setPreferredSize(new Dimension(80, 35));
+        redoButton.addActionListener(e -> redoLastAction());
+
         // View History button
         JButton historyButton = new JButton("View History");
         historyButton.setPreferredSize(new Dimension(120, 35));
@@ -177,6 +201,7 @@ public class AppointmentPanel extends JPanel {
         leftButtons.add(rescheduleButton);
         leftButtons.add(deleteButton);
         leftButtons.add(undoButton);
+        leftButtons.add(redoButton);
         leftButtons.add(historyButton);
 
         // Right side - Status transition buttons
@@ -215,65 +240,134 @@ public class AppointmentPanel extends JPanel {
     }
 
     private void refreshTable() {
+        PanelRefreshEvent event = PanelRefreshEvent.begin("AppointmentPanel", "refreshTable");
         tableModel.setRowCount(0);
+        rows.clear();
+        rowsById.clear();
         List<Appointment> appointments = appointmentManager.getRegularAppointments();
 
         // Sort appointments based on selected criteria
-        String sortBy = sortCombo != null ? (String) sortCombo.getSelectedItem() : "Time";
-        sortAppointments(appointments, sortBy);
-
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+        appointments.sort(currentComparator());
 
         for (Appointment apt : appointments) {
-            String timeSlot = apt.getStartTime().format(timeFormatter) + " - " +
-                    apt.getEndTime().format(timeFormatter);
+            rows.add(apt);
+            rowsById.put(apt.getId(), apt);
+            tableModel.addRow(toRow(apt));
+        }
+        event.finish(appointments.size(), rows.size());
+    }
+
+    // Apply a batch of appointment changes to the affected rows only. Rows whose
+    // sort key did not change are updated in place. Every other changed row is
+    // taken out first, so the rows left are in order, and only then are the
+    // changed appointments put back (or added) where they sort.
+    private void applyChanges(List<ChangeEvent<Appointment>> batch) {
+        if (batch.size() > MAX_INCREMENTAL_CHANGES) {
+            refreshTable();
+            return;
+        }
+        PanelRefreshEvent refresh = PanelRefreshEvent.begin("AppointmentPanel", "applyChanges");
+
+        // Latest state of each changed appointment
+        Map<Integer, Appointment> changed = new LinkedHashMap<>();
+        boolean touchesShownRows = false;
+        for (ChangeEvent<Appointment> event : batch) {
+            Appointment apt = event.getSubject();
+            changed.put(apt.getId(), apt);
+            touchesShownRows |= rowsById.containsKey(apt.getId());
+        }
+
+        if (touchesShownRows) {
+            // One pass over the rows for the whole batch, back to front so removals
+            // do not shift the rows still to be visited
+            for (int index = rows.size() - 1; index >= 0; index--) {
+                Appointment apt = changed.get(rows.get(index).getId());
+                if (apt == null) {
+                    continue;
+                }
+                Object[] row = toRow(apt);
+                if (isShown(apt) && hasSameSortKey(row, index)) {
+                    for (int col = 0; col < row.length; col++) {
+                        tableModel.setValueAt(row[col], index, col);
+                    }
+                    rows.set(index, apt);
+                    rowsById.put(apt.getId(), apt);
+                    changed.remove(apt.getId());
+                } else {
+                    rows.remove(index);
+                    rowsById.remove(apt.getId());
+                    tableModel.removeRow(index);
+                }
+            }
+        }
 
-            Object[] row = {
-                    apt.getId(),
-                    apt.getAppointmentDate(),
-                    timeSlot,
-                    apt.getPatient().getName(),
-                    "Dr. " + apt.getDoctor().getName(),
-                    apt.getReason(),
-                    apt.getStatus()
-            };
-            tableModel.addRow(row);
+        Comparator<Appointment> comparator = currentComparator();
+        for (Appointment apt : changed.values()) {
+            if (!isShown(apt)) {
+                continue;
+            }
+            int insertAt = Collections.binarySearch(rows, apt, comparator);
+            if (insertAt < 0) {
+                insertAt = -insertAt - 1;
+            }
+            rows.add(insertAt, apt);
+            rowsById.put(apt.getId(), apt);
+            tableModel.insertRow(insertAt, toRow(apt));
         }
+        refresh.finish(batch.size(), rows.size());
+    }
+
+    // Whether an appointment belongs in this table: still stored, and not a walk-in
+    private boolean isShown(Appointment apt) {
+        return appointmentManager.getAppointmentById(apt.getId()) == apt &&
+                !appointmentManager.isWalkInAppointment(apt.getId());
     }
 
-    // Sort appointments based on selected criteria
-    private void sortAppointments(List<Appointment> appointments, String sortBy) {
+    // Check that a row's new cells sort where the shown ones do. Every sort order
+    // is by date, time, doctor and patient (columns 1 to 4) in some order.
+    private boolean hasSameSortKey(Object[] row, int index) {
+        for (int col = 1; col <= 4; col++) {
+            if (!Objects.equals(row[col], tableModel.getValueAt(index, col))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object[] toRow(Appointment apt) {
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+        String timeSlot = apt.getStartTime().format(timeFormatter) + " - " +
+                apt.getEndTime().format(timeFormatter);
+
+        return new Object[] {
+                apt.getId(),
+                apt.getAppointmentDate(),
+                timeSlot,
+                apt.getPatient().getName(),
+                "Dr. " + apt.getDoctor().getName(),
+                apt.getReason(),
+                apt.getStatus()
+        };
+    }
+
+    private Comparator<Appointment> currentComparator() {
+        String sortBy = sortCombo != null ? (String) sortCombo.getSelectedItem() : "Time";
+        return comparatorFor(sortBy);
+    }
+
+    // Comparator for the selected sort criteria
+    private Comparator<Appointment> comparatorFor(String sortBy) {
+        Comparator<Appointment> byTime = Comparator.comparing(Appointment::getAppointmentDate)
+                .thenComparing(Appointment::getStartTime);
         switch (sortBy) {
-            case "Time":
-                appointments.sort((a1, a2) -> {
-                    int dateCompare = a1.getAppointmentDate().compareTo(a2.getAppointmentDate());
-                    if (dateCompare != 0)
-                        return dateCompare;
-                    return a1.getStartTime().compareTo(a2.getStartTime());
-                });
-                break;
             case "Doctor":
-                appointments.sort((a1, a2) -> {
-                    int doctorCompare = a1.getDoctor().getName().compareToIgnoreCase(a2.getDoctor().getName());
-                    if (doctorCompare != 0)
-                        return doctorCompare;
-                    int dateCompare = a1.getAppointmentDate().compareTo(a2.getAppointmentDate());
-                    if (dateCompare != 0)
-                        return dateCompare;
-                    return a1.getStartTime().compareTo(a2.getStartTime());
-                });
-                break;
+                return Comparator.comparing((Appointment a) -> a.getDoctor().getName(), String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(byTime);
             case "Patient":
-                appointments.sort((a1, a2) -> {
-                    int patientCompare = a1.getPatient().getName().compareToIgnoreCase(a2.getPatient().getName());
-                    if (patientCompare != 0)
-                        return patientCompare;
-                    int dateCompare = a1.getAppointmentDate().compareTo(a2.getAppointmentDate());
-                    if (dateCompare != 0)
-                        return dateCompare;
-                    return a1.getStartTime().compareTo(a2.getStartTime());
-                });
-                break;
+                return Comparator.comparing((Appointment a) -> a.getPatient().getName(), String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(byTime);
+            default:
+                return byTime;
         }
     }
     
@@ -375,7 +469,6 @@ public class AppointmentPanel extends JPanel {
             if (appointment != null) {
                 JOptionPane.showMessageDialog(dialog, "Appointment scheduled successfully!", "Success",
                         JOptionPane.INFORMATION_MESSAGE);
-                refreshTable();
                 dialog.dispose();
             } else {
                 JOptionPane.showMessageDialog(dialog,
@@ -500,7 +593,6 @@ public class AppointmentPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "Appointment updated successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
                 dialog.dispose();
-                refreshTable();
             } else {
                 JOptionPane.showMessageDialog(dialog, "Failed to update appointment",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -531,7 +623,6 @@ public class AppointmentPanel extends JPanel {
         if (appointmentManager.confirmAppointment(appointmentId)) {
             JOptionPane.showMessageDialog(this, "Appointment confirmed successfully!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
-            refreshTable();
         } else {
             JOptionPane.showMessageDialog(this, "Failed to confirm appointment",
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -551,7 +642,6 @@ public class AppointmentPanel extends JPanel {
         if (appointmentManager.markInProgress(appointmentId)) {
             JOptionPane.showMessageDialog(this, "Appointment marked as IN_PROGRESS!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
-            refreshTable();
         } else {
             JOptionPane.showMessageDialog(this, "Failed to update appointment status",
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -571,7 +661,6 @@ public class AppointmentPanel extends JPanel {
         if (appointmentManager.markCompleted(appointmentId)) {
             JOptionPane.showMessageDialog(this, "Appointment marked as COMPLETED!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
-            refreshTable();
         } else {
             JOptionPane.showMessageDialog(this, "Failed to update appointment status",
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -591,7 +680,6 @@ public class AppointmentPanel extends JPanel {
         if (appointmentManager.markNoShow(appointmentId)) {
             JOptionPane.showMessageDialog(this, "Appointment marked as NO_SHOW!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
-            refreshTable();
         } else {
             JOptionPane.showMessageDialog(this, "Failed to update appointment status",
                     "Error", JOptionPane.ERROR_MESSAGE);
@@ -618,7 +706,6 @@ public class AppointmentPanel extends JPanel {
             if (appointmentManager.cancelAppointment(appointmentId)) {
                 JOptionPane.showMessageDialog(this, "Appointment cancelled successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshTable();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to cancel appointment",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -646,7 +733,6 @@ public class AppointmentPanel extends JPanel {
             if (appointmentManager.deleteAppointment(appointmentId)) {
                 JOptionPane.showMessageDialog(this, "Appointment deleted successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshTable();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete appointment",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -654,7 +740,7 @@ public class AppointmentPanel extends JPanel {
         }
     }
 
-    // Undo last appointment action using Stack
+    // Undo last appointment action using the undo journal
     private void undoLastAction() {
         if (!appointmentManager.canUndo()) {
             JOptionPane.showMessageDialog(this, "There's no history to undo", "Undo", JOptionPane.INFORMATION_MESSAGE);
@@ -668,11 +754,23 @@ public class AppointmentPanel extends JPanel {
             if (appointmentManager.undoLastAction()) {
                 JOptionPane.showMessageDialog(this, "Last action undone successfully!", "Success",
                         JOptionPane.INFORMATION_MESSAGE);
-                refreshTable();
             }
         }
     }
 
+    // Redo the last undone appointment action
+    private void redoLastAction() {
+        if (!appointmentManager.canRedo()) {
+            JOptionPane.showMessageDialog(this, "There's nothing to redo", "Redo", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        if (appointmentManager.redoLastAction()) {
+            JOptionPane.showMessageDialog(this, "Action redone successfully!", "Success",
+                    JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
     // Show appointment history dialog
     private void showAppointmentHistory() {
         JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Appointment History", true);
@@ -815,10 +913,11 @@ public class AppointmentPanel extends JPanel {
         } else {
             report.append("Total Appointments: ").append(appointments.size()).append("\n\n");
 
-            // Group by status
+            // Group by status (appointments already arrive in time order)
             var statusCount = appointments.stream()
                     .collect(java.util.stream.Collectors.groupingBy(
                             Appointment::getStatus,
+                            () -> new java.util.EnumMap<>(Appointment.AppointmentStatus.class),
                             java.util.stream.Collectors.counting()));
 
             report.append("Summary by Status:\n");
@@ -0,0 +1,48 @@
+package clinicapp.gui;
+
+import clinicapp.service.ChangeEvent;
+import clinicapp.service.ChangeEventListener;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Collects change events from any thread and hands them to a panel on the EDT
+// as one batch per event-dispatch tick, so a burst of changes (e.g., a CSV
+// import) causes a single table update and repaint instead of one per change.
+public class CoalescingChangeListener<T> implements ChangeEventListener<T> {
+    private final Queue<ChangeEvent<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Consumer<List<ChangeEvent<T>>> handler;
+
+    public CoalescingChangeListener(Consumer<List<ChangeEvent<T>>> handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void onChange(ChangeEvent<T> event) {
+        pending.add(event);
+        // Only the first event of a burst schedules the flush
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    private void flush() {
+        // Events arriving from here on schedule the next flush
+        flushScheduled.set(false);
+
+        List<ChangeEvent<T>> batch = new ArrayList<>();
+        ChangeEvent<T> event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            handler.accept(batch);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package clinicapp.gui;
 import clinicapp.gui.components.*;
 import clinicapp.model.Appointment;
 import clinicapp.service.AppointmentManager;
+import clinicapp.service.ChangeEvent;
 import clinicapp.service.PatientManager;
 import clinicapp.service.DoctorManager;
 import javax.swing.*;
@@ -24,6 +25,12 @@ public class DashboardPanel extends JPanel {
     private JPanel appointmentsContainer;
     private String userName;
 
+    // Value labels of the stats cards, updated in place on changes
+    private JLabel patientsValueLabel;
+    private JLabel doctorsValueLabel;
+    private JLabel appointmentsValueLabel;
+    private JLabel queueValueLabel;
+
     // Icon resources
     private static ImageIcon scaleIcon(String path, int width, int height) {
         ImageIcon icon = new ImageIcon(SidebarPanel.class.getResource(path));
@@ -46,6 +53,17 @@ public class DashboardPanel extends JPanel {
         this.doctorManager = doctorManager;
         this.userName = userName;
         initializeUI();
+
+        // Update the cards and today's queue once per EDT tick when data changes
+        if (appointmentManager != null) {
+            appointmentManager.addChangeListener(new CoalescingChangeListener<>(this::onAppointmentsChanged));
+        }
+        if (patientManager != null) {
+            patientManager.addChangeListener(new CoalescingChangeListener<>(batch -> updateCounts()));
+        }
+        if (doctorManager != null) {
+            doctorManager.addChangeListener(new CoalescingChangeListener<>(batch -> updateCounts()));
+        }
     }
 
     private void initializeUI() {
@@ -79,12 +97,16 @@ public class DashboardPanel extends JPanel {
         JPanel statsPanel = new JPanel(new GridLayout(1, 4, 15, 0));
         statsPanel.setBackground(UIConstants.GRAY_50);
 
-        JPanel patientsCard = createStatsCard("Total Patients", String.valueOf(totalPatients),
-                UIConstants.PRIMARY_BLUE);
-        JPanel doctorsCard = createStatsCard("Active Doctors", String.valueOf(totalDoctors), UIConstants.CYAN_500);
-        JPanel appointmentsCard = createStatsCard("Today's Appointments", String.valueOf(todayAppointments),
+        patientsValueLabel = createValueLabel(String.valueOf(totalPatients));
+        doctorsValueLabel = createValueLabel(String.valueOf(totalDoctors));
+        appointmentsValueLabel = createValueLabel(String.valueOf(todayAppointments));
+        queueValueLabel = createValueLabel(String.valueOf(getQueueCount()));
+
+        JPanel patientsCard = createStatsCard("Total Patients", patientsValueLabel, UIConstants.PRIMARY_BLUE);
+        JPanel doctorsCard = createStatsCard("Active Doctors", doctorsValueLabel, UIConstants.CYAN_500);
+        JPanel appointmentsCard = createStatsCard("Today's Appointments", appointmentsValueLabel,
                 UIConstants.SUCCESS_GREEN);
-        JPanel queueCard = createStatsCard("Queue Status", String.valueOf(getQueueCount()), UIConstants.PURPLE_600);
+        JPanel queueCard = createStatsCard("Queue Status", queueValueLabel, UIConstants.PURPLE_600);
 
         statsPanel.add(patientsCard);
         statsPanel.add(doctorsCard);
@@ -159,6 +181,7 @@ public class DashboardPanel extends JPanel {
     }
 
     private void refreshQueue() {
+        PanelRefreshEvent event = PanelRefreshEvent.begin("DashboardPanel", "refreshQueue");
         appointmentsContainer.removeAll();
 
         if (appointmentManager == null) {
@@ -170,9 +193,7 @@ public class DashboardPanel extends JPanel {
 
         LocalDate today = LocalDate.now();
         // Get only regular (non-walk-in) appointments for today
-        List<Appointment> todayAppointments = appointmentManager.getRegularAppointments().stream()
-                .filter(apt -> apt.getAppointmentDate().equals(today))
-                .collect(java.util.stream.Collectors.toList());
+        List<Appointment> todayAppointments = appointmentManager.getRegularAppointmentsByDate(today);
 
         if (todayAppointments.isEmpty()) {
             showNoAppointmentsMessage("No appointments scheduled for today");
@@ -190,6 +211,7 @@ public class DashboardPanel extends JPanel {
 
         appointmentsContainer.revalidate();
         appointmentsContainer.repaint();
+        event.finish(todayAppointments.size(), Math.min(3, todayAppointments.size()));
     }
     
     private JPanel createAppointmentCard(Appointment appointment) {
@@ -379,17 +401,18 @@ public class DashboardPanel extends JPanel {
             return 0;
         LocalDate today = LocalDate.now();
         // Count only regular (non-walk-in) appointments for today
-        return (int) appointmentManager.getRegularAppointments().stream()
-                .filter(apt -> apt.getAppointmentDate().equals(today))
-                .count();
+        return appointmentManager.getRegularAppointmentCount(today);
     }
 
-    private JPanel createStatsCard(String title, String value, Color accentColor) {
-        JPanel card = StyledPanel.createWithAccent(new BorderLayout(10, 10), accentColor);
-
+    private JLabel createValueLabel(String value) {
         JLabel valueLabel = new JLabel(value);
         valueLabel.setFont(new Font("Arial", Font.BOLD, 32));
         valueLabel.setForeground(UIConstants.GRAY_800);
+        return valueLabel;
+    }
+
+    private JPanel createStatsCard(String title, JLabel valueLabel, Color accentColor) {
+        JPanel card = StyledPanel.createWithAccent(new BorderLayout(10, 10), accentColor);
 
         JLabel titleLabel = StyledLabel.createSmall(title);
 
@@ -410,14 +433,33 @@ public class DashboardPanel extends JPanel {
         repaint();
     }
 
+    // Apply a batch of appointment changes: new counts and today's queue cards.
+    private void onAppointmentsChanged(List<ChangeEvent<Appointment>> batch) {
+        updateCounts();
+        refreshQueue();
+    }
+
+    // Update the stats card values in place, without rebuilding the dashboard.
+    private void updateCounts() {
+        if (patientManager != null && doctorManager != null && appointmentManager != null) {
+            totalPatients = patientManager.getPatientCount();
+            totalDoctors = doctorManager.getDoctorCount();
+            todayAppointments = appointmentManager.getAppointmentCount();
+        }
+        patientsValueLabel.setText(String.valueOf(totalPatients));
+        doctorsValueLabel.setText(String.valueOf(totalDoctors));
+        appointmentsValueLabel.setText(String.valueOf(todayAppointments));
+        queueValueLabel.setText(String.valueOf(getQueueCount()));
+    }
+
     // Refreshes the dashboard data
     public void refreshData() {
         // Update statistics from managers
         if (patientManager != null && doctorManager != null && appointmentManager != null) {
             updateStats(
-                patientManager.getAllPatients().size(),
-                doctorManager.getAllDoctors().size(),
-                appointmentManager.getAllAppointments().size()
+                patientManager.getPatientCount(),
+                doctorManager.getDoctorCount(),
+                appointmentManager.getAppointmentCount()
             );
         }
     }
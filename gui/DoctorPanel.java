@@ -4,6 +4,7 @@ import clinicapp.gui.components.*;
 import clinicapp.io.CsvExporter;
 import clinicapp.io.CsvImporter;
 import clinicapp.model.Doctor;
+import clinicapp.service.ChangeEvent;
 import clinicapp.service.DoctorManager;
 import clinicapp.util.InputValidator;
 
@@ -16,8 +17,10 @@ import com.formdev.flatlaf.FlatClientProperties;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
+import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 // Doctor Panel - Search bar + table + action buttons
 public class DoctorPanel extends JPanel {
@@ -28,9 +31,16 @@ public class DoctorPanel extends JPanel {
     private JTextField searchField;
     private JComboBox<String> searchTypeCombo;
 
+    // Search the table currently shows (type and trimmed text); null value when it shows everyone
+    private String shownSearchType;
+    private String shownSearchValue;
+
     public DoctorPanel(DoctorManager doctorManager) {
         this.doctorManager = doctorManager;
         initializeUI();
+
+        // Apply changes made anywhere to the affected rows, one batch per EDT tick
+        doctorManager.addChangeListener(new CoalescingChangeListener<>(this::applyChanges));
     }
 
     private void initializeUI() {
@@ -249,7 +259,6 @@ public class DoctorPanel extends JPanel {
             if (doctorManager.deleteDoctor(doctorId)) {
                 JOptionPane.showMessageDialog(this, "Doctor deleted successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshTable();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete doctor",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -267,6 +276,8 @@ public class DoctorPanel extends JPanel {
         }
 
         tableModel.setRowCount(0);
+        shownSearchType = searchType;
+        shownSearchValue = searchValue;
 
         if ("ID".equals(searchType)) {
             try {
@@ -308,18 +319,84 @@ public class DoctorPanel extends JPanel {
     }
 
     private void refreshTable() {
+        PanelRefreshEvent event = PanelRefreshEvent.begin("DoctorPanel", "refreshTable");
         searchField.setText("");
+        shownSearchType = null;
+        shownSearchValue = null;
         tableModel.setRowCount(0);
         List<Doctor> doctors = doctorManager.getAllDoctors();
         for (Doctor doctor : doctors) {
             addDoctorToTable(doctor);
         }
+        event.finish(doctors.size(), tableModel.getRowCount());
+    }
+
+    // Apply a batch of doctor changes: update rows in place, drop deleted rows,
+    // and append new or changed doctors that match the search being shown.
+    private void applyChanges(List<ChangeEvent<Doctor>> batch) {
+        Map<Integer, Integer> rowById = new HashMap<>();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            rowById.put((Integer) tableModel.getValueAt(row, 0), row);
+        }
+
+        List<Integer> deletedRows = new ArrayList<>();
+        for (ChangeEvent<Doctor> event : batch) {
+            Doctor doctor = event.getSubject();
+            Integer row = rowById.get(doctor.getId());
+            if (event.getType() == ChangeEvent.Type.DELETED) {
+                if (row != null) {
+                    deletedRows.add(row);
+                    rowById.remove(doctor.getId());
+                }
+            } else if (row != null) {
+                Object[] values = toRow(doctor);
+                for (int col = 0; col < values.length; col++) {
+                    tableModel.setValueAt(values[col], row, col);
+                }
+            } else if (doctorManager.getDoctorById(doctor.getId()) == doctor && matchesShownSearch(doctor)) {
+                addDoctorToTable(doctor);
+                rowById.put(doctor.getId(), tableModel.getRowCount() - 1);
+            }
+        }
+
+        // Remove from the bottom up so earlier row indexes stay valid
+        deletedRows.sort(null);
+        for (int i = deletedRows.size() - 1; i >= 0; i--) {
+            tableModel.removeRow(deletedRows.get(i));
+        }
+    }
+
+    // Check whether a doctor belongs in the table under the search being shown:
+    // everyone when no search is applied, otherwise the same match the search makes.
+    private boolean matchesShownSearch(Doctor doctor) {
+        if (shownSearchValue == null) {
+            return true;
+        }
+        if ("ID".equals(shownSearchType)) {
+            try {
+                return doctor.getId() == Integer.parseInt(shownSearchValue);
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+        if ("Name".equals(shownSearchType)) {
+            return containsIgnoreCase(doctor.getName(), shownSearchValue);
+        }
+        return containsIgnoreCase(doctor.getSpecialization(), shownSearchValue);
+    }
+
+    private static boolean containsIgnoreCase(String text, String term) {
+        return text != null && text.toLowerCase().contains(term.toLowerCase());
     }
 
     private void addDoctorToTable(Doctor doctor) {
+        tableModel.addRow(toRow(doctor));
+    }
+
+    private Object[] toRow(Doctor doctor) {
         String availableDays = doctor.getAvailableDays() != null ? String.join(", ", doctor.getAvailableDays()) : "N/A";
 
-        Object[] row = {
+        return new Object[] {
                 doctor.getId(),
                 doctor.getName(),
                 doctor.getSpecialization(),
@@ -327,7 +404,6 @@ public class DoctorPanel extends JPanel {
                 doctor.getEmail() != null ? doctor.getEmail() : "N/A",
                 availableDays
         };
-        tableModel.addRow(row);
     }
 
     private void showAddDoctorDialog() {
@@ -418,7 +494,6 @@ public class DoctorPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "Doctor added successfully!\nID: " + doctor.getId(),
                         "Success", JOptionPane.INFORMATION_MESSAGE);
                 dialog.dispose();
-                refreshTable();
             }
         });
 
@@ -513,7 +588,6 @@ public class DoctorPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "Doctor updated successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
                 dialog.dispose();
-                refreshTable();
             }
         });
 
@@ -576,7 +650,6 @@ public class DoctorPanel extends JPanel {
             JOptionPane.showMessageDialog(this, message.toString(), "Import Results",
                     importResult.errorCount > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
 
-            refreshTable();
         }
     }
 }
@@ -76,9 +76,9 @@ public class MainFrame extends JFrame {
 
         // Update dashboard stats
         dashboardPanel.updateStats(
-                patientManager.getAllPatients().size(),
-                doctorManager.getAllDoctors().size(),
-                appointmentManager.getAllAppointments().size());
+                patientManager.getPatientCount(),
+                doctorManager.getDoctorCount(),
+                appointmentManager.getAppointmentCount());
         // Add panels to card layout
         contentPanel.add(dashboardPanel, "dashboard");
         contentPanel.add(patientPanel, "patients");
@@ -0,0 +1,52 @@
+package clinicapp.gui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder event for one panel refresh on the event dispatch thread.
+// Scanned is the number of items fetched from the managers (or changes applied),
+// Results the rows or cards shown afterwards. Committed only while a recording
+// enables clinicapp.PanelRefresh (see monitoring/clinic.jfc).
+@Name("clinicapp.PanelRefresh")
+@Label("Panel Refresh")
+@Category({ "Clinic App", "GUI" })
+@Description("A table or card list rebuilt from the managers")
+@StackTrace(false)
+class PanelRefreshEvent extends Event {
+    @Label("Panel")
+    String panel;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Scanned")
+    @Description("Items fetched or changes applied")
+    long scanned;
+
+    @Label("Results")
+    @Description("Rows or cards shown")
+    long results;
+
+    // Start timing a refresh.
+    static PanelRefreshEvent begin(String panel, String operation) {
+        PanelRefreshEvent event = new PanelRefreshEvent();
+        event.panel = panel;
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    // Finish the refresh and commit it if the recording wants it.
+    void finish(long scanned, long results) {
+        end();
+        if (shouldCommit()) {
+            this.scanned = scanned;
+            this.results = results;
+            commit();
+        }
+    }
+}
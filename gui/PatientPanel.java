@@ -4,7 +4,9 @@ import clinicapp.gui.components.*;
 import clinicapp.io.CsvExporter;
 import clinicapp.io.CsvImporter;
 import clinicapp.model.Patient;
+import clinicapp.service.ChangeEvent;
 import clinicapp.service.PatientManager;
+import clinicapp.service.PatientQuery;
 import clinicapp.util.InputValidator;
 
 import javax.swing.*;
@@ -16,8 +18,11 @@ import com.formdev.flatlaf.FlatClientProperties;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 // Patient Panel
 public class PatientPanel extends JPanel {
@@ -28,9 +33,19 @@ public class PatientPanel extends JPanel {
     private JTextField searchField;
     private JComboBox<String> searchTypeCombo;
 
+    // Search the table currently shows (type and trimmed text); null value when it shows everyone
+    private String shownSearchType;
+    private String shownSearchValue;
+
+    // Combined filter the table currently shows instead, if any
+    private PatientQuery shownQuery;
+
     public PatientPanel(PatientManager patientManager) {
         this.patientManager = patientManager;
         initializeUI();
+
+        // Apply changes made anywhere to the affected rows, one batch per EDT tick
+        patientManager.addChangeListener(new CoalescingChangeListener<>(this::applyChanges));
     }
 
     private void initializeUI() {
@@ -85,10 +100,15 @@ public class PatientPanel extends JPanel {
         searchButton.setPreferredSize(new Dimension(80, 35));
         searchButton.addActionListener(e -> performSearch());
 
+        StyledButton filterButton = StyledButton.createOutline("Filter");
+        filterButton.setPreferredSize(new Dimension(80, 35));
+        filterButton.addActionListener(e -> showFilterDialog());
+
         searchPanel.add(searchLabel);
         searchPanel.add(searchField);
         searchPanel.add(searchTypeCombo);
         searchPanel.add(searchButton);
+        searchPanel.add(filterButton);
 
         searchTypeCombo.addItemListener(e -> {
             if (e.getStateChange() == ItemEvent.SELECTED) {
@@ -248,7 +268,6 @@ public class PatientPanel extends JPanel {
             if (patientManager.deletePatient(patientId)) {
                 JOptionPane.showMessageDialog(this, "Patient deleted successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshTable();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete patient",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -266,6 +285,9 @@ public class PatientPanel extends JPanel {
         }
 
         tableModel.setRowCount(0);
+        shownSearchType = searchType;
+        shownSearchValue = searchValue;
+        shownQuery = null;
 
         if ("ID".equals(searchType)) {
             try {
@@ -283,6 +305,10 @@ public class PatientPanel extends JPanel {
             }
         } else {
             List<Patient> results = patientManager.searchPatientByName(searchValue);
+            if (results.isEmpty()) {
+                // Nothing contains the name as typed; show the closest spellings instead
+                results = patientManager.searchPatientsFuzzy(searchValue, 20);
+            }
 
             if (results.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "No patients found with name: " + searchValue,
@@ -296,16 +322,103 @@ public class PatientPanel extends JPanel {
     }
 
     private void refreshTable() {
+        PanelRefreshEvent event = PanelRefreshEvent.begin("PatientPanel", "refreshTable");
         searchField.setText("");
+        shownSearchType = null;
+        shownSearchValue = null;
+        shownQuery = null;
         tableModel.setRowCount(0);
         List<Patient> patients = patientManager.getAllPatients();
         for (Patient patient : patients) {
             addPatientToTable(patient);
         }
+        event.finish(patients.size(), tableModel.getRowCount());
+    }
+
+    // Show the patients matching every criterion of a combined filter. The
+    // indexes find them in ID order and rows are added as they stream in.
+    private void applyFilter(PatientQuery query) {
+        PanelRefreshEvent event = PanelRefreshEvent.begin("PatientPanel", "applyFilter");
+        searchField.setText("");
+        shownSearchType = null;
+        shownSearchValue = null;
+        shownQuery = query;
+        tableModel.setRowCount(0);
+        patientManager.streamPatients(query).forEach(this::addPatientToTable);
+        event.finish(tableModel.getRowCount(), tableModel.getRowCount());
+
+        if (tableModel.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "No patients match the filter",
+                    "No Results", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    // Apply a batch of patient changes: update rows in place, drop deleted rows,
+    // and append new or changed patients that match the search being shown.
+    private void applyChanges(List<ChangeEvent<Patient>> batch) {
+        Map<Integer, Integer> rowById = new HashMap<>();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            rowById.put((Integer) tableModel.getValueAt(row, 0), row);
+        }
+
+        List<Integer> deletedRows = new ArrayList<>();
+        for (ChangeEvent<Patient> event : batch) {
+            Patient patient = event.getSubject();
+            Integer row = rowById.get(patient.getId());
+            if (event.getType() == ChangeEvent.Type.DELETED) {
+                if (row != null) {
+                    deletedRows.add(row);
+                    rowById.remove(patient.getId());
+                }
+            } else if (row != null) {
+                Object[] values = toRow(patient);
+                for (int col = 0; col < values.length; col++) {
+                    tableModel.setValueAt(values[col], row, col);
+                }
+            } else if (patientManager.getPatientById(patient.getId()) == patient && matchesShownSearch(patient)) {
+                addPatientToTable(patient);
+                rowById.put(patient.getId(), tableModel.getRowCount() - 1);
+            }
+        }
+
+        // Remove from the bottom up so earlier row indexes stay valid
+        deletedRows.sort(null);
+        for (int i = deletedRows.size() - 1; i >= 0; i--) {
+            tableModel.removeRow(deletedRows.get(i));
+        }
+    }
+
+    // Check whether a patient belongs in the table under the search being shown:
+    // everyone when no search is applied, otherwise the typed ID, a name containing
+    // the typed text, or every criterion of the filter. Spelling-tolerant matches
+    // are only found by searching again.
+    private boolean matchesShownSearch(Patient patient) {
+        if (shownQuery != null) {
+            return shownQuery.matches(patient);
+        }
+        if (shownSearchValue == null) {
+            return true;
+        }
+        if ("ID".equals(shownSearchType)) {
+            try {
+                return patient.getId() == Integer.parseInt(shownSearchValue);
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+        return containsIgnoreCase(patient.getName(), shownSearchValue);
+    }
+
+    private static boolean containsIgnoreCase(String text, String term) {
+        return text != null && text.toLowerCase().contains(term.toLowerCase());
     }
 
     private void addPatientToTable(Patient patient) {
-        Object[] row = {
+        tableModel.addRow(toRow(patient));
+    }
+
+    private Object[] toRow(Patient patient) {
+        return new Object[] {
                 patient.getId(),
                 patient.getName(),
                 patient.getDateOfBirth(),
@@ -315,7 +428,91 @@ public class PatientPanel extends JPanel {
                 patient.getEmail() != null ? patient.getEmail() : "N/A",
                 patient.getBloodType() != null ? patient.getBloodType() : "N/A"
         };
-        tableModel.addRow(row);
+    }
+
+    private void showFilterDialog() {
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Filter Patients", true);
+        dialog.setSize(420, 400);
+        dialog.setResizable(false);
+        dialog.setLocationRelativeTo(this);
+
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(8, 8, 8, 8);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        // Fields, prefilled with the filter being shown; blank means any
+        PatientQuery shown = shownQuery != null ? shownQuery : new PatientQuery();
+        JTextField nameField = new JTextField(shown.name, 20);
+        JComboBox<String> genderCombo = new JComboBox<>(new String[] { "Any", "Male", "Female", "Other" });
+        if (shown.gender != null) {
+            genderCombo.setSelectedItem(shown.gender);
+        }
+        JTextField bloodTypeField = new JTextField(shown.bloodType, 20);
+        JTextField minAgeField = new JTextField(shown.minAge != null ? shown.minAge.toString() : "", 20);
+        JTextField maxAgeField = new JTextField(shown.maxAge != null ? shown.maxAge.toString() : "", 20);
+        JTextField allergyField = new JTextField(shown.allergy, 20);
+
+        int row = 0;
+        addFormField(formPanel, gbc, row++, "Name contains:", nameField);
+        addFormField(formPanel, gbc, row++, "Gender:", genderCombo);
+        addFormField(formPanel, gbc, row++, "Blood Type:", bloodTypeField);
+        addFormField(formPanel, gbc, row++, "Min Age:", minAgeField);
+        addFormField(formPanel, gbc, row++, "Max Age:", maxAgeField);
+        addFormField(formPanel, gbc, row++, "Allergy contains:", allergyField);
+
+        // Buttons
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        StyledButton applyButton = StyledButton.createPrimary("Apply");
+        applyButton.setPreferredSize(new Dimension(90, 30));
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setPreferredSize(new Dimension(90, 30));
+
+        applyButton.addActionListener(e -> {
+            PatientQuery query = new PatientQuery();
+            try {
+                query.minAge = parseAge(minAgeField.getText());
+                query.maxAge = parseAge(maxAgeField.getText());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "Invalid age", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            String name = nameField.getText().trim();
+            String gender = (String) genderCombo.getSelectedItem();
+            String bloodType = bloodTypeField.getText().trim();
+            String allergy = allergyField.getText().trim();
+            query.name = name.isEmpty() ? null : name;
+            query.gender = "Any".equals(gender) ? null : gender;
+            query.bloodType = bloodType.isEmpty() ? null : InputValidator.normalizeBloodType(bloodType);
+            query.allergy = allergy.isEmpty() ? null : allergy;
+
+            dialog.dispose();
+            applyFilter(query);
+        });
+
+        cancelButton.addActionListener(e -> dialog.dispose());
+
+        buttonPanel.add(applyButton);
+        buttonPanel.add(cancelButton);
+
+        dialog.setLayout(new BorderLayout());
+        dialog.add(formPanel, BorderLayout.CENTER);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+        dialog.setVisible(true);
+    }
+
+    // Age typed in the filter dialog; blank leaves that end of the range open.
+    private static Integer parseAge(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        int age = Integer.parseInt(trimmed);
+        if (!InputValidator.isValidIntegerRange(age, 0, 150)) {
+            throw new NumberFormatException("Age out of range: " + age);
+        }
+        return age;
     }
 
     private void showAddPatientDialog() {
@@ -392,7 +589,6 @@ public class PatientPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "Patient added successfully!\nID: " + patient.getId(),
                         "Success", JOptionPane.INFORMATION_MESSAGE);
                 dialog.dispose();
-                refreshTable();
             }
         });
 
@@ -473,7 +669,6 @@ public class PatientPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "Patient updated successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
                 dialog.dispose();
-                refreshTable();
             }
         });
 
@@ -535,7 +730,6 @@ public class PatientPanel extends JPanel {
             JOptionPane.showMessageDialog(this, message.toString(), "Import Results",
                     importResult.errorCount > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
 
-            refreshTable();
         }
     }
 }
@@ -3,11 +3,14 @@ package clinicapp.gui;
 import clinicapp.gui.components.*;
 import clinicapp.model.Appointment;
 import clinicapp.service.AppointmentManager;
+import clinicapp.service.ChangeEvent;
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 // Dedicated Schedule Panel for viewing appointment schedules
 public class SchedulePanel extends JPanel {
@@ -21,6 +24,9 @@ public class SchedulePanel extends JPanel {
     private JButton nextDayButton;
     private JButton refreshButton;
 
+    // IDs of the appointments currently shown as cards
+    private final Set<Integer> shownIds = new HashSet<>();
+
     // Scales an icon to the specified dimensions
     private static ImageIcon scaleIcon(String path, int width, int height) {
         ImageIcon icon = new ImageIcon(SidebarPanel.class.getResource(path));
@@ -38,6 +44,11 @@ public class SchedulePanel extends JPanel {
         this.selectedDate = LocalDate.now();
         initializeUI();
         loadAppointments();
+
+        // Reload once per EDT tick, and only when a change touches the shown day
+        if (appointmentManager != null) {
+            appointmentManager.addChangeListener(new CoalescingChangeListener<>(this::onAppointmentsChanged));
+        }
     }
 
     // Initializes the UI components
@@ -168,7 +179,9 @@ public class SchedulePanel extends JPanel {
 
     // Loads appointments for the selected date
     private void loadAppointments() {
+        PanelRefreshEvent event = PanelRefreshEvent.begin("SchedulePanel", "loadAppointments");
         appointmentsContainer.removeAll();
+        shownIds.clear();
 
         if (appointmentManager == null) {
             showNoAppointmentsMessage("No appointment manager available");
@@ -181,6 +194,7 @@ public class SchedulePanel extends JPanel {
             showNoAppointmentsMessage("No appointments scheduled for this date");
         } else {
             for (Appointment apt : appointments) {
+                shownIds.add(apt.getId());
                 JPanel card = createAppointmentCard(apt);
                 appointmentsContainer.add(card);
                 appointmentsContainer.add(Box.createVerticalStrut(15));
@@ -189,6 +203,18 @@ public class SchedulePanel extends JPanel {
 
         appointmentsContainer.revalidate();
         appointmentsContainer.repaint();
+        event.finish(appointments.size(), shownIds.size());
+    }
+
+    // Reload if any changed appointment is on the selected date or was shown before the change
+    private void onAppointmentsChanged(List<ChangeEvent<Appointment>> batch) {
+        for (ChangeEvent<Appointment> event : batch) {
+            Appointment apt = event.getSubject();
+            if (apt.getAppointmentDate().equals(selectedDate) || shownIds.contains(apt.getId())) {
+                loadAppointments();
+                return;
+            }
+        }
     }
 
     // Creates an appointment card
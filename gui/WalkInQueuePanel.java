@@ -3,8 +3,10 @@ package clinicapp.gui;
 import clinicapp.gui.components.*;
 import clinicapp.model.Patient;
 import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.TriageLevel;
 import clinicapp.service.PatientManager;
 import clinicapp.service.AppointmentManager;
+import clinicapp.service.ChangeEvent;
 import clinicapp.service.DoctorManager;
 
 import javax.swing.*;
@@ -12,10 +14,15 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 // GUI Panel for managing walk-in patient queue
 // Uses existing AppointmentManager queue for waitlist management
 public class WalkInQueuePanel extends JPanel {
+    // Doctor combo entries that route to the least-loaded doctor of a specialization
+    private static final String AUTO_PREFIX = "Auto - ";
+
     private AppointmentManager appointmentManager;
     private PatientManager patientManager;
     private DoctorManager doctorManager;
@@ -26,6 +33,7 @@ public class WalkInQueuePanel extends JPanel {
     private JComboBox<String> patientCombo;
     private JComboBox<String> doctorCombo;
     private JTextField reasonField;
+    private JComboBox<TriageLevel> triageCombo;
     
     // Constructor
     public WalkInQueuePanel(AppointmentManager appointmentManager, PatientManager patientManager, DoctorManager doctorManager) {
@@ -33,6 +41,9 @@ public class WalkInQueuePanel extends JPanel {
         this.patientManager = patientManager;
         this.doctorManager = doctorManager;
         initializeUI();
+
+        // Redraw the queue once per EDT tick when a walk-in changes
+        appointmentManager.addChangeListener(new CoalescingChangeListener<>(this::onAppointmentsChanged));
     }
     
     // Initialize UI components
@@ -170,6 +181,14 @@ public class WalkInQueuePanel extends JPanel {
         reasonField.setPreferredSize(new Dimension(300, 35));
         reasonField.setFont(UIConstants.FONT_BODY);
         
+        // Triage level
+        JLabel triageLabel = new JLabel("Triage Level: *");
+        triageLabel.setFont(UIConstants.FONT_LABEL);
+        
+        triageCombo = new JComboBox<>(TriageLevel.values());
+        triageCombo.setSelectedItem(TriageLevel.STANDARD);
+        triageCombo.setPreferredSize(new Dimension(300, 35));
+        
         // Add to queue button
         StyledButton addButton = StyledButton.createPrimary("Add to Queue");
         addButton.setPreferredSize(new Dimension(300, 40));
@@ -197,6 +216,12 @@ public class WalkInQueuePanel extends JPanel {
         formPanel.add(reasonField, gbc);
         
         gbc.gridy = 6;
+        formPanel.add(triageLabel, gbc);
+        
+        gbc.gridy = 7;
+        formPanel.add(triageCombo, gbc);
+        
+        gbc.gridy = 8;
         gbc.insets = new Insets(20, 8, 8, 8);
         formPanel.add(addButton, gbc);
         
@@ -209,12 +234,12 @@ public class WalkInQueuePanel extends JPanel {
         ));
         
         // Info label
-        JLabel infoLabel = new JLabel("<html><b>Queue System:</b> First-In-First-Out (FIFO)<br>" +
-                                     "Patients are served in order of arrival.</html>");
+        JLabel infoLabel = new JLabel("<html><b>Queue System:</b> Triage priority with aging<br>" +
+                                     "Urgent patients go first; waiting time raises everyone's priority.</html>");
         infoLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         infoPanel.add(infoLabel);
         
-        gbc.gridy = 7;
+        gbc.gridy = 9;
         gbc.insets = new Insets(15, 8, 8, 8);
         formPanel.add(infoPanel, gbc);
         
@@ -240,7 +265,7 @@ public class WalkInQueuePanel extends JPanel {
         titlePanel.add(titleLabel);
         
         // Table
-        String[] columnNames = {"Position", "Queue #", "Patient Name", "Arrival Time", "Wait Time", "Reason"};
+        String[] columnNames = {"Position", "Queue #", "Patient Name", "Doctor", "Triage", "Arrival Time", "Wait Time", "Reason"};
         tableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -258,9 +283,11 @@ public class WalkInQueuePanel extends JPanel {
         queueTable.getColumnModel().getColumn(0).setPreferredWidth(70);  // Position
         queueTable.getColumnModel().getColumn(1).setPreferredWidth(80);  // Queue #
         queueTable.getColumnModel().getColumn(2).setPreferredWidth(150); // Name
-        queueTable.getColumnModel().getColumn(3).setPreferredWidth(120); // Arrival
-        queueTable.getColumnModel().getColumn(4).setPreferredWidth(90);  // Wait Time
-        queueTable.getColumnModel().getColumn(5).setPreferredWidth(200); // Reason
+        queueTable.getColumnModel().getColumn(3).setPreferredWidth(150); // Doctor
+        queueTable.getColumnModel().getColumn(4).setPreferredWidth(100); // Triage
+        queueTable.getColumnModel().getColumn(5).setPreferredWidth(120); // Arrival
+        queueTable.getColumnModel().getColumn(6).setPreferredWidth(120); // Wait Time
+        queueTable.getColumnModel().getColumn(7).setPreferredWidth(200); // Reason
         
         JScrollPane scrollPane = new JScrollPane(queueTable);
         
@@ -279,6 +306,10 @@ public class WalkInQueuePanel extends JPanel {
         callNextButton.setPreferredSize(new Dimension(150, 35));
         callNextButton.addActionListener(e -> callNextPatient());
         
+        JButton priorityButton = new JButton("Change Priority");
+        priorityButton.setPreferredSize(new Dimension(150, 35));
+        priorityButton.addActionListener(e -> changePriority());
+        
         JButton removeButton = new JButton("Remove from Queue");
         removeButton.setPreferredSize(new Dimension(150, 35));
         removeButton.addActionListener(e -> removeFromQueue());
@@ -288,6 +319,7 @@ public class WalkInQueuePanel extends JPanel {
         refreshButton.addActionListener(e -> refreshQueue());
         
         panel.add(callNextButton);
+        panel.add(priorityButton);
         panel.add(removeButton);
         panel.add(refreshButton);
         
@@ -304,11 +336,19 @@ public class WalkInQueuePanel extends JPanel {
         }
     }
     
-    // Load doctors into combo box
+    // Load doctors into combo box, after one auto-assign entry per specialization
     private void loadDoctors() {
         doctorCombo.removeAllItems();
         List<clinicapp.model.Doctor> doctors = doctorManager.getAvailableDoctors();
         
+        Set<String> specializations = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (clinicapp.model.Doctor doctor : doctors) {
+            specializations.add(doctor.getSpecialization());
+        }
+        for (String specialization : specializations) {
+            doctorCombo.addItem(AUTO_PREFIX + specialization);
+        }
+        
         for (clinicapp.model.Doctor doctor : doctors) {
             doctorCombo.addItem(doctor.getId() + " - " + doctor.getName() + " (" + doctor.getSpecialization() + ")");
         }
@@ -357,6 +397,31 @@ public class WalkInQueuePanel extends JPanel {
         }
         
         String selectedDoctor = (String) doctorCombo.getSelectedItem();
+        TriageLevel triageLevel = (TriageLevel) triageCombo.getSelectedItem();
+        
+        // Auto-assign: route to the least-loaded doctor of the specialization
+        if (selectedDoctor.startsWith(AUTO_PREFIX)) {
+            String specialization = selectedDoctor.substring(AUTO_PREFIX.length());
+            Appointment appointment = appointmentManager.scheduleWalkIn(patient, specialization, reason, triageLevel);
+            
+            if (appointment != null) {
+                JOptionPane.showMessageDialog(this, 
+                    String.format("Patient added to walk-in queue!\nAppointment ID: %d\nAssigned Doctor: %s\nQueue Position: %d\nEstimated Wait: %s", 
+                        appointment.getId(), appointment.getDoctor().getName(),
+                        appointmentManager.getWalkInQueuePosition(appointment.getId()),
+                        formatWait(appointment.getId())),
+                    "Success", 
+                    JOptionPane.INFORMATION_MESSAGE);
+                reasonField.setText("");
+            } else {
+                JOptionPane.showMessageDialog(this, 
+                    "No " + specialization + " doctor is available today", 
+                    "Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            }
+            return;
+        }
+        
         int doctorId = Integer.parseInt(selectedDoctor.split(" - ")[0]);
         clinicapp.model.Doctor doctor = doctorManager.getDoctorById(doctorId);
         
@@ -381,19 +446,17 @@ public class WalkInQueuePanel extends JPanel {
         
         if (appointment != null) {
             // Add to walk-in queue instead of regular appointment queue
-            appointmentManager.addToWalkInQueue(appointment);
+            appointmentManager.addToWalkInQueue(appointment, triageLevel);
             
             JOptionPane.showMessageDialog(this, 
-                String.format("Patient added to walk-in queue!\nAppointment ID: %d\nQueue Position: %d", 
-                    appointment.getId(), appointmentManager.getWalkInQueueSize()),
+                String.format("Patient added to walk-in queue!\nAppointment ID: %d\nQueue Position: %d\nEstimated Wait: %s", 
+                    appointment.getId(), appointmentManager.getWalkInQueuePosition(appointment.getId()),
+                    formatWait(appointment.getId())),
                 "Success", 
                 JOptionPane.INFORMATION_MESSAGE);
             
             // Clear form
             reasonField.setText("");
-            
-            // Refresh display
-            refreshQueue();
         } else {
             JOptionPane.showMessageDialog(this, 
                 "Failed to add patient to queue", 
@@ -412,7 +475,7 @@ public class WalkInQueuePanel extends JPanel {
             return;
         }
         
-        // Call next walk-in patient (FIFO - Queue operation)
+        // Call next walk-in patient (highest priority first)
         Appointment nextAppointment = appointmentManager.processNextWalkIn();
         
         if (nextAppointment != null) {
@@ -433,7 +496,34 @@ public class WalkInQueuePanel extends JPanel {
                 "Patient Called", 
                 JOptionPane.INFORMATION_MESSAGE);
             
-            refreshQueue();
+        }
+    }
+    
+    // Change the triage level of the selected waiting patient
+    private void changePriority() {
+        int selectedRow = queueTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, 
+                "Please select a patient from the queue", 
+                "No Selection", 
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        int appointmentId = (int) tableModel.getValueAt(selectedRow, 1);
+        TriageLevel level = (TriageLevel) JOptionPane.showInputDialog(this,
+            "Select the new triage level:",
+            "Change Priority",
+            JOptionPane.QUESTION_MESSAGE,
+            null,
+            TriageLevel.values(),
+            tableModel.getValueAt(selectedRow, 4));
+        
+        if (level != null && !appointmentManager.reprioritizeWalkIn(appointmentId, level)) {
+            JOptionPane.showMessageDialog(this, 
+                "Patient is no longer waiting in the queue", 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -462,7 +552,6 @@ public class WalkInQueuePanel extends JPanel {
                     "Patient removed from queue successfully!", 
                     "Success", 
                     JOptionPane.INFORMATION_MESSAGE);
-                refreshQueue();
             } else {
                 JOptionPane.showMessageDialog(this, 
                     "Failed to remove patient from queue", 
@@ -474,12 +563,10 @@ public class WalkInQueuePanel extends JPanel {
     
     // Refresh queue
     private void refreshQueue() {
+        PanelRefreshEvent event = PanelRefreshEvent.begin("WalkInQueuePanel", "refreshQueue");
         // Clear table
         tableModel.setRowCount(0);
         
-        // Get all walk-in queue entries
-        List<Appointment> queueEntries = appointmentManager.viewWalkInQueue();
-        
         // Update stats
         queueSizeLabel.setText(String.valueOf(appointmentManager.getWalkInQueueSize()));
         if (appointmentManager.getWalkInQueueSize() == 0) {
@@ -489,23 +576,50 @@ public class WalkInQueuePanel extends JPanel {
                 appointmentManager.getWalkInQueueSize()));
         }
         
-        // Populate table
+        // Populate table straight from the queue in service order, with each
+        // patient's live position
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-        int position = 1;
-        
-        for (Appointment appointment : queueEntries) {
+        appointmentManager.forEachWalkIn((appointment, position) -> {
             Object[] row = {
-                position++,
+                position,
                 appointment.getId(),
                 appointment.getPatient().getName(),
+                appointment.getDoctor().getName(),
+                appointment.getTriageLevel(),
                 appointment.getStartTime().format(timeFormatter),
-                "N/A", // Wait time - would need to calculate
+                null,
                 appointment.getReason()
             };
             tableModel.addRow(row);
+        });
+        
+        // Wait estimates ask the manager, so fill them in after the queue is released
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            tableModel.setValueAt(formatWait((int) tableModel.getValueAt(row, 1)), row, 6);
         }
+        event.finish(tableModel.getRowCount(), tableModel.getRowCount());
     }
     
+    // Estimated wait from the doctor's rolling service time, e.g. "~25 min (10:45)"
+    private String formatWait(int appointmentId) {
+        java.time.LocalDateTime expected = appointmentManager.getExpectedStartTime(appointmentId);
+        if (expected == null) {
+            return "N/A";
+        }
+        return String.format("~%d min (%s)", appointmentManager.getEstimatedWaitMinutes(appointmentId),
+            expected.format(DateTimeFormatter.ofPattern("HH:mm")));
+    }
+    
+    // Positions shift for everyone behind a change, so redraw the (short) queue once per batch
+    private void onAppointmentsChanged(List<ChangeEvent<Appointment>> batch) {
+        for (ChangeEvent<Appointment> event : batch) {
+            if (appointmentManager.isWalkInAppointment(event.getSubject().getId())) {
+                refreshQueue();
+                return;
+            }
+        }
+    }
+
     // Public method to refresh the queue display
     // Can be called from other panels
     public void updateQueue() {
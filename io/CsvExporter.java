@@ -24,6 +24,7 @@ public class CsvExporter {
         String fileName = EXPORT_DIRECTORY + "patients_" +
                 LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) +
                 "_" + System.currentTimeMillis() + ".csv";
+        CsvTransferEvent event = CsvTransferEvent.begin("exportPatients", fileName);
 
         try (CSVWriter writer = new CSVWriter(new FileWriter(fileName))) {
             String[] header = {
@@ -49,6 +50,7 @@ public class CsvExporter {
             }
         }
 
+        event.finish(patients.size(), patients.size(), 0);
         return fileName;
     }
 
@@ -57,6 +59,7 @@ public class CsvExporter {
         String fileName = EXPORT_DIRECTORY + "doctors_" +
                 LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) +
                 "_" + System.currentTimeMillis() + ".csv";
+        CsvTransferEvent event = CsvTransferEvent.begin("exportDoctors", fileName);
 
         try (CSVWriter writer = new CSVWriter(new FileWriter(fileName))) {
             String[] header = {
@@ -83,6 +86,7 @@ public class CsvExporter {
             }
         }
 
+        event.finish(doctors.size(), doctors.size(), 0);
         return fileName;
     }
 
@@ -3,6 +3,7 @@ package clinicapp.io;
 
 import clinicapp.service.DoctorManager;
 import clinicapp.service.PatientManager;
+import clinicapp.util.IdAllocator;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvException;
  
@@ -35,15 +36,20 @@ public class CsvImporter {
     // Import patients from a CSV file.
     public static ImportResult importPatients(String filePath, PatientManager patientManager) {
         ImportResult result = new ImportResult();
+        CsvTransferEvent event = CsvTransferEvent.begin("importPatients", filePath);
         
         try (CSVReader reader = new CSVReader(new FileReader(filePath))) {
             List<String[]> records = reader.readAll();
             
             if (records.isEmpty()) {
                 result.errors.add("CSV file is empty");
+                event.finish(0, 0, 0);
                 return result;
             }
             
+            // Reserve one contiguous run of patient IDs for the whole file up front
+            IdAllocator.PATIENTS.prefetch(records.size() - 1);
+            
             boolean firstRow = true;
             for (String[] record : records) {
                 if (firstRow) {
@@ -78,21 +84,27 @@ public class CsvImporter {
             result.errors.add("Error reading CSV file: " + e.getMessage());
         }
         
+        event.finish(result.successCount + result.errorCount, result.successCount, result.errorCount);
         return result;
     }
     
     // Import doctors from a CSV file.
     public static ImportResult importDoctors(String filePath, DoctorManager doctorManager) {
         ImportResult result = new ImportResult();
+        CsvTransferEvent event = CsvTransferEvent.begin("importDoctors", filePath);
         
         try (CSVReader reader = new CSVReader(new FileReader(filePath))) {
             List<String[]> records = reader.readAll();
             
             if (records.isEmpty()) {
                 result.errors.add("CSV file is empty");
+                event.finish(0, 0, 0);
                 return result;
             }
             
+            // Reserve one contiguous run of doctor IDs for the whole file up front
+            IdAllocator.DOCTORS.prefetch(records.size() - 1);
+            
             boolean firstRow = true;
             for (String[] record : records) {
                 if (firstRow) {
@@ -131,6 +143,7 @@ public class CsvImporter {
             result.errors.add("Error reading CSV file: " + e.getMessage());
         }
         
+        event.finish(result.successCount + result.errorCount, result.successCount, result.errorCount);
         return result;
     }
     
@@ -0,0 +1,56 @@
+package clinicapp.io;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder event for one CSV import or export. Scanned is the number of
+// records read (import) or handed in (export), Results the number imported or
+// written. Committed only while a recording enables clinicapp.CsvTransfer
+// (see monitoring/clinic.jfc).
+@Name("clinicapp.CsvTransfer")
+@Label("CSV Transfer")
+@Category({ "Clinic App", "CSV" })
+@Description("A CSV import or export")
+@StackTrace(false)
+class CsvTransferEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("File")
+    String file;
+
+    @Label("Scanned")
+    @Description("Records read or handed in")
+    long scanned;
+
+    @Label("Results")
+    @Description("Records imported or written")
+    long results;
+
+    @Label("Errors")
+    long errors;
+
+    // Start timing a transfer.
+    static CsvTransferEvent begin(String operation, String file) {
+        CsvTransferEvent event = new CsvTransferEvent();
+        event.operation = operation;
+        event.file = file;
+        event.begin();
+        return event;
+    }
+
+    // Finish the transfer and commit it if the recording wants it.
+    void finish(long scanned, long results, long errors) {
+        end();
+        if (shouldCommit()) {
+            this.scanned = scanned;
+            this.results = results;
+            this.errors = errors;
+            commit();
+        }
+    }
+}
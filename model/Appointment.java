@@ -1,12 +1,12 @@
 package clinicapp.model;
 
+import clinicapp.util.IdAllocator;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 public class Appointment {
-    private static int nextId = 1;
-    
     private final int id;
     private Patient patient;
     private Doctor doctor;
@@ -17,6 +17,9 @@ public class Appointment {
     private AppointmentStatus status;
     private String notes;
     private LocalDateTime createdAt;
+    private LocalDateTime startedAt;   // when it last went IN_PROGRESS (null if never)
+    private LocalDateTime completedAt; // when it was COMPLETED (null if not)
+    private TriageLevel triageLevel;
     
     public enum AppointmentStatus {
         SCHEDULED,   // Appointment is scheduled and waiting
@@ -26,10 +29,30 @@ public class Appointment {
         CANCELLED,   // Appointment has been cancelled
         NO_SHOW      // Patient did not show up
     }
+
+    // Walk-in triage levels. Each level counts as a head start of waiting time,
+    // so urgent patients go first but a waiting low-level patient eventually
+    // outranks every newcomer (no starvation).
+    public enum TriageLevel {
+        IMMEDIATE(240),  // Life-threatening, seen first
+        URGENT(90),      // Needs prompt attention
+        STANDARD(30),    // Default for walk-ins
+        NON_URGENT(0);   // Can safely wait
+
+        private final int headStartMinutes;
+
+        TriageLevel(int headStartMinutes) {
+            this.headStartMinutes = headStartMinutes;
+        }
+
+        public int getHeadStartMinutes() {
+            return headStartMinutes;
+        }
+    }
     
     public Appointment(Patient patient, Doctor doctor, LocalDate appointmentDate, 
                       LocalTime startTime, LocalTime endTime, String reason) {
-        this.id = nextId++;
+        this.id = IdAllocator.APPOINTMENTS.nextId();
         this.patient = patient;
         this.doctor = doctor;
         this.appointmentDate = appointmentDate;
@@ -39,6 +62,7 @@ public class Appointment {
         this.status = AppointmentStatus.SCHEDULED;
         this.notes = "";
         this.createdAt = LocalDateTime.now();
+        this.triageLevel = TriageLevel.STANDARD;
     }
     
     // Getter Methods - Appointment
@@ -85,6 +109,18 @@ public class Appointment {
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public TriageLevel getTriageLevel() {
+        return triageLevel;
+    }
     
     // Getter Methods - Appointment
     public void setPatient(Patient patient) {
@@ -126,6 +162,18 @@ public class Appointment {
         this.notes = notes;
     }
 
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public void setTriageLevel(TriageLevel triageLevel) {
+        this.triageLevel = triageLevel;
+    }
+
     public String getDetailedInfo() {
         return "Appointment ID: " + id +
                "\n Date: " + appointmentDate +
@@ -139,7 +187,9 @@ public class Appointment {
                "\n Reason: " + reason +
                "\n Status: " + status +
                "\n Notes: " + (notes != null && !notes.isEmpty() ? notes : "None") +
-               "\n Created At: " + createdAt;
+               "\n Created At: " + createdAt +
+               (startedAt != null ? "\n Started At: " + startedAt : "") +
+               (completedAt != null ? "\n Completed At: " + completedAt : "");
     }
 
 }
\ No newline at end of file
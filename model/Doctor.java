@@ -1,10 +1,11 @@
 package clinicapp.model;
 
+import clinicapp.util.IdAllocator;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public class Doctor {
-    private static int nextId = 1;
     private final int id;
     
     private String name; // No age cause it is Irrelevant, Redundant and for Privacy Purposes (Personal Data)
@@ -15,13 +16,14 @@ public class Doctor {
     private String startTime;   
     private String endTime;
     private boolean isAvailable;
+    private volatile DoctorSchedule schedule; // compiled from the three fields above (null = stale)
 
 
 
     // Constructor for Doctor - Contains Essential Details
     public Doctor(String name, String specialization, String phoneNumber, String email,
             List<String> availableDays, String startTime, String endTime) {
-        this.id = nextId++; // not in the parameters since it is assigned independtly when instantiated.
+        this.id = IdAllocator.DOCTORS.nextId(); // not in the parameters since it is assigned independtly when instantiated.
 
         this.name = name;
         this.specialization = specialization;
@@ -70,6 +72,17 @@ public class Doctor {
         return isAvailable;
     }
 
+    // Compiled working days and hours. DoctorManager builds it on add and update;
+    // doctors created elsewhere compile it on first use.
+    public DoctorSchedule getSchedule() {
+        DoctorSchedule compiled = schedule;
+        if (compiled == null) {
+            compiled = DoctorSchedule.compile(availableDays, startTime, endTime);
+            schedule = compiled;
+        }
+        return compiled;
+    }
+
 
     // Setter Methods - Doctor
     public void setName(String name) {
@@ -90,14 +103,21 @@ public class Doctor {
 
     public void setAvailableDays(List<String> availableDays) {
         this.availableDays = availableDays != null ? new ArrayList<>(availableDays) : new ArrayList<>(); // True = Copies the current container | False = Makes a new List, uses that instead | By default = Variable has no container #NullPointerException
+        this.schedule = null;
     }
 
     public void setStartTime(String startTime) {
         this.startTime = startTime;
+        this.schedule = null;
     }
 
     public void setEndTime(String endTime) {
         this.endTime = endTime;
+        this.schedule = null;
+    }
+
+    public void setSchedule(DoctorSchedule schedule) {
+        this.schedule = schedule;
     }
 
     public void setAvailable(boolean available) {
@@ -0,0 +1,181 @@
+package clinicapp.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// A doctor's working pattern compiled from the free-form fields on Doctor:
+// the days worked as an EnumSet and the working hours as one or more shifts,
+// stored as sorted minute-of-day bounds. Built once when the doctor is added
+// or updated, so availability checks are plain lookups with no parsing or
+// allocation. Immutable.
+public final class DoctorSchedule {
+    // Hours assumed when the stored times cannot be parsed
+    public static final LocalTime DEFAULT_START = LocalTime.of(8, 0);
+    public static final LocalTime DEFAULT_END = LocalTime.of(17, 0);
+
+    // Accepted time formats: 24-hour (13:00) and 12-hour (1:00 PM)
+    private static final DateTimeFormatter FORMAT_24_HOUR = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter FORMAT_12_HOUR = DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH);
+
+    private final Set<DayOfWeek> days;
+    private final int[] shiftStarts; // minute of day, ascending
+    private final int[] shiftEnds;   // minute of day, exclusive
+
+    /**
+     * Create a schedule from days and shifts.
+     *
+     * @param days   Days worked
+     * @param shifts Shifts as {start, end} pairs; overlapping shifts are merged,
+     *               empty ones dropped
+     */
+    public DoctorSchedule(Collection<DayOfWeek> days, List<LocalTime[]> shifts) {
+        this.days = days.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(days);
+
+        List<int[]> bounds = new ArrayList<>();
+        for (LocalTime[] shift : shifts) {
+            int start = shift[0].toSecondOfDay() / 60;
+            int end = shift[1].toSecondOfDay() / 60;
+            if (end > start) {
+                bounds.add(new int[] { start, end });
+            }
+        }
+        bounds.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        // Merge overlapping or touching shifts
+        List<int[]> merged = new ArrayList<>();
+        for (int[] shift : bounds) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && shift[0] <= last[1]) {
+                last[1] = Math.max(last[1], shift[1]);
+            } else {
+                merged.add(shift);
+            }
+        }
+        this.shiftStarts = new int[merged.size()];
+        this.shiftEnds = new int[merged.size()];
+        for (int i = 0; i < merged.size(); i++) {
+            shiftStarts[i] = merged.get(i)[0];
+            shiftEnds[i] = merged.get(i)[1];
+        }
+    }
+
+    /**
+     * Compile a schedule from the fields stored on a Doctor.
+     * Day names are matched case-insensitively; unknown names are ignored.
+     * Several shifts can be given as comma-separated times ("08:00, 13:00" to
+     * "12:00, 17:00"). Times that cannot be parsed fall back to 08:00 - 17:00.
+     */
+    public static DoctorSchedule compile(List<String> availableDays, String startTime, String endTime) {
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (availableDays != null) {
+            for (String day : availableDays) {
+                DayOfWeek dayOfWeek = parseDay(day);
+                if (dayOfWeek != null) {
+                    days.add(dayOfWeek);
+                }
+            }
+        }
+
+        String[] starts = startTime != null ? startTime.split(",") : new String[] { "" };
+        String[] ends = endTime != null ? endTime.split(",") : new String[] { "" };
+        List<LocalTime[]> shifts = new ArrayList<>();
+        for (int i = 0; i < Math.max(starts.length, ends.length); i++) {
+            LocalTime start = i < starts.length ? parseTime(starts[i]) : null;
+            LocalTime end = i < ends.length ? parseTime(ends[i]) : null;
+            shifts.add(new LocalTime[] {
+                    start != null ? start : DEFAULT_START,
+                    end != null ? end : DEFAULT_END });
+        }
+        return new DoctorSchedule(days, shifts);
+    }
+
+    // Parse a day name such as "Monday" or "MONDAY", or null if it is not one.
+    public static DayOfWeek parseDay(String day) {
+        if (day == null) {
+            return null;
+        }
+        try {
+            return DayOfWeek.valueOf(day.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Parse a time in 24-hour (13:00) or 12-hour (1:00 PM) format, or null if it is neither.
+    public static LocalTime parseTime(String time) {
+        if (time == null || time.trim().isEmpty()) {
+            return null;
+        }
+        String trimmed = time.trim();
+        try {
+            return LocalTime.parse(trimmed, FORMAT_24_HOUR);
+        } catch (DateTimeParseException e) {
+            // Not 24-hour, try 12-hour
+        }
+        try {
+            return LocalTime.parse(trimmed.toUpperCase(Locale.ENGLISH), FORMAT_12_HOUR);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public boolean worksOn(DayOfWeek day) {
+        return days.contains(day);
+    }
+
+    public boolean worksOn(LocalDate date) {
+        return days.contains(date.getDayOfWeek());
+    }
+
+    // Check whether [startMinute, endMinute) lies inside a single shift.
+    public boolean covers(int startMinute, int endMinute) {
+        for (int i = 0; i < shiftStarts.length; i++) {
+            if (startMinute >= shiftStarts[i] && endMinute <= shiftEnds[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Set<DayOfWeek> getDays() {
+        return Collections.unmodifiableSet(days);
+    }
+
+    public int getShiftCount() {
+        return shiftStarts.length;
+    }
+
+    // Start of a shift as minute of day
+    public int getShiftStartMinute(int shift) {
+        return shiftStarts[shift];
+    }
+
+    // End of a shift as minute of day (exclusive)
+    public int getShiftEndMinute(int shift) {
+        return shiftEnds[shift];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder shifts = new StringBuilder();
+        for (int i = 0; i < shiftStarts.length; i++) {
+            if (i > 0) {
+                shifts.append(", ");
+            }
+            shifts.append(LocalTime.ofSecondOfDay(shiftStarts[i] * 60L))
+                    .append('-')
+                    .append(LocalTime.ofSecondOfDay((shiftEnds[i] % 1440) * 60L));
+        }
+        return days + " " + shifts;
+    }
+}
@@ -1,11 +1,11 @@
 package clinicapp.model;
 
+import clinicapp.util.IdAllocator;
+
 import java.time.LocalDate;
 import java.time.Period;
 
 public class Patient {
-    // When creating an object, assigns the Patient by the nextId, then increments by 1
-    private static int nextId = 1;
     private final int id;
 
     // Essential Details of a Patient
@@ -20,8 +20,8 @@ public class Patient {
 
     // Constructor for Patient
     public Patient(String name, LocalDate dateOfBirth, String gender, String phoneNumber, String email, String address, String bloodType, String allergies) {
-        // Increments the id and assigns it
-        this.id = nextId++;
+        // Takes the next unique ID from the patient ID allocator
+        this.id = IdAllocator.PATIENTS.nextId();
 
         this.name = name;
         this.dateOfBirth = dateOfBirth;
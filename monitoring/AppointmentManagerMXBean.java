@@ -0,0 +1,27 @@
+package clinicapp.monitoring;
+
+import java.util.Map;
+
+// Live state of the AppointmentManager, registered as clinicapp:type=AppointmentManager.
+public interface AppointmentManagerMXBean {
+    int getAppointmentCount();
+
+    // Appointments per status across all dates
+    Map<String, Integer> getStatusCounts();
+
+    int getTodayAppointmentCount();
+
+    int getQueueSize();
+
+    int getWalkInQueueSize();
+
+    int getUndoStackSize();
+
+    int getRedoStackSize();
+
+    // Entries per lookup index
+    Map<String, Integer> getIndexSizes();
+
+    // Zero the call counts and latencies of every operation
+    void resetStatistics();
+}
@@ -0,0 +1,242 @@
+package clinicapp.monitoring;
+
+import clinicapp.model.Appointment.AppointmentStatus;
+import clinicapp.service.AppointmentManager;
+import clinicapp.service.DoctorManager;
+import clinicapp.service.OperationStats;
+import clinicapp.service.PatientManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Publishes the managers' live state and per-operation statistics as MXBeans on
+ * the platform MBean server, so JConsole, VisualVM or any JMX client can watch
+ * status counts, queue lengths, undo depth, call rates and latency percentiles
+ * of a running clinic without a debugger.
+ *
+ * Names (domain clinicapp):
+ * - type=AppointmentManager, type=PatientManager, type=DoctorManager
+ * - type=&lt;Manager&gt;,operation=&lt;method&gt; for every timed operation
+ *
+ * Attributes are read on demand from the managers' counters; registering adds no
+ * work to the calls themselves.
+ */
+public class ClinicMBeans {
+    private static final String DOMAIN = "clinicapp";
+
+    private final MBeanServer server;
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    private ClinicMBeans(MBeanServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Register MXBeans for the three managers and their operations.
+     *
+     * @return A handle for unregistering them again
+     * @throws IllegalStateException if registration fails, e.g. a second clinic
+     *                               in the same JVM without unregistering the first
+     */
+    public static ClinicMBeans register(PatientManager patientManager, DoctorManager doctorManager,
+            AppointmentManager appointmentManager) {
+        ClinicMBeans beans = new ClinicMBeans(ManagementFactory.getPlatformMBeanServer());
+        try {
+            beans.add("AppointmentManager", new AppointmentManagerMonitor(appointmentManager),
+                    appointmentManager.getOperationStats());
+            beans.add("PatientManager", new PatientManagerMonitor(patientManager),
+                    patientManager.getOperationStats());
+            beans.add("DoctorManager", new DoctorManagerMonitor(doctorManager),
+                    doctorManager.getOperationStats());
+        } catch (JMException e) {
+            beans.unregister();
+            throw new IllegalStateException("Could not register clinic MBeans", e);
+        }
+        return beans;
+    }
+
+    // Remove every MBean this handle registered.
+    public void unregister() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone
+            }
+        }
+        registered.clear();
+    }
+
+    private void add(String type, Object manager, OperationStats stats) throws JMException {
+        ObjectName name = new ObjectName(DOMAIN + ":type=" + type);
+        server.registerMBean(manager, name);
+        registered.add(name);
+        for (OperationStats.Op op : stats.getOperations()) {
+            ObjectName opName = new ObjectName(DOMAIN + ":type=" + type + ",operation=" + op.getName());
+            server.registerMBean(new OperationMonitor(op), opName);
+            registered.add(opName);
+        }
+    }
+
+    private static class OperationMonitor implements OperationMXBean {
+        private final OperationStats.Op op;
+
+        OperationMonitor(OperationStats.Op op) {
+            this.op = op;
+        }
+
+        @Override
+        public long getCalls() {
+            return op.getCalls();
+        }
+
+        @Override
+        public long getFailures() {
+            return op.getFailures();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return op.getMeanNanos() / 1000;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return percentile(50);
+        }
+
+        @Override
+        public double getP99Micros() {
+            return percentile(99);
+        }
+
+        @Override
+        public double getP999Micros() {
+            return percentile(99.9);
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return op.getLatencies().getMax() / 1000.0;
+        }
+
+        private double percentile(double percentile) {
+            return op.getLatencies().getPercentile(percentile) / 1000.0;
+        }
+    }
+
+    private static class AppointmentManagerMonitor implements AppointmentManagerMXBean {
+        private final AppointmentManager manager;
+
+        AppointmentManagerMonitor(AppointmentManager manager) {
+            this.manager = manager;
+        }
+
+        @Override
+        public int getAppointmentCount() {
+            return manager.getAppointmentCount();
+        }
+
+        @Override
+        public Map<String, Integer> getStatusCounts() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (AppointmentStatus status : AppointmentStatus.values()) {
+                counts.put(status.name(), manager.getStatusCount(status));
+            }
+            return counts;
+        }
+
+        @Override
+        public int getTodayAppointmentCount() {
+            return manager.getTodayAppointmentCount();
+        }
+
+        @Override
+        public int getQueueSize() {
+            return manager.getQueueSize();
+        }
+
+        @Override
+        public int getWalkInQueueSize() {
+            return manager.getWalkInQueueSize();
+        }
+
+        @Override
+        public int getUndoStackSize() {
+            return manager.getUndoStackSize();
+        }
+
+        @Override
+        public int getRedoStackSize() {
+            return manager.getRedoStackSize();
+        }
+
+        @Override
+        public Map<String, Integer> getIndexSizes() {
+            return manager.getIndexSizes();
+        }
+
+        @Override
+        public void resetStatistics() {
+            manager.getOperationStats().reset();
+        }
+    }
+
+    private static class PatientManagerMonitor implements PatientManagerMXBean {
+        private final PatientManager manager;
+
+        PatientManagerMonitor(PatientManager manager) {
+            this.manager = manager;
+        }
+
+        @Override
+        public int getPatientCount() {
+            return manager.getPatientCount();
+        }
+
+        @Override
+        public Map<String, Integer> getIndexSizes() {
+            return manager.getIndexSizes();
+        }
+
+        @Override
+        public void resetStatistics() {
+            manager.getOperationStats().reset();
+        }
+    }
+
+    private static class DoctorManagerMonitor implements DoctorManagerMXBean {
+        private final DoctorManager manager;
+
+        DoctorManagerMonitor(DoctorManager manager) {
+            this.manager = manager;
+        }
+
+        @Override
+        public int getDoctorCount() {
+            return manager.getDoctorCount();
+        }
+
+        @Override
+        public int getAvailableDoctorCount() {
+            return manager.getAvailableDoctorCount();
+        }
+
+        @Override
+        public Map<String, Integer> getIndexSizes() {
+            return manager.getIndexSizes();
+        }
+
+        @Override
+        public void resetStatistics() {
+            manager.getOperationStats().reset();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package clinicapp.monitoring;
+
+import java.util.Map;
+
+// Live state of the DoctorManager, registered as clinicapp:type=DoctorManager.
+public interface DoctorManagerMXBean {
+    int getDoctorCount();
+
+    int getAvailableDoctorCount();
+
+    // Entries per lookup index
+    Map<String, Integer> getIndexSizes();
+
+    // Zero the call counts and latencies of every operation
+    void resetStatistics();
+}
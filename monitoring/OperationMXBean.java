@@ -0,0 +1,20 @@
+package clinicapp.monitoring;
+
+// Calls and latency of one manager operation, since start or the last reset.
+// Registered as clinicapp:type=<Manager>,operation=<name>.
+public interface OperationMXBean {
+    long getCalls();
+
+    // Calls that were rejected or found nothing to change (null or false results)
+    long getFailures();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -0,0 +1,14 @@
+package clinicapp.monitoring;
+
+import java.util.Map;
+
+// Live state of the PatientManager, registered as clinicapp:type=PatientManager.
+public interface PatientManagerMXBean {
+    int getPatientCount();
+
+    // Entries per lookup index
+    Map<String, Integer> getIndexSizes();
+
+    // Zero the call counts and latencies of every operation
+    void resetStatistics();
+}
@@ -0,0 +1,86 @@
+package clinicapp.service;
+
+import clinicapp.model.Appointment.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Running appointment counts per date and status, plus overall status totals.
+// AppointmentManager updates them in O(1) whenever an appointment is indexed or
+// unindexed, so statistics and dashboard reads never touch the appointments.
+// Counters are atomic because appointments of different doctors on the same
+// date are indexed concurrently.
+class AppointmentCounters {
+
+    private static final int STATUS_COUNT = AppointmentStatus.values().length;
+
+    // Slot after the status counts that holds the number of walk-ins
+    private static final int WALK_INS = STATUS_COUNT;
+
+    // Date -> counts by status ordinal, then walk-ins
+    private final Map<LocalDate, AtomicIntegerArray> byDate;
+
+    // Counts by status ordinal across all dates
+    private final AtomicIntegerArray totals;
+
+    AppointmentCounters() {
+        this.byDate = new ConcurrentHashMap<>();
+        this.totals = new AtomicIntegerArray(STATUS_COUNT);
+    }
+
+    void add(LocalDate date, AppointmentStatus status, boolean walkIn) {
+        AtomicIntegerArray day = byDate.computeIfAbsent(date, d -> new AtomicIntegerArray(STATUS_COUNT + 1));
+        day.incrementAndGet(status.ordinal());
+        if (walkIn) {
+            day.incrementAndGet(WALK_INS);
+        }
+        totals.incrementAndGet(status.ordinal());
+    }
+
+    void remove(LocalDate date, AppointmentStatus status, boolean walkIn) {
+        AtomicIntegerArray day = byDate.get(date);
+        if (day != null) {
+            day.decrementAndGet(status.ordinal());
+            if (walkIn) {
+                day.decrementAndGet(WALK_INS);
+            }
+        }
+        totals.decrementAndGet(status.ordinal());
+    }
+
+    // An already counted appointment became a walk-in.
+    void markWalkIn(LocalDate date) {
+        AtomicIntegerArray day = byDate.get(date);
+        if (day != null) {
+            day.incrementAndGet(WALK_INS);
+        }
+    }
+
+    int count(LocalDate date, AppointmentStatus status) {
+        AtomicIntegerArray day = byDate.get(date);
+        return day != null ? day.get(status.ordinal()) : 0;
+    }
+
+    int total(LocalDate date) {
+        AtomicIntegerArray day = byDate.get(date);
+        if (day == null) {
+            return 0;
+        }
+        int sum = 0;
+        for (int i = 0; i < STATUS_COUNT; i++) {
+            sum += day.get(i);
+        }
+        return sum;
+    }
+
+    int walkIns(LocalDate date) {
+        AtomicIntegerArray day = byDate.get(date);
+        return day != null ? day.get(WALK_INS) : 0;
+    }
+
+    int total(AppointmentStatus status) {
+        return totals.get(status.ordinal());
+    }
+}
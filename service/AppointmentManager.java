@@ -2,71 +2,203 @@ package clinicapp.service;
 
 import clinicapp.model.Appointment;
 import clinicapp.model.Appointment.AppointmentStatus;
+import clinicapp.model.Appointment.TriageLevel;
 import clinicapp.model.Doctor;
+import clinicapp.model.DoctorSchedule;
 import clinicapp.model.Patient;
+import clinicapp.service.UndoJournal.ActionType;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import clinicapp.util.InputValidator;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjIntConsumer;
 
-// Handles all appointment-related operations including scheduling, 
+// Handles all appointment-related operations including scheduling,
 // updating, cancelling appointments, queue management, and undo functionality.
+//
+// Thread-safe: every change to an appointment runs under the lock stripe of its
+// doctor, so bookings for different doctors proceed in parallel while bookings
+// for the same doctor are serialized (conflict check and insert are one step).
+// Shared indexes use concurrent collections; read methods return snapshots.
 public class AppointmentManager {
-    // HashMap for O(1) lookup by appointment ID
+    // Number of doctor lock stripes (power of two)
+    private static final int LOCK_STRIPES = 64;
+
+    // Map for O(1) lookup by appointment ID
     private final Map<Integer, Appointment> appointments;
 
-    // Stack to support undo functionality - stores last action details
-    private final Stack<AppointmentAction> undoStack;
+    // Default number of actions kept for undo
+    public static final int DEFAULT_UNDO_CAPACITY = 1000;
+
+    // Bounded undo/redo journal - stores only the fields each action changed
+    private final UndoJournal undoJournal;
+
+    // Queue for processing regular appointments in order (FIFO).
+    // Indexed by appointment ID for O(log n) removal and position lookup.
+    private final IndexedAppointmentQueue appointmentQueue;
+
+    // Separate queue for walk-in appointments, served by triage level with aging
+    // (FIFO among equal levels). Its monitor also guards the per-doctor queues.
+    private final WalkInPriorityQueue walkInQueue;
 
-    // Queue for processing regular appointments in order (FIFO)
-    private final Queue<Appointment> appointmentQueue;
+    // The same walk-ins split by doctor: doctor ID -> that doctor's walk-in queue
+    private final Map<Integer, WalkInPriorityQueue> walkInQueuesByDoctor;
 
-    // Separate queue for walk-in appointments (FIFO)
-    private final Queue<Appointment> walkInQueue;
+    // Today's load per doctor, for routing walk-ins to the least-loaded doctor
+    private final DoctorLoadBalancer loadBalancer;
+
+    // Rolling per-doctor service times, for projecting walk-in wait times
+    private final WaitTimeEstimator waitTimeEstimator;
 
     // Set to track which appointments are walk-ins (for filtering)
     private final Set<Integer> walkInAppointmentIds;
 
+    // Per-doctor, per-day index of active bookings for conflict detection.
+    // A doctor's entries are only touched while holding that doctor's lock stripe.
+    private final BookingIndex bookingIndex;
+
+    // Secondary indexes so lookups cost time proportional to the result size.
+    // Buckets are ordered by appointment ID and are never dropped once created,
+    // so a concurrent writer cannot lose an entry to a bucket being removed.
+    private final Map<Integer, NavigableMap<Integer, Appointment>> appointmentsByPatient;
+    private final Map<Integer, NavigableMap<Integer, Appointment>> appointmentsByDoctor;
+    private final Map<AppointmentStatus, NavigableMap<Integer, Appointment>> appointmentsByStatus;
+
+    // Appointments that are not walk-ins, ordered by ID
+    private final NavigableMap<Integer, Appointment> regularAppointments;
+
+    // Date-ordered index: date -> appointments of that day ordered by start time.
+    // Range queries walk a subMap that is already in chronological order.
+    private final NavigableMap<LocalDate, NavigableMap<Long, Appointment>> appointmentsByDate;
+
+    // Running counts per date and status, updated with the state-dependent indexes
+    private final AppointmentCounters counters;
+
+    // Listeners told about every appointment change
+    private final ChangeEventBus<Appointment> events;
+
+    // Lock stripes guarding each doctor's bookings
+    private final ReentrantLock[] doctorLocks;
+
+    // Time source for "today", queue arrival and status transition times
+    private final Clock clock;
+
     // Reference to managers for validation
     private final PatientManager patientManager;
     private final DoctorManager doctorManager;
 
-    // Inner class to represent an appointment action for undo functionality.
-    private static class AppointmentAction {
-        enum ActionType {
-            ADD, UPDATE, CANCEL, COMPLETE, DELETE
-        }
+    // Call counts and latencies per operation
+    private final OperationStats stats = new OperationStats("AppointmentManager");
+    private final OperationStats.Op scheduleStats = stats.register("scheduleAppointment");
+    private final OperationStats.Op updateStats = stats.register("updateAppointment");
+    private final OperationStats.Op conflictStats = stats.register("hasConflict");
+    private final OperationStats.Op confirmStats = stats.register("confirmAppointment");
+    private final OperationStats.Op inProgressStats = stats.register("markInProgress");
+    private final OperationStats.Op completedStats = stats.register("markCompleted");
+    private final OperationStats.Op cancelStats = stats.register("cancelAppointment");
+    private final OperationStats.Op completeStats = stats.register("completeAppointment");
+    private final OperationStats.Op noShowStats = stats.register("markNoShow");
+    private final OperationStats.Op deleteStats = stats.register("deleteAppointment");
+    private final OperationStats.Op undoStats = stats.register("undoLastAction");
+    private final OperationStats.Op redoStats = stats.register("redoLastAction");
+    private final OperationStats.Op nextInQueueStats = stats.register("processNextInQueue");
+    private final OperationStats.Op nextWalkInStats = stats.register("processNextWalkIn");
+    private final OperationStats.Op walkInStats = stats.register("scheduleWalkIn");
+    private final OperationStats.Op timeSlotsStats = stats.register("getAvailableTimeSlots");
+    private final OperationStats.Op earliestSlotsStats = stats.register("findEarliestSlots");
+    private final OperationStats.Op byDateStats = stats.register("getAppointmentsByDate");
+    private final OperationStats.Op historyStats = stats.register("getAppointmentHistory");
+    private final OperationStats.Op allStats = stats.register("getAllAppointments");
 
-        ActionType type;
-        Appointment appointment;
-        Appointment previousState; // For UPDATE actions
+    // Constructor initializes appointment storage and undo/queue structures.
+    public AppointmentManager(PatientManager patientManager, DoctorManager doctorManager) {
+        this(patientManager, doctorManager, DEFAULT_UNDO_CAPACITY);
+    }
 
-        AppointmentAction(ActionType type, Appointment appointment, Appointment previousState) {
-            this.type = type;
-            this.appointment = appointment;
-            this.previousState = previousState;
-        }
+    // Constructor with the number of actions kept for undo/redo.
+    // Once full, the oldest action is forgotten.
+    public AppointmentManager(PatientManager patientManager, DoctorManager doctorManager, int undoCapacity) {
+        this(patientManager, doctorManager, undoCapacity, Clock.systemDefaultZone());
     }
 
-    // Constructor initializes appointment storage and undo/queue structures.
-    public AppointmentManager(PatientManager patientManager, DoctorManager doctorManager) {
-        this.appointments = new HashMap<>();
-        this.undoStack = new Stack<>();
-        this.appointmentQueue = new LinkedList<>();
-        this.walkInQueue = new LinkedList<>();
-        this.walkInAppointmentIds = new HashSet<>();
+    // Constructor with the time source used for "today", queue arrivals and
+    // status transition times (e.g., a virtual clock for simulation).
+    public AppointmentManager(PatientManager patientManager, DoctorManager doctorManager, int undoCapacity,
+            Clock clock) {
+        this.appointments = new ConcurrentHashMap<>();
+        this.undoJournal = new UndoJournal(undoCapacity);
+        this.appointmentQueue = new IndexedAppointmentQueue();
+        this.walkInQueue = new WalkInPriorityQueue();
+        this.walkInQueuesByDoctor = new ConcurrentHashMap<>();
+        this.waitTimeEstimator = new WaitTimeEstimator();
+        this.walkInAppointmentIds = ConcurrentHashMap.newKeySet();
+        this.bookingIndex = new BookingIndex();
+        this.appointmentsByPatient = new ConcurrentHashMap<>();
+        this.appointmentsByDoctor = new ConcurrentHashMap<>();
+        this.appointmentsByDate = new ConcurrentSkipListMap<>();
+        this.appointmentsByStatus = new EnumMap<>(AppointmentStatus.class);
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            appointmentsByStatus.put(status, new ConcurrentSkipListMap<>());
+        }
+        this.regularAppointments = new ConcurrentSkipListMap<>();
+        this.counters = new AppointmentCounters();
+        this.events = new ChangeEventBus<>();
+        this.doctorLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            doctorLocks[i] = new ReentrantLock();
+        }
         this.patientManager = patientManager;
         this.doctorManager = doctorManager;
+        this.clock = clock;
+        this.loadBalancer = new DoctorLoadBalancer(LocalDate.now(clock));
+
+        // Keep the load balancer's roster in step with the doctor manager
+        if (doctorManager != null) {
+            for (Doctor doctor : doctorManager.getAllDoctors()) {
+                loadBalancer.register(doctor);
+            }
+            doctorManager.addChangeListener(event -> {
+                if (event.getType() == ChangeEvent.Type.DELETED) {
+                    loadBalancer.unregister(event.getSubject());
+                } else {
+                    loadBalancer.register(event.getSubject());
+                }
+            });
+        }
+    }
+
+    // Register a listener for appointment changes.
+    // Events are published after the doctor's lock is released.
+    public void addChangeListener(ChangeEventListener<Appointment> listener) {
+        events.addListener(listener);
+    }
+
+    public void removeChangeListener(ChangeEventListener<Appointment> listener) {
+        events.removeListener(listener);
+    }
+
+    // Call counts and latencies of this manager's operations.
+    public OperationStats getOperationStats() {
+        return stats;
+    }
+
+    // Get the lock stripe that guards a doctor's bookings.
+    private ReentrantLock lockFor(Doctor doctor) {
+        return doctorLocks[doctor.getId() & (LOCK_STRIPES - 1)];
     }
 
     /**
      * Schedule a new appointment.
      * Validates that patient and doctor exist before creating appointment.
-     * 
+     *
      * @param patient   Patient for the appointment
      * @param doctor    Doctor for the appointment
      * @param date      Date of appointment
@@ -83,7 +215,8 @@ public class AppointmentManager {
     /**
      * Schedule a new appointment with walk-in flag.
      * Validates that patient and doctor exist before creating appointment.
-     * 
+     * The conflict check and the insert happen atomically for the doctor.
+     *
      * @param patient   Patient for the appointment
      * @param doctor    Doctor for the appointment
      * @param date      Date of appointment
@@ -95,41 +228,51 @@ public class AppointmentManager {
      */
     public Appointment scheduleAppointment(Patient patient, Doctor doctor, LocalDate date,
             LocalTime startTime, LocalTime endTime, String reason, boolean isWalkIn) {
-        if (patient == null || doctor == null) {
-            return null;
-        }
+        OperationEvent call = scheduleStats.begin();
+        Appointment appointment = book(patient, doctor, date, startTime, endTime, reason, isWalkIn);
+        scheduleStats.end(call, appointment != null);
+        return appointment;
+    }
 
-        if (!isWalkIn && hasConflict(doctor, date, startTime, endTime)) {
+    // Validate, conflict-check and store a new appointment.
+    private Appointment book(Patient patient, Doctor doctor, LocalDate date,
+            LocalTime startTime, LocalTime endTime, String reason, boolean isWalkIn) {
+        if (patient == null || doctor == null) {
             return null;
         }
 
         // Check if doctor is available on this day of the week
-        String dayOfWeek = date.getDayOfWeek().name(); // e.g., "MONDAY", "TUESDAY"
-        boolean isWorkingDay = doctor.getAvailableDays().stream()
-                .anyMatch(day -> day.equalsIgnoreCase(dayOfWeek));
-
-        if (!isWorkingDay) {
+        if (!doctor.getSchedule().worksOn(date)) {
             return null; // Doctor doesn't work on this day
         }
 
-        if (!isWalkIn && hasConflict(doctor, date, startTime, endTime)) {
-            return null;
-        }
+        Appointment appointment;
+        ReentrantLock lock = lockFor(doctor);
+        lock.lock();
+        try {
+            if (!isWalkIn && hasConflict(doctor, date, startTime, endTime)) {
+                return null;
+            }
 
-        Appointment appointment = new Appointment(patient, doctor, date, startTime, endTime, reason);
-        appointments.put(appointment.getId(), appointment);
+            appointment = new Appointment(patient, doctor, date, startTime, endTime, reason);
 
-        // Only add to regular queue if NOT a walk-in
-        if (!isWalkIn) {
-            appointmentQueue.offer(appointment);
-        } else {
-            // Mark as walk-in for filtering
-            walkInAppointmentIds.add(appointment.getId());
-        }
+            // Mark as walk-in for filtering before it is stored
+            if (isWalkIn) {
+                walkInAppointmentIds.add(appointment.getId());
+            }
+            store(appointment);
 
-        undoStack.push(new AppointmentAction(AppointmentAction.ActionType.ADD,
-                appointment, null));
+            // Only add to regular queue if NOT a walk-in
+            if (!isWalkIn) {
+                appointmentQueue.offer(appointment);
+            }
+
+            undoJournal.recordLifecycle(ActionType.ADD, appointment);
+        } finally {
+            lock.unlock();
+        }
 
+        events.publish(ChangeEvent.Type.CREATED, appointment);
         return appointment;
     }
 
@@ -148,30 +291,76 @@ public class AppointmentManager {
     }
 
     // Check if doctor has a scheduling conflict at the given time.
-    // Checks if time ranges overlap.
+    // Only looks at the doctor's active (SCHEDULED/CONFIRMED) bookings for that date.
+    // Caller must hold the doctor's lock.
     private boolean hasConflict(Doctor doctor, LocalDate date, LocalTime startTime, LocalTime endTime) {
-        for (Appointment apt : appointments.values()) {
-            if ((apt.getStatus() == AppointmentStatus.SCHEDULED ||
-                    apt.getStatus() == AppointmentStatus.CONFIRMED) &&
-                    apt.getDoctor().getId() == doctor.getId() &&
-                    apt.getAppointmentDate().equals(date)) {
+        OperationEvent call = conflictStats.begin();
+        boolean conflict = bookingIndex.hasConflict(doctor.getId(), date, startTime, endTime);
+        conflictStats.end(call, true, bookingIndex.count(doctor.getId(), date), conflict ? 1 : 0);
+        return conflict;
+    }
 
-                LocalTime aptStart = apt.getStartTime();
-                LocalTime aptEnd = apt.getEndTime();
+    // Add an appointment to storage and to every index.
+    private void store(Appointment appointment) {
+        appointments.put(appointment.getId(), appointment);
+        addToIndex(appointmentsByPatient, appointment.getPatient().getId(), appointment);
+        addToIndex(appointmentsByDoctor, appointment.getDoctor().getId(), appointment);
+        if (!walkInAppointmentIds.contains(appointment.getId())) {
+            regularAppointments.put(appointment.getId(), appointment);
+        }
+        index(appointment);
+    }
 
-                if (timesOverlap(startTime, endTime, aptStart, aptEnd)) {
-                    return true;
-                }
+    // Remove an appointment from storage and from every index.
+    private void discard(Appointment appointment) {
+        unindex(appointment);
+        appointments.remove(appointment.getId());
+        removeFromIndex(appointmentsByPatient, appointment.getPatient().getId(), appointment);
+        removeFromIndex(appointmentsByDoctor, appointment.getDoctor().getId(), appointment);
+        regularAppointments.remove(appointment.getId());
+    }
+
+    // Add an appointment to the state-dependent indexes (date, status, bookings, counters).
+    private void index(Appointment appointment) {
+        bookingIndex.add(appointment);
+        appointmentsByDate.computeIfAbsent(appointment.getAppointmentDate(), d -> new ConcurrentSkipListMap<>())
+                .put(BookingIndex.timeKey(appointment.getStartTime(), appointment.getId()), appointment);
+        appointmentsByStatus.get(appointment.getStatus()).put(appointment.getId(), appointment);
+        counters.add(appointment.getAppointmentDate(), appointment.getStatus(),
+                walkInAppointmentIds.contains(appointment.getId()));
+        if (BookingIndex.isActive(appointment)) {
+            loadBalancer.adjust(appointment.getDoctor().getId(), appointment.getAppointmentDate(), 1);
+        }
+    }
+
+    // Remove an appointment from the state-dependent indexes.
+    // Must be called before changing its date, times, or status.
+    private void unindex(Appointment appointment) {
+        bookingIndex.remove(appointment);
+        NavigableMap<Long, Appointment> day = appointmentsByDate.get(appointment.getAppointmentDate());
+        if (day != null) {
+            day.remove(BookingIndex.timeKey(appointment.getStartTime(), appointment.getId()));
+        }
+        if (appointmentsByStatus.get(appointment.getStatus()).remove(appointment.getId()) != null) {
+            counters.remove(appointment.getAppointmentDate(), appointment.getStatus(),
+                    walkInAppointmentIds.contains(appointment.getId()));
+            if (BookingIndex.isActive(appointment)) {
+                loadBalancer.adjust(appointment.getDoctor().getId(), appointment.getAppointmentDate(), -1);
             }
         }
-        return false;
     }
 
-    // Check if two time ranges overlap.
-    // Adjacent time slots (e.g., 8:00-9:00 and 9:00-10:00) are NOT considered
-    // overlapping.
-    private boolean timesOverlap(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        return start1.isBefore(end2) && start2.isBefore(end1);
+    private static <K> void addToIndex(Map<K, NavigableMap<Integer, Appointment>> index, K key,
+            Appointment appointment) {
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).put(appointment.getId(), appointment);
+    }
+
+    private static <K> void removeFromIndex(Map<K, NavigableMap<Integer, Appointment>> index, K key,
+            Appointment appointment) {
+        NavigableMap<Integer, Appointment> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(appointment.getId());
+        }
     }
 
     // Get an appointment by ID.
@@ -181,73 +370,105 @@ public class AppointmentManager {
 
     // Get all appointments in the system.
     public List<Appointment> getAllAppointments() {
-        return new ArrayList<>(appointments.values());
+        OperationEvent call = allStats.begin();
+        List<Appointment> all = new ArrayList<>(appointments.values());
+        allStats.end(call, true, all.size(), all.size());
+        return all;
     }
 
     // Get appointments by status.
     public List<Appointment> getAppointmentsByStatus(AppointmentStatus status) {
-        return appointments.values().stream()
-                .filter(apt -> apt.getStatus() == status)
-                .collect(Collectors.toList());
+        return new ArrayList<>(appointmentsByStatus.get(status).values());
     }
 
     // Get appointments for a specific patient.
     public List<Appointment> getAppointmentsByPatient(int patientId) {
-        return appointments.values().stream()
-                .filter(apt -> apt.getPatient().getId() == patientId)
-                .collect(Collectors.toList());
+        NavigableMap<Integer, Appointment> bucket = appointmentsByPatient.get(patientId);
+        return bucket != null ? new ArrayList<>(bucket.values()) : new ArrayList<>();
     }
 
     // Get appointments for a specific doctor.
     public List<Appointment> getAppointmentsByDoctor(int doctorId) {
-        return appointments.values().stream()
-                .filter(apt -> apt.getDoctor().getId() == doctorId)
-                .collect(Collectors.toList());
+        NavigableMap<Integer, Appointment> bucket = appointmentsByDoctor.get(doctorId);
+        return bucket != null ? new ArrayList<>(bucket.values()) : new ArrayList<>();
     }
 
-    // Get appointments for a specific date.
+    // Get appointments for a specific date, ordered by start time.
     public List<Appointment> getAppointmentsByDate(LocalDate date) {
-        return appointments.values().stream()
-                .filter(apt -> apt.getAppointmentDateTime().toLocalDate().equals(date))
-                .sorted(Comparator.comparing(Appointment::getAppointmentDateTime))
-                .collect(Collectors.toList());
+        OperationEvent call = byDateStats.begin();
+        NavigableMap<Long, Appointment> day = appointmentsByDate.get(date);
+        List<Appointment> results = day != null ? new ArrayList<>(day.values()) : new ArrayList<>();
+        byDateStats.end(call, true, results.size(), results.size());
+        return results;
+    }
+
+    // Get regular (non-walk-in) appointments for a specific date, ordered by start time.
+    public List<Appointment> getRegularAppointmentsByDate(LocalDate date) {
+        List<Appointment> results = getAppointmentsByDate(date);
+        results.removeIf(apt -> walkInAppointmentIds.contains(apt.getId()));
+        return results;
     }
 
     // Update appointment details.
     public boolean updateAppointment(int id, LocalDate newDate, LocalTime newStartTime,
             LocalTime newEndTime, String newReason, String notes) {
+        OperationEvent call = updateStats.begin();
+        boolean updated = applyUpdate(id, newDate, newStartTime, newEndTime, newReason, notes);
+        updateStats.end(call, updated);
+        return updated;
+    }
+
+    private boolean applyUpdate(int id, LocalDate newDate, LocalTime newStartTime,
+            LocalTime newEndTime, String newReason, String notes) {
         Appointment appointment = appointments.get(id);
         if (appointment == null) {
             return false;
         }
 
-        Appointment previousState = cloneAppointment(appointment);
-
-        if (newDate != null && newStartTime != null && newEndTime != null) {
-            // Check if doctor is available on the new day of the week
-            String dayOfWeek = newDate.getDayOfWeek().name();
-            boolean isWorkingDay = appointment.getDoctor().getAvailableDays().stream()
-                    .anyMatch(day -> day.equalsIgnoreCase(dayOfWeek));
-
-            if (!isWorkingDay) {
-                return false; // Doctor doesn't work on this day
+        ReentrantLock lock = lockFor(appointment.getDoctor());
+        lock.lock();
+        try {
+            // Deleted by another thread while waiting for the lock
+            if (appointments.get(id) != appointment) {
+                return false;
             }
 
-            if (hasConflict(appointment.getDoctor(), newDate, newStartTime, newEndTime)) {
-                return false;
+            // Previous values for the undo journal
+            LocalDate oldDate = appointment.getAppointmentDate();
+            LocalTime oldStart = appointment.getStartTime();
+            LocalTime oldEnd = appointment.getEndTime();
+            String oldReason = appointment.getReason();
+            String oldNotes = appointment.getNotes();
+
+            if (newDate != null && newStartTime != null && newEndTime != null) {
+                // Check if doctor is available on the new day of the week
+                if (!appointment.getDoctor().getSchedule().worksOn(newDate)) {
+                    return false; // Doctor doesn't work on this day
+                }
+
+                // Take the appointment out of the index first so it does not conflict with itself
+                unindex(appointment);
+                if (hasConflict(appointment.getDoctor(), newDate, newStartTime, newEndTime)) {
+                    index(appointment);
+                    return false;
+                }
+                appointment.setAppointmentDate(newDate);
+                appointment.setStartTime(newStartTime);
+                appointment.setEndTime(newEndTime);
+                index(appointment);
             }
-            appointment.setAppointmentDate(newDate);
-            appointment.setStartTime(newStartTime);
-            appointment.setEndTime(newEndTime);
+            if (newReason != null)
+                appointment.setReason(newReason);
+            if (notes != null)
+                appointment.setNotes(notes);
+
+            undoJournal.recordChange(ActionType.UPDATE, appointment, oldDate, oldStart, oldEnd,
+                    appointment.getStatus(), oldReason, oldNotes);
+        } finally {
+            lock.unlock();
         }
-        if (newReason != null)
-            appointment.setReason(newReason);
-        if (notes != null)
-            appointment.setNotes(notes);
-
-        undoStack.push(new AppointmentAction(AppointmentAction.ActionType.UPDATE,
-                appointment, previousState));
 
+        events.publish(ChangeEvent.Type.UPDATED, appointment);
         return true;
     }
 
@@ -265,117 +486,160 @@ public class AppointmentManager {
         return updateAppointment(id, newDate, newStartTime, newEndTime, newReason, notes);
     }
 
-    // Confirm an appointment.
-    public boolean confirmAppointment(int id) {
+    // Move an appointment to a new status, timed as the given operation.
+    private boolean changeStatus(OperationStats.Op op, int id, AppointmentStatus requiredStatus,
+            AppointmentStatus newStatus, ActionType actionType, String notes, boolean leavesQueue) {
+        OperationEvent call = op.begin();
+        boolean changed = transition(id, requiredStatus, newStatus, actionType, notes, leavesQueue);
+        op.end(call, changed);
+        return changed;
+    }
+
+    // Move an appointment to a new status under its doctor's lock.
+    // Returns false if it no longer exists or is not in the required status (null = any).
+    private boolean transition(int id, AppointmentStatus requiredStatus, AppointmentStatus newStatus,
+            ActionType actionType, String notes, boolean leavesQueue) {
         Appointment appointment = appointments.get(id);
-        if (appointment != null && appointment.getStatus() == AppointmentStatus.SCHEDULED) {
-            Appointment previousState = cloneAppointment(appointment);
-            appointment.setStatus(AppointmentStatus.CONFIRMED);
+        if (appointment == null) {
+            return false;
+        }
 
-            undoStack.push(new AppointmentAction(AppointmentAction.ActionType.UPDATE,
-                    appointment, previousState));
-            return true;
+        ReentrantLock lock = lockFor(appointment.getDoctor());
+        lock.lock();
+        try {
+            if (appointments.get(id) != appointment ||
+                    (requiredStatus != null && appointment.getStatus() != requiredStatus)) {
+                return false;
+            }
+
+            AppointmentStatus oldStatus = appointment.getStatus();
+            String oldNotes = appointment.getNotes();
+            unindex(appointment);
+            appointment.setStatus(newStatus);
+            index(appointment);
+            recordTransition(appointment, oldStatus, true);
+            if (notes != null) {
+                appointment.setNotes(notes);
+            }
+
+            // Remove from queues if present
+            if (leavesQueue) {
+                appointmentQueue.remove(appointment);
+                dequeueWalkIn(appointment);
+            }
+
+            undoJournal.recordChange(actionType, appointment, appointment.getAppointmentDate(),
+                    appointment.getStartTime(), appointment.getEndTime(), oldStatus,
+                    appointment.getReason(), oldNotes);
+        } finally {
+            lock.unlock();
         }
-        return false;
+
+        events.publish(ChangeEvent.Type.STATUS_CHANGED, appointment);
+        return true;
+    }
+
+    // Confirm an appointment.
+    public boolean confirmAppointment(int id) {
+        return changeStatus(confirmStats, id, AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED,
+                ActionType.UPDATE, null, false);
     }
 
     // Mark appointment as IN_PROGRESS.
     public boolean markInProgress(int id) {
-        Appointment appointment = appointments.get(id);
-        if (appointment != null && appointment.getStatus() == AppointmentStatus.CONFIRMED) {
-            Appointment previousState = cloneAppointment(appointment);
-            appointment.setStatus(AppointmentStatus.IN_PROGRESS);
-
-            undoStack.push(new AppointmentAction(AppointmentAction.ActionType.UPDATE,
-                    appointment, previousState));
-            return true;
-        }
-        return false;
+        return changeStatus(inProgressStats, id, AppointmentStatus.CONFIRMED, AppointmentStatus.IN_PROGRESS,
+                ActionType.UPDATE, null, false);
     }
 
     // Mark appointment as COMPLETED.
     public boolean markCompleted(int id) {
-        Appointment appointment = appointments.get(id);
-        if (appointment != null && appointment.getStatus() == AppointmentStatus.IN_PROGRESS) {
-            Appointment previousState = cloneAppointment(appointment);
-            appointment.setStatus(AppointmentStatus.COMPLETED);
-
-            undoStack.push(new AppointmentAction(AppointmentAction.ActionType.COMPLETE,
-                    appointment, previousState));
-            return true;
-        }
-        return false;
+        return changeStatus(completedStats, id, AppointmentStatus.IN_PROGRESS, AppointmentStatus.COMPLETED,
+                ActionType.COMPLETE, null, false);
     }
 
     // Cancel an appointment.
     public boolean cancelAppointment(int id) {
-        Appointment appointment = appointments.get(id);
-        if (appointment == null) {
-            return false;
-        }
-
-        Appointment previousState = cloneAppointment(appointment);
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-
-        // Remove from queue if present
-        appointmentQueue.remove(appointment);
-
-        undoStack.push(new AppointmentAction(AppointmentAction.ActionType.CANCEL,
-                appointment, previousState));
-        return true;
+        return changeStatus(cancelStats, id, null, AppointmentStatus.CANCELLED,
+                ActionType.CANCEL, null, true);
     }
 
     // Mark appointment as completed.
     public boolean completeAppointment(int id, String notes) {
-        Appointment appointment = appointments.get(id);
-        if (appointment == null) {
-            return false;
-        }
-
-        Appointment previousState = cloneAppointment(appointment);
-        appointment.setStatus(AppointmentStatus.COMPLETED);
-        if (notes != null) {
-            appointment.setNotes(notes);
-        }
-
-        // Remove from queue if present
-        appointmentQueue.remove(appointment);
-
-        undoStack.push(new AppointmentAction(AppointmentAction.ActionType.COMPLETE,
-                appointment, previousState));
-        return true;
+        return changeStatus(completeStats, id, null, AppointmentStatus.COMPLETED,
+                ActionType.COMPLETE, notes, true);
     }
 
     // Mark appointment as no-show.
     public boolean markNoShow(int id) {
-        Appointment appointment = appointments.get(id);
-        if (appointment == null) {
-            return false;
-        }
-
-        Appointment previousState = cloneAppointment(appointment);
-        appointment.setStatus(AppointmentStatus.NO_SHOW);
-
-        // Remove from queue if present
-        appointmentQueue.remove(appointment);
-
-        undoStack.push(new AppointmentAction(AppointmentAction.ActionType.UPDATE,
-                appointment, previousState));
-        return true;
+        return changeStatus(noShowStats, id, null, AppointmentStatus.NO_SHOW,
+                ActionType.UPDATE, null, true);
     }
 
     // Process next appointment in queue.
     // Changes status from SCHEDULED/CONFIRMED to IN_PROGRESS.
     public Appointment processNextInQueue() {
+        OperationEvent call = nextInQueueStats.begin();
         Appointment appointment = appointmentQueue.poll();
-        if (appointment != null && appointments.containsKey(appointment.getId())) {
-            Appointment previousState = cloneAppointment(appointment);
+        if (appointment != null) {
+            startAppointment(appointment);
+        }
+        nextInQueueStats.end(call, appointment != null);
+        return appointment;
+    }
+
+    // Mark a dequeued appointment IN_PROGRESS under its doctor's lock.
+    private void startAppointment(Appointment appointment) {
+        ReentrantLock lock = lockFor(appointment.getDoctor());
+        lock.lock();
+        try {
+            if (!appointments.containsKey(appointment.getId())) {
+                return;
+            }
+            AppointmentStatus oldStatus = appointment.getStatus();
+            unindex(appointment);
             appointment.setStatus(AppointmentStatus.IN_PROGRESS);
+            index(appointment);
+            recordTransition(appointment, oldStatus, true);
+
+            undoJournal.recordChange(ActionType.UPDATE, appointment, appointment.getAppointmentDate(),
+                    appointment.getStartTime(), appointment.getEndTime(), oldStatus,
+                    appointment.getReason(), appointment.getNotes());
+        } finally {
+            lock.unlock();
+        }
+
+        events.publish(ChangeEvent.Type.STATUS_CHANGED, appointment);
+    }
 
-            undoStack.push(new AppointmentAction(AppointmentAction.ActionType.UPDATE,
-                    appointment, previousState));
+    // Stamp IN_PROGRESS/COMPLETED transitions and feed them to the wait-time estimator.
+    // Undo/redo (live = false) only keeps the doctor's busy state in step: restored
+    // statuses are not new visits, so they neither stamp times nor add samples.
+    private void recordTransition(Appointment appointment, AppointmentStatus oldStatus, boolean live) {
+        AppointmentStatus newStatus = appointment.getStatus();
+        if (newStatus == oldStatus) {
+            return;
         }
-        return appointment;
+        int doctorId = appointment.getDoctor().getId();
+        long now = clock.millis();
+
+        if (oldStatus == AppointmentStatus.IN_PROGRESS) {
+            boolean completed = live && newStatus == AppointmentStatus.COMPLETED;
+            waitTimeEstimator.finished(doctorId, toMillis(appointment.getStartedAt()), now, completed);
+        }
+        if (newStatus == AppointmentStatus.IN_PROGRESS) {
+            if (live) {
+                appointment.setStartedAt(LocalDateTime.now(clock));
+                appointment.setCompletedAt(null);
+            }
+            waitTimeEstimator.started(doctorId, now);
+        }
+        if (live && newStatus == AppointmentStatus.COMPLETED) {
+            appointment.setCompletedAt(LocalDateTime.now(clock));
+        }
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(clock.getZone()).toInstant().toEpochMilli() : 0;
     }
 
     // Get current queue size.
@@ -385,74 +649,203 @@ public class AppointmentManager {
 
     // View appointments in queue without removing them.
     public List<Appointment> viewQueue() {
-        return new ArrayList<>(appointmentQueue);
+        return appointmentQueue.toList();
+    }
+
+    // Get the 1-based position of an appointment in the queue, or -1 if it is not waiting.
+    public int getQueuePosition(int appointmentId) {
+        return appointmentQueue.position(appointmentId);
     }
 
     // Undo the last appointment action.
-    // Supports undoing add, update, cancel, and complete actions.
+    // Supports undoing add, update, status change and delete actions.
     public boolean undoLastAction() {
-        if (undoStack.isEmpty()) {
+        OperationEvent call = undoStats.begin();
+        boolean undone = undo();
+        undoStats.end(call, undone);
+        return undone;
+    }
+
+    private boolean undo() {
+        UndoJournal.Change change = undoJournal.undo();
+        if (change == null) {
             return false;
         }
 
-        AppointmentAction action = undoStack.pop();
-
-        switch (action.type) {
+        Appointment changed;
+        switch (change.type) {
             case ADD:
                 // Remove the appointment that was added
-                appointments.remove(action.appointment.getId());
-                appointmentQueue.remove(action.appointment);
-                walkInQueue.remove(action.appointment);
+                changed = removeAgain(change.subject);
                 break;
 
-            case UPDATE:
-            case CANCEL:
-            case COMPLETE:
-                // Restore previous state
-                if (action.previousState != null) {
-                    Appointment current = appointments.get(action.appointment.getId());
-                    if (current != null) {
-                        restoreAppointmentState(current, action.previousState);
-
-                        // Re-add to queue if it was scheduled/confirmed
-                        if (current.getStatus() == AppointmentStatus.SCHEDULED ||
-                                current.getStatus() == AppointmentStatus.CONFIRMED) {
-                            if (!appointmentQueue.contains(current)) {
-                                appointmentQueue.offer(current);
-                            }
-                        }
-                    }
+            case DELETE:
+                // Bring back the deleted appointment itself, keeping its ID
+                changed = restore(change.subject);
+                break;
+
+            default:
+                // Restore the previous field values
+                changed = applyChange(change);
+                break;
+        }
+
+        if (changed != null) {
+            events.publish(ChangeEvent.Type.UNDONE, changed);
+        }
+        return true;
+    }
+
+    // Redo the last undone action.
+    public boolean redoLastAction() {
+        OperationEvent call = redoStats.begin();
+        boolean redone = redo();
+        redoStats.end(call, redone);
+        return redone;
+    }
+
+    private boolean redo() {
+        UndoJournal.Change change = undoJournal.redo();
+        if (change == null) {
+            return false;
+        }
+
+        switch (change.type) {
+            case ADD:
+                if (restore(change.subject) != null) {
+                    events.publish(ChangeEvent.Type.CREATED, change.subject);
                 }
                 break;
 
             case DELETE:
-                // Restore deleted appointment
-                if (action.previousState != null) {
-                    // Re-add to appointments map
-                    appointments.put(action.previousState.getId(), action.previousState);
-
-                    // Re-add to appropriate queue based on status
-                    if (action.previousState.getStatus() == AppointmentStatus.SCHEDULED ||
-                            action.previousState.getStatus() == AppointmentStatus.CONFIRMED) {
-                        if (!appointmentQueue.contains(action.previousState)) {
-                            appointmentQueue.offer(action.previousState);
-                        }
-                    }
+                if (removeAgain(change.subject) != null) {
+                    events.publish(ChangeEvent.Type.DELETED, change.subject);
                 }
                 break;
-        }
 
+            default:
+                // Re-apply the new field values
+                Appointment changed = applyChange(change);
+                if (changed != null) {
+                    events.publish(ChangeEvent.Type.UPDATED, changed);
+                }
+                break;
+        }
         return true;
     }
 
+    // Put a journalled appointment back into storage and its queue.
+    // Returns the appointment, or null if it was already present.
+    private Appointment restore(Appointment appointment) {
+        ReentrantLock lock = lockFor(appointment.getDoctor());
+        lock.lock();
+        try {
+            if (appointments.containsKey(appointment.getId())) {
+                return null;
+            }
+            store(appointment);
+            requeue(appointment);
+            return appointment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Take a journalled appointment out of storage and the queues again.
+    // Returns the appointment, or null if it was already gone.
+    private Appointment removeAgain(Appointment appointment) {
+        ReentrantLock lock = lockFor(appointment.getDoctor());
+        lock.lock();
+        try {
+            if (appointments.get(appointment.getId()) != appointment) {
+                return null;
+            }
+            discard(appointment);
+            appointmentQueue.remove(appointment);
+            dequeueWalkIn(appointment);
+            return appointment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Write journalled field values into the appointment they belong to.
+    // Returns the changed appointment, or null if it no longer exists.
+    private Appointment applyChange(UndoJournal.Change change) {
+        Appointment current = appointments.get(change.appointmentId);
+        if (current == null) {
+            return null;
+        }
+
+        ReentrantLock lock = lockFor(current.getDoctor());
+        lock.lock();
+        try {
+            if (appointments.get(change.appointmentId) != current) {
+                return null;
+            }
+            AppointmentStatus oldStatus = current.getStatus();
+            unindex(current);
+            change.applyTo(current);
+            index(current);
+            recordTransition(current, oldStatus, false);
+
+            // Waiting appointments belong in their queue, others leave it
+            if (BookingIndex.isActive(current)) {
+                requeue(current);
+            } else {
+                appointmentQueue.remove(current);
+                dequeueWalkIn(current);
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Re-add a scheduled/confirmed appointment to the queue it belongs to.
+    private void requeue(Appointment appointment) {
+        if (!BookingIndex.isActive(appointment)) {
+            return;
+        }
+        if (walkInAppointmentIds.contains(appointment.getId())) {
+            enqueueWalkIn(appointment);
+        } else {
+            appointmentQueue.offer(appointment);
+        }
+    }
+
     // Check if there are actions that can be undone.
     public boolean canUndo() {
-        return !undoStack.isEmpty();
+        return undoJournal.undoSize() > 0;
     }
 
     // Get count of actions that can be undone.
     public int getUndoStackSize() {
-        return undoStack.size();
+        return undoJournal.undoSize();
+    }
+
+    // Check if there are undone actions that can be redone.
+    public boolean canRedo() {
+        return undoJournal.redoSize() > 0;
+    }
+
+    // Get count of actions that can be redone.
+    public int getRedoStackSize() {
+        return undoJournal.redoSize();
+    }
+
+    // Number of entries in each lookup index, for monitoring. The per-patient,
+    // per-doctor and per-date indexes count their keys.
+    public Map<String, Integer> getIndexSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("appointments", appointments.size());
+        sizes.put("patients", appointmentsByPatient.size());
+        sizes.put("doctors", appointmentsByDoctor.size());
+        sizes.put("dates", appointmentsByDate.size());
+        sizes.put("activeBookings", bookingIndex.size());
+        sizes.put("walkIns", walkInAppointmentIds.size());
+        sizes.put("doctorWalkInQueues", walkInQueuesByDoctor.size());
+        return sizes;
     }
 
     // Get completed appointments.
@@ -460,78 +853,97 @@ public class AppointmentManager {
         return getAppointmentsByStatus(AppointmentStatus.COMPLETED);
     }
 
-    // Get appointment history for reporting.
+    // Get appointment history for reporting, ordered by date and start time.
+    // Both dates are inclusive.
     public List<Appointment> getAppointmentHistory(LocalDate startDate, LocalDate endDate) {
-        return appointments.values().stream()
-                .filter(apt -> {
-                    LocalDate aptDate = apt.getAppointmentDateTime().toLocalDate();
-                    return !aptDate.isBefore(startDate) && !aptDate.isAfter(endDate);
-                })
-                .sorted(Comparator.comparing(Appointment::getAppointmentDateTime))
-                .collect(Collectors.toList());
+        OperationEvent call = historyStats.begin();
+        List<Appointment> results = new ArrayList<>();
+        if (!startDate.isAfter(endDate)) {
+            for (NavigableMap<Long, Appointment> day
+                    : appointmentsByDate.subMap(startDate, true, endDate, true).values()) {
+                results.addAll(day.values());
+            }
+        }
+        historyStats.end(call, true, results.size(), results.size());
+        return results;
+    }
+
+    // Get appointments for a whole month, ordered by date and start time.
+    public List<Appointment> getAppointmentsByMonth(YearMonth month) {
+        return getAppointmentHistory(month.atDay(1), month.atEndOfMonth());
+    }
+
+    // Get appointments for a whole year, ordered by date and start time.
+    public List<Appointment> getAppointmentsByYear(int year) {
+        return getAppointmentHistory(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
     }
 
     // Get daily report statistics.
+    // Read from running counters, so the cost does not depend on the number of appointments.
     public Map<String, Integer> getDailyStatistics(LocalDate date) {
-        List<Appointment> dailyAppointments = getAppointmentsByDate(date);
-
         Map<String, Integer> stats = new HashMap<>();
-        stats.put("total", dailyAppointments.size());
-        stats.put("scheduled", 0);
-        stats.put("confirmed", 0);
-        stats.put("in_progress", 0);
-        stats.put("completed", 0);
-        stats.put("cancelled", 0);
-        stats.put("no_show", 0);
-
-        for (Appointment apt : dailyAppointments) {
-            String status = apt.getStatus().toString().toLowerCase();
-            stats.put(status, stats.getOrDefault(status, 0) + 1);
+        stats.put("total", counters.total(date));
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            stats.put(status.name().toLowerCase(), counters.count(date, status));
         }
-
         return stats;
     }
 
-    // Clone an appointment for undo functionality.
-    private Appointment cloneAppointment(Appointment apt) {
-        Appointment clone = new Appointment(apt.getPatient(), apt.getDoctor(),
-                apt.getAppointmentDate(), apt.getStartTime(),
-                apt.getEndTime(), apt.getReason());
-        clone.setStatus(apt.getStatus());
-        clone.setNotes(apt.getNotes());
-        return clone;
+    // Get number of appointments with a status on a date.
+    public int getStatusCount(LocalDate date, AppointmentStatus status) {
+        return counters.count(date, status);
+    }
+
+    // Get number of appointments with a status across all dates.
+    public int getStatusCount(AppointmentStatus status) {
+        return counters.total(status);
+    }
+
+    // Get number of appointments on a date.
+    public int getAppointmentCount(LocalDate date) {
+        return counters.total(date);
     }
 
-    // Restore appointment to previous state.
-    private void restoreAppointmentState(Appointment current, Appointment previous) {
-        current.setAppointmentDate(previous.getAppointmentDate());
-        current.setStartTime(previous.getStartTime());
-        current.setEndTime(previous.getEndTime());
-        current.setReason(previous.getReason());
-        current.setStatus(previous.getStatus());
-        current.setNotes(previous.getNotes());
+    // Get number of regular (non-walk-in) appointments on a date.
+    public int getRegularAppointmentCount(LocalDate date) {
+        return counters.total(date) - counters.walkIns(date);
     }
 
     // Delete an appointment (for administrative purposes).
     // Supports undo by saving previous state.
     public boolean deleteAppointment(int id) {
+        OperationEvent call = deleteStats.begin();
+        boolean deleted = delete(id);
+        deleteStats.end(call, deleted);
+        return deleted;
+    }
+
+    private boolean delete(int id) {
         Appointment appointment = appointments.get(id);
-        if (appointment != null) {
-            // Save state for undo
-            Appointment previousState = cloneAppointment(appointment);
+        if (appointment == null) {
+            return false;
+        }
 
-            // Remove from map and queues
-            appointments.remove(id);
-            appointmentQueue.remove(appointment);
-            walkInQueue.remove(appointment);
+        ReentrantLock lock = lockFor(appointment.getDoctor());
+        lock.lock();
+        try {
+            if (appointments.get(id) != appointment) {
+                return false;
+            }
 
-            // Push to undo stack so deletion can be undone
-            undoStack.push(new AppointmentAction(AppointmentAction.ActionType.DELETE,
-                    appointment, previousState));
+            // Remove from map, indexes and queues
+            discard(appointment);
+            appointmentQueue.remove(appointment);
+            dequeueWalkIn(appointment);
 
-            return true;
+            // Journal the appointment itself so undo brings it back with the same ID
+            undoJournal.recordLifecycle(ActionType.DELETE, appointment);
+        } finally {
+            lock.unlock();
         }
-        return false;
+
+        events.publish(ChangeEvent.Type.DELETED, appointment);
+        return true;
     }
 
     // Get total appointment count.
@@ -541,10 +953,7 @@ public class AppointmentManager {
 
     // Get count of appointments for today.
     public int getTodayAppointmentCount() {
-        LocalDate today = LocalDate.now();
-        return (int) appointments.values().stream()
-                .filter(apt -> apt.getAppointmentDate().equals(today))
-                .count();
+        return counters.total(LocalDate.now(clock));
     }
 
     // ========== Walk-In Queue Methods ==========
@@ -552,41 +961,248 @@ public class AppointmentManager {
     // Add appointment to walk-in queue.
     // This is separate from regular appointment queue.
     public boolean addToWalkInQueue(Appointment appointment) {
-        if (appointment != null && appointments.containsKey(appointment.getId())) {
+        return addToWalkInQueue(appointment, null);
+    }
+
+    // Add appointment to walk-in queue with a triage level (null keeps the current level).
+    public boolean addToWalkInQueue(Appointment appointment, TriageLevel triageLevel) {
+        if (appointment == null) {
+            return false;
+        }
+
+        boolean queued;
+        ReentrantLock lock = lockFor(appointment.getDoctor());
+        lock.lock();
+        try {
+            if (!appointments.containsKey(appointment.getId())) {
+                return false;
+            }
             // Mark as walk-in and remove from regular queue if present
-            walkInAppointmentIds.add(appointment.getId());
+            if (walkInAppointmentIds.add(appointment.getId())) {
+                counters.markWalkIn(appointment.getAppointmentDate());
+            }
+            regularAppointments.remove(appointment.getId());
             appointmentQueue.remove(appointment);
-            return walkInQueue.offer(appointment);
+            if (triageLevel != null && !walkInQueue.contains(appointment)) {
+                appointment.setTriageLevel(triageLevel);
+            }
+            queued = enqueueWalkIn(appointment);
+        } finally {
+            lock.unlock();
         }
-        return false;
+
+        if (queued) {
+            events.publish(ChangeEvent.Type.UPDATED, appointment);
+        }
+        return queued;
     }
 
-    // Process next walk-in patient.
+    // Change the triage level of a waiting walk-in and move it to its new place in the queue.
+    // Its waiting time so far still counts. Returns false if it is not in the walk-in queue.
+    public boolean reprioritizeWalkIn(int appointmentId, TriageLevel triageLevel) {
+        Appointment appointment = appointments.get(appointmentId);
+        if (appointment == null || triageLevel == null) {
+            return false;
+        }
+
+        ReentrantLock lock = lockFor(appointment.getDoctor());
+        lock.lock();
+        try {
+            if (!walkInQueue.contains(appointment)) {
+                return false;
+            }
+            appointment.setTriageLevel(triageLevel);
+            synchronized (walkInQueue) {
+                walkInQueue.reprioritize(appointmentId);
+                doctorWalkInQueue(appointment.getDoctor().getId()).reprioritize(appointmentId);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        events.publish(ChangeEvent.Type.UPDATED, appointment);
+        return true;
+    }
+
+    // Process next walk-in patient (highest priority first).
     public Appointment processNextWalkIn() {
-        Appointment appointment = walkInQueue.poll();
-        if (appointment != null && appointments.containsKey(appointment.getId())) {
-            Appointment previousState = cloneAppointment(appointment);
-            appointment.setStatus(AppointmentStatus.IN_PROGRESS);
+        OperationEvent call = nextWalkInStats.begin();
+        Appointment appointment;
+        synchronized (walkInQueue) {
+            appointment = walkInQueue.poll();
+            if (appointment != null) {
+                doctorWalkInQueue(appointment.getDoctor().getId()).remove(appointment);
+            }
+        }
+        if (appointment != null) {
+            startAppointment(appointment);
+        }
+        nextWalkInStats.end(call, appointment != null);
+        return appointment;
+    }
+
+    // Process the next walk-in patient of one doctor (highest priority first).
+    public Appointment processNextWalkIn(int doctorId) {
+        OperationEvent call = nextWalkInStats.begin();
+        Appointment appointment;
+        synchronized (walkInQueue) {
+            appointment = doctorWalkInQueue(doctorId).poll();
+            if (appointment != null) {
+                walkInQueue.remove(appointment);
+            }
+        }
+        if (appointment != null) {
+            startAppointment(appointment);
+        }
+        nextWalkInStats.end(call, appointment != null);
+        return appointment;
+    }
+
+    // Add a walk-in to the shared queue and its doctor's queue.
+    private boolean enqueueWalkIn(Appointment appointment) {
+        long now = clock.millis();
+        synchronized (walkInQueue) {
+            if (!walkInQueue.offer(appointment, now)) {
+                return false;
+            }
+            doctorWalkInQueue(appointment.getDoctor().getId()).offer(appointment, now);
+            return true;
+        }
+    }
 
-            undoStack.push(new AppointmentAction(AppointmentAction.ActionType.UPDATE,
-                    appointment, previousState));
+    // Remove a walk-in from the shared queue and its doctor's queue.
+    private boolean dequeueWalkIn(Appointment appointment) {
+        synchronized (walkInQueue) {
+            if (!walkInQueue.remove(appointment)) {
+                return false;
+            }
+            doctorWalkInQueue(appointment.getDoctor().getId()).remove(appointment);
+            return true;
         }
+    }
+
+    private WalkInPriorityQueue doctorWalkInQueue(int doctorId) {
+        return walkInQueuesByDoctor.computeIfAbsent(doctorId, id -> new WalkInPriorityQueue());
+    }
+
+    /**
+     * Register a walk-in and route it to the least-loaded available doctor of a
+     * specialization who works today. Load counts the doctor's remaining bookings
+     * for today, including waiting walk-ins, and is kept in a per-specialization
+     * min-heap so routing is O(log d) in the number of doctors.
+     *
+     * @param patient        Walk-in patient
+     * @param specialization Specialization needed (case-insensitive, exact)
+     * @param reason         Reason for visit
+     * @param triageLevel    Triage level (null for STANDARD)
+     * @return The queued walk-in appointment, or null if no doctor is available
+     */
+    public Appointment scheduleWalkIn(Patient patient, String specialization, String reason,
+            TriageLevel triageLevel) {
+        OperationEvent call = walkInStats.begin();
+        Doctor doctor = findLeastLoadedDoctor(specialization);
+        if (patient == null || doctor == null) {
+            walkInStats.end(call, false);
+            return null;
+        }
+
+        LocalTime now = LocalTime.now(clock).withSecond(0).withNano(0);
+        Appointment appointment = scheduleAppointment(patient, doctor, LocalDate.now(clock),
+                now, now.plusMinutes(30), reason, true);
+        if (appointment != null) {
+            addToWalkInQueue(appointment, triageLevel != null ? triageLevel : TriageLevel.STANDARD);
+        }
+        walkInStats.end(call, appointment != null);
         return appointment;
     }
 
+    // Find the least-loaded available doctor of a specialization who works today, or null.
+    public Doctor findLeastLoadedDoctor(String specialization) {
+        if (specialization == null) {
+            return null;
+        }
+        LocalDate today = LocalDate.now(clock);
+        return loadBalancer.leastLoaded(specialization, today,
+                doctor -> doctor.isAvailable() && doctor.getSchedule().worksOn(today));
+    }
+
+    // Get a doctor's load for today: remaining active bookings, including waiting walk-ins.
+    public int getDoctorLoad(int doctorId) {
+        return loadBalancer.load(doctorId, LocalDate.now(clock));
+    }
+
+    // Get the expected start of a waiting walk-in: when its doctor is next free plus
+    // the doctor's rolling mean service time for each patient ahead of it in the
+    // doctor's queue. Returns null if the appointment is not waiting.
+    public LocalDateTime getExpectedStartTime(int appointmentId) {
+        Appointment appointment = appointments.get(appointmentId);
+        if (appointment == null) {
+            return null;
+        }
+        int doctorId = appointment.getDoctor().getId();
+        int position = doctorWalkInQueue(doctorId).position(appointmentId);
+        if (position < 0) {
+            return null;
+        }
+        long expected = waitTimeEstimator.expectedStart(doctorId, position - 1, clock.millis());
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(expected), clock.getZone());
+    }
+
+    // Get the expected wait of a waiting walk-in in whole minutes, or -1 if it is not waiting.
+    public long getEstimatedWaitMinutes(int appointmentId) {
+        LocalDateTime expected = getExpectedStartTime(appointmentId);
+        if (expected == null) {
+            return -1;
+        }
+        return Math.max(0, Duration.between(LocalDateTime.now(clock), expected).toMinutes());
+    }
+
+    // Get a doctor's rolling mean service time (the default slot length until visits complete).
+    public Duration getAverageServiceTime(int doctorId) {
+        return Duration.ofMillis(waitTimeEstimator.meanServiceMillis(doctorId));
+    }
+
     // Get walk-in queue size.
     public int getWalkInQueueSize() {
         return walkInQueue.size();
     }
 
-    // View walk-in queue without removing entries.
+    // Get the walk-in queue size of one doctor.
+    public int getWalkInQueueSize(int doctorId) {
+        WalkInPriorityQueue queue = walkInQueuesByDoctor.get(doctorId);
+        return queue != null ? queue.size() : 0;
+    }
+
+    // View walk-in queue in service order without removing entries.
     public List<Appointment> viewWalkInQueue() {
-        return new ArrayList<>(walkInQueue);
+        return walkInQueue.toList();
+    }
+
+    // View one doctor's walk-in queue in service order.
+    public List<Appointment> viewWalkInQueue(int doctorId) {
+        WalkInPriorityQueue queue = walkInQueuesByDoctor.get(doctorId);
+        return queue != null ? queue.toList() : new ArrayList<>();
+    }
+
+    // Get the 1-based position of an appointment in the walk-in queue, or -1 if it is not waiting.
+    public int getWalkInQueuePosition(int appointmentId) {
+        return walkInQueue.position(appointmentId);
+    }
+
+    // Visit the walk-in queue in service order, each appointment with its 1-based
+    // position, without copying the queue. The queue is locked during the visit,
+    // so the visitor should only read (e.g. build table rows) and return quickly.
+    public void forEachWalkIn(ObjIntConsumer<Appointment> visitor) {
+        walkInQueue.forEach(visitor);
     }
 
     // Remove appointment from walk-in queue.
     public boolean removeFromWalkInQueue(Appointment appointment) {
-        return walkInQueue.remove(appointment);
+        if (!dequeueWalkIn(appointment)) {
+            return false;
+        }
+        events.publish(ChangeEvent.Type.UPDATED, appointment);
+        return true;
     }
 
     // Check if an appointment is a walk-in.
@@ -596,9 +1212,7 @@ public class AppointmentManager {
 
     // Get only regular (non-walk-in) appointments.
     public List<Appointment> getRegularAppointments() {
-        return appointments.values().stream()
-                .filter(apt -> !walkInAppointmentIds.contains(apt.getId()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(regularAppointments.values());
     }
 
     // Inner class to represent a time slot.
@@ -632,71 +1246,224 @@ public class AppointmentManager {
     }
 
     // Get available time slots for a doctor on a specific date.
-    // Generates 30-minute slots from 8:00 AM to 5:00 PM.
+    // Generates 30-minute slots across the doctor's working hours.
     public List<TimeSlot> getAvailableTimeSlots(Doctor doctor, LocalDate date) {
+        return getAvailableTimeSlots(doctor, date, 30);
+    }
+
+    // Get time slots of the given length for a doctor on a specific date.
+    // Each slot is checked against the doctor's minute occupancy bitmap for the day.
+    public List<TimeSlot> getAvailableTimeSlots(Doctor doctor, LocalDate date, int slotDurationMinutes) {
+        OperationEvent call = timeSlotsStats.begin();
         List<TimeSlot> slots = new ArrayList<>();
+        // Only days the doctor works have slots
+        DoctorSchedule schedule = doctor.getSchedule();
+        if (slotDurationMinutes > 0 && schedule.worksOn(date)) {
+            addTimeSlots(slots, doctor, date, slotDurationMinutes, schedule);
+        }
+        timeSlotsStats.end(call, true, slots.size(), slots.size());
+        return slots;
+    }
 
-        // Check if doctor works on this day
-        String dayOfWeek = date.getDayOfWeek().name(); // e.g. "MONDAY"
-        boolean isWorkingDay = doctor.getAvailableDays().stream()
-                .anyMatch(day -> day.equalsIgnoreCase(dayOfWeek));
+    // Lay out a working day's slots and mark each free or taken.
+    private void addTimeSlots(List<TimeSlot> slots, Doctor doctor, LocalDate date, int slotDurationMinutes,
+            DoctorSchedule schedule) {
 
-        if (!isWorkingDay) {
-            return slots;
+        ReentrantLock lock = lockFor(doctor);
+        lock.lock();
+        try {
+            // Slots are laid out from the start of each shift; none goes past the shift's end
+            for (int shift = 0; shift < schedule.getShiftCount(); shift++) {
+                int shiftEnd = schedule.getShiftEndMinute(shift);
+                for (int slotStart = schedule.getShiftStartMinute(shift); slotStart + slotDurationMinutes <= shiftEnd;
+                        slotStart += slotDurationMinutes) {
+                    int slotEnd = slotStart + slotDurationMinutes;
+                    boolean isAvailable = bookingIndex.isFree(doctor.getId(), date, slotStart, slotEnd);
+                    slots.add(new TimeSlot(toTime(slotStart), toTime(slotEnd), isAvailable));
+                }
+            }
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // Parse doctor's working hours - handle both 12-hour and 24-hour formats
-        LocalTime clinicStart = parseTime(doctor.getStartTime());
-        LocalTime clinicEnd = parseTime(doctor.getEndTime());
+    // Inner class to represent a free slot offered by a specific doctor.
+    public static class DoctorSlot {
+        private final Doctor doctor;
+        private final LocalDate date;
+        private final LocalTime startTime;
+        private final LocalTime endTime;
 
-        // Fallback if parsing fails
-        if (clinicStart == null)
-            clinicStart = LocalTime.of(8, 0);
-        if (clinicEnd == null)
-            clinicEnd = LocalTime.of(17, 0);
+        public DoctorSlot(Doctor doctor, LocalDate date, LocalTime startTime, LocalTime endTime) {
+            this.doctor = doctor;
+            this.date = date;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
 
-        int slotDurationMinutes = 30;
+        public Doctor getDoctor() {
+            return doctor;
+        }
 
-        LocalTime currentTime = clinicStart;
-        while (currentTime.isBefore(clinicEnd)) {
-            LocalTime slotEnd = currentTime.plusMinutes(slotDurationMinutes);
+        public LocalDate getDate() {
+            return date;
+        }
 
-            // Ensure slot doesn't go past end time
-            if (slotEnd.isAfter(clinicEnd)) {
-                break;
-            }
+        public LocalTime getStartTime() {
+            return startTime;
+        }
 
-            boolean isAvailable = !hasConflict(doctor, date, currentTime, slotEnd);
-            slots.add(new TimeSlot(currentTime, slotEnd, isAvailable));
-            currentTime = slotEnd;
+        public LocalTime getEndTime() {
+            return endTime;
         }
 
-        return slots;
+        @Override
+        public String toString() {
+            return date + " " + startTime + " - " + endTime + " (Dr. " + doctor.getName() + ")";
+        }
     }
 
     /**
-     * Parse time string that can be in either 12-hour (1:00 PM) or 24-hour (13:00)
-     * format
+     * Find the earliest free slots across all available doctors of a specialization.
+     * Each doctor contributes a lazily generated, time-ordered list of free slots
+     * and the lists are merged through a min-heap. A doctor's list only advances
+     * one day at a time when it reaches the top of the heap, so the search stops
+     * as soon as enough slots are found instead of scanning every doctor and day.
+     *
+     * @param specialization  Specialization to match (case-insensitive, exact)
+     * @param from            Earliest acceptable start
+     * @param horizonDays     Number of days to search, starting at from's date
+     * @param durationMinutes Length of the requested slot
+     * @param limit           Maximum number of slots to return
+     * @return Up to limit free slots ordered by date and start time
      */
-    private LocalTime parseTime(String timeStr) {
-        if (timeStr == null || timeStr.trim().isEmpty()) {
-            return null;
+    public List<DoctorSlot> findEarliestSlots(String specialization, LocalDateTime from,
+            int horizonDays, int durationMinutes, int limit) {
+        OperationEvent call = earliestSlotsStats.begin();
+        List<DoctorSlot> results = new ArrayList<>();
+        int doctorsSearched = 0;
+        if (specialization != null && from != null && horizonDays > 0 && durationMinutes > 0 && limit > 0) {
+            doctorsSearched = mergeEarliestSlots(results, specialization, from, horizonDays, durationMinutes, limit);
         }
+        earliestSlotsStats.end(call, true, doctorsSearched, results.size());
+        return results;
+    }
 
-        // Try 24-hour format first (HH:mm)
-        LocalTime time = InputValidator.parseAndValidateTime(timeStr);
-        if (time != null) {
-            return time;
+    // Merge the doctors' free-slot cursors until limit slots are found or all are exhausted.
+    // Returns the number of doctors searched.
+    private int mergeEarliestSlots(List<DoctorSlot> results, String specialization, LocalDateTime from,
+            int horizonDays, int durationMinutes, int limit) {
+        PriorityQueue<FreeSlotCursor> heap = new PriorityQueue<>();
+        for (Doctor doctor : doctorManager.getAvailableDoctors()) {
+            if (doctor.getSpecialization() != null && doctor.getSpecialization().equalsIgnoreCase(specialization)) {
+                heap.offer(new FreeSlotCursor(doctor, from, horizonDays, durationMinutes));
+            }
         }
+        int doctorsSearched = heap.size();
+
+        while (results.size() < limit && !heap.isEmpty()) {
+            FreeSlotCursor cursor = heap.poll();
+            if (cursor.found) {
+                // Earliest remaining slot across all doctors
+                results.add(new DoctorSlot(cursor.doctor, cursor.date,
+                        toTime(cursor.minute), toTime(cursor.minute + durationMinutes)));
+                cursor.found = false;
+                cursor.minute += durationMinutes;
+            } else {
+                cursor.searchDay();
+            }
 
-        // Try 12-hour format (h:mm a)
-        try {
-            DateTimeFormatter formatter12Hour = DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH);
-            return LocalTime.parse(timeStr, formatter12Hour);
-        } catch (Exception e) {
-            // Ignore and return null
+            if (!cursor.isExhausted()) {
+                heap.offer(cursor);
+            }
+        }
+        return doctorsSearched;
+    }
+
+    // Walks one doctor's free slots in time order, one day per step, using the occupancy bitmap.
+    // Until a slot is found, (date, minute) is a lower bound on the doctor's next free slot.
+    private class FreeSlotCursor implements Comparable<FreeSlotCursor> {
+        final Doctor doctor;
+        final DoctorSchedule schedule;
+        final int duration;
+        final LocalDate lastDate;
+
+        LocalDate date;
+        int minute;    // start of the found slot, or where the search resumes on date
+        boolean found; // whether minute is the start of a verified free slot
+
+        FreeSlotCursor(Doctor doctor, LocalDateTime from, int horizonDays, int duration) {
+            this.doctor = doctor;
+            this.duration = duration;
+            this.schedule = doctor.getSchedule();
+
+            this.date = from.toLocalDate();
+            this.lastDate = date.plusDays(horizonDays - 1L);
+            // Round the first day's start up to the next whole minute
+            this.minute = Math.max(dayStart(), (from.toLocalTime().toSecondOfDay() + 59) / 60);
+        }
+
+        // Start of the doctor's first shift, as minute of day
+        private int dayStart() {
+            return schedule.getShiftCount() > 0 ? schedule.getShiftStartMinute(0) : 0;
+        }
+
+        // Look for a free slot on the current date from minute onwards.
+        // If there is none, move the lower bound to the start of the next date.
+        void searchDay() {
+            if (schedule.worksOn(date)) {
+                ReentrantLock lock = lockFor(doctor);
+                lock.lock();
+                try {
+                    BitSet occupied = bookingIndex.getOccupancy(doctor.getId(), date);
+                    for (int shift = 0; shift < schedule.getShiftCount(); shift++) {
+                        int shiftEnd = schedule.getShiftEndMinute(shift);
+                        int start = Math.max(minute, schedule.getShiftStartMinute(shift));
+                        while (start + duration <= shiftEnd) {
+                            if (occupied != null) {
+                                start = occupied.nextClearBit(start);
+                            }
+                            int busy = occupied != null ? occupied.nextSetBit(start) : -1;
+                            if (busy < 0 || busy - start >= duration) {
+                                if (start + duration <= shiftEnd) {
+                                    minute = start;
+                                    found = true;
+                                    return;
+                                }
+                                break;
+                            }
+                            start = busy;
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            date = date.plusDays(1);
+            minute = dayStart();
+        }
+
+        boolean isExhausted() {
+            return date.isAfter(lastDate);
         }
 
-        return null;
+        @Override
+        public int compareTo(FreeSlotCursor other) {
+            int byDate = date.compareTo(other.date);
+            if (byDate != 0) {
+                return byDate;
+            }
+            int byMinute = Integer.compare(minute, other.minute);
+            if (byMinute != 0) {
+                return byMinute;
+            }
+            // Resolve pending searches before emitting a slot at the same bound
+            return Boolean.compare(found, other.found);
+        }
+    }
+
+    // Convert a minute of the day to a LocalTime (minute 1440 maps to midnight).
+    private static LocalTime toTime(int minuteOfDay) {
+        return LocalTime.ofSecondOfDay((minuteOfDay % BookingIndex.MINUTES_PER_DAY) * 60L);
     }
 }
\ No newline at end of file
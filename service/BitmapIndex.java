@@ -0,0 +1,151 @@
+package clinicapp.service;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Index over a low-cardinality attribute (gender, blood type, ...): one bitmap
+// per distinct value, with bit i set when the entity with ID i has that value.
+// Combining attributes is then a word-at-a-time AND of bitmaps, and counting a
+// value's matches is a popcount.
+//
+// Values are compared trimmed and lowercased. There are only a few values, so
+// an update clears the ID from every bitmap instead of remembering each ID's
+// old value. Safe for concurrent use; reads share a read lock.
+class BitmapIndex {
+
+    // Normalized value -> IDs having it; sorted so listings are stable
+    private final Map<String, BitSet> bitmaps = new TreeMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Trim and lowercase a value the way it is indexed. Null or blank means no value.
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    // Index the value of an ID, replacing its previous value. Null removes it.
+    void put(int id, String value) {
+        String key = normalize(value);
+        lock.writeLock().lock();
+        try {
+            for (BitSet bitmap : bitmaps.values()) {
+                bitmap.clear(id);
+            }
+            if (key != null) {
+                bitmaps.computeIfAbsent(key, k -> new BitSet()).set(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drop an ID from the index.
+    void remove(int id) {
+        put(id, null);
+    }
+
+    // Number of IDs with a value.
+    int count(String value) {
+        String key = normalize(value);
+        lock.readLock().lock();
+        try {
+            BitSet bitmap = key != null ? bitmaps.get(key) : null;
+            return bitmap != null ? bitmap.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Copy of the IDs with a value.
+    BitSet get(String value) {
+        String key = normalize(value);
+        lock.readLock().lock();
+        try {
+            BitSet bitmap = key != null ? bitmaps.get(key) : null;
+            return bitmap != null ? (BitSet) bitmap.clone() : new BitSet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Smallest ID >= from with a value, or -1 if there is none.
+    int nextId(String value, int from) {
+        String key = normalize(value);
+        lock.readLock().lock();
+        try {
+            BitSet bitmap = key != null ? bitmaps.get(key) : null;
+            return bitmap != null ? bitmap.nextSetBit(from) : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The IDs in [from, to) with a value, with bit i standing for ID from + i.
+    BitSet slice(String value, int from, int to) {
+        String key = normalize(value);
+        lock.readLock().lock();
+        try {
+            BitSet bitmap = key != null ? bitmaps.get(key) : null;
+            return bitmap != null ? bitmap.get(from, to) : new BitSet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Keep only the IDs in ids that have a value, where bit i of ids stands for ID from + i.
+    void and(String value, BitSet ids, int from) {
+        String key = normalize(value);
+        lock.readLock().lock();
+        try {
+            BitSet bitmap = key != null ? bitmaps.get(key) : null;
+            if (bitmap != null) {
+                ids.and(bitmap.get(from, (int) Math.min((long) from + ids.length(), Integer.MAX_VALUE)));
+            } else {
+                ids.clear();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // IDs whose value contains the given text (ignoring case): the union of
+    // the bitmaps of every matching value.
+    BitSet containing(String text) {
+        String term = text != null ? text.toLowerCase(Locale.ROOT) : "";
+        BitSet ids = new BitSet();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, BitSet> entry : bitmaps.entrySet()) {
+                if (entry.getKey().contains(term)) {
+                    ids.or(entry.getValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    // Number of IDs per value.
+    Map<String, Integer> counts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, BitSet> entry : bitmaps.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().cardinality());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,197 @@
+package clinicapp.service;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-doctor, per-day index of active (SCHEDULED/CONFIRMED) bookings.
+// Used by AppointmentManager for conflict detection so a check only touches
+// the bookings of one doctor on one day instead of every appointment.
+// Each day also keeps a minute-resolution occupancy bitmap for free-slot searches.
+//
+// The outer map is concurrent; everything below one doctor ID must only be read
+// or written while holding that doctor's lock in AppointmentManager.
+class BookingIndex {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Doctor ID -> date -> that day's bookings
+    private final Map<Integer, Map<LocalDate, DayBookings>> bookings;
+
+    // Number of bookings currently indexed
+    private final AtomicInteger size;
+
+    BookingIndex() {
+        this.bookings = new ConcurrentHashMap<>();
+        this.size = new AtomicInteger();
+    }
+
+    // Bookings of one doctor on one day, ordered by start time.
+    // Keys pack the start second-of-day with the appointment ID so several
+    // bookings may share a start time (walk-ins skip the conflict check).
+    private static class DayBookings {
+        final TreeMap<Long, Appointment> byStart = new TreeMap<>();
+
+        // Upper bound on the length (in seconds) of any booking in this day.
+        // Only bookings starting within this distance before a window can reach into it.
+        int longest = 0;
+
+        // Bit m is set when minute m of the day is (partly) covered by a booking
+        final BitSet occupied = new BitSet(MINUTES_PER_DAY);
+
+        void occupy(Appointment apt) {
+            int startMinute = apt.getStartTime().toSecondOfDay() / 60;
+            // Round the end up so a partly used minute counts as busy
+            int endMinute = (apt.getEndTime().toSecondOfDay() + 59) / 60;
+            if (startMinute < endMinute) {
+                occupied.set(startMinute, endMinute);
+            }
+        }
+
+        // Bookings may overlap (walk-ins), so clearing one booking's minutes
+        // is not enough; rebuild from the remaining bookings of the day.
+        void rebuildOccupancy() {
+            occupied.clear();
+            for (Appointment apt : byStart.values()) {
+                occupy(apt);
+            }
+        }
+    }
+
+    // Only SCHEDULED and CONFIRMED appointments block a doctor's time.
+    static boolean isActive(Appointment apt) {
+        return apt.getStatus() == AppointmentStatus.SCHEDULED ||
+                apt.getStatus() == AppointmentStatus.CONFIRMED;
+    }
+
+    // Index an appointment if it is active. Must be called with its current date and times.
+    void add(Appointment apt) {
+        if (!isActive(apt)) {
+            return;
+        }
+
+        DayBookings day = bookings
+                .computeIfAbsent(apt.getDoctor().getId(), id -> new HashMap<>())
+                .computeIfAbsent(apt.getAppointmentDate(), d -> new DayBookings());
+
+        int start = apt.getStartTime().toSecondOfDay();
+        int end = apt.getEndTime().toSecondOfDay();
+        day.longest = Math.max(day.longest, end - start);
+
+        if (day.byStart.put(timeKey(apt.getStartTime(), apt.getId()), apt) == null) {
+            size.incrementAndGet();
+        }
+        day.occupy(apt);
+    }
+
+    // Remove an appointment from the index. Must be called BEFORE its date, times,
+    // or doctor are changed, since those locate the entry.
+    void remove(Appointment apt) {
+        Map<LocalDate, DayBookings> days = bookings.get(apt.getDoctor().getId());
+        if (days == null) {
+            return;
+        }
+        DayBookings day = days.get(apt.getAppointmentDate());
+        if (day == null) {
+            return;
+        }
+
+        if (day.byStart.remove(timeKey(apt.getStartTime(), apt.getId())) != null) {
+            size.decrementAndGet();
+            day.rebuildOccupancy();
+        }
+
+        // Drop empty days so the map does not grow with history
+        if (day.byStart.isEmpty()) {
+            days.remove(apt.getAppointmentDate());
+            if (days.isEmpty()) {
+                bookings.remove(apt.getDoctor().getId());
+            }
+        }
+    }
+
+    // Check if any active booking of the doctor overlaps [startTime, endTime) on the date.
+    // Adjacent bookings (e.g., 8:00-9:00 and 9:00-10:00) do NOT overlap.
+    // Cost is O(log n) in the doctor's bookings for the day, plus the few bookings
+    // that start within one booking length before the window.
+    boolean hasConflict(int doctorId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        DayBookings day = getDay(doctorId, date);
+        if (day == null) {
+            return false;
+        }
+
+        int start = startTime.toSecondOfDay();
+        int end = endTime.toSecondOfDay();
+
+        // Candidates start before the window ends and no earlier than one
+        // booking length before the window starts
+        long from = key(Math.max(0, start - day.longest), 0);
+        long to = key(end, 0);
+        if (from >= to) {
+            return false;
+        }
+
+        NavigableMap<Long, Appointment> candidates = day.byStart.subMap(from, true, to, false);
+        for (Appointment apt : candidates.values()) {
+            int aptEnd = apt.getEndTime().toSecondOfDay();
+            int aptStart = apt.getStartTime().toSecondOfDay();
+            if (start < aptEnd && aptStart < end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Check if minutes [startMinute, endMinute) of the date are all free for the doctor.
+    boolean isFree(int doctorId, LocalDate date, int startMinute, int endMinute) {
+        return nextBusyMinute(doctorId, date, startMinute) >= endMinute;
+    }
+
+    // Get the first busy minute at or after fromMinute, or MINUTES_PER_DAY if the rest of the day is free.
+    int nextBusyMinute(int doctorId, LocalDate date, int fromMinute) {
+        DayBookings day = getDay(doctorId, date);
+        int busy = day != null ? day.occupied.nextSetBit(fromMinute) : -1;
+        return busy >= 0 ? busy : MINUTES_PER_DAY;
+    }
+
+    // Get the occupancy bitmap of the doctor on the date (null when nothing is booked).
+    // The bitmap is live and must not be modified by the caller.
+    BitSet getOccupancy(int doctorId, LocalDate date) {
+        DayBookings day = getDay(doctorId, date);
+        return day != null ? day.occupied : null;
+    }
+
+    // Get number of active bookings of a doctor on a date.
+    int count(int doctorId, LocalDate date) {
+        DayBookings day = getDay(doctorId, date);
+        return day != null ? day.byStart.size() : 0;
+    }
+
+    // Get number of indexed (active) bookings.
+    int size() {
+        return size.get();
+    }
+
+    private DayBookings getDay(int doctorId, LocalDate date) {
+        Map<LocalDate, DayBookings> days = bookings.get(doctorId);
+        return days != null ? days.get(date) : null;
+    }
+
+    // Sort key ordering appointments of one day by start time, then by ID.
+    static long timeKey(LocalTime startTime, int appointmentId) {
+        return key(startTime.toSecondOfDay(), appointmentId);
+    }
+
+    private static long key(int startSecond, int appointmentId) {
+        return ((long) startSecond << 32) | (appointmentId & 0xFFFFFFFFL);
+    }
+}
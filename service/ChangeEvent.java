@@ -0,0 +1,32 @@
+package clinicapp.service;
+
+// A change to a patient, doctor or appointment, published by its manager
+// after the change has been applied.
+public class ChangeEvent<T> {
+
+    public enum Type {
+        CREATED, UPDATED, STATUS_CHANGED, DELETED, UNDONE
+    }
+
+    private final Type type;
+    private final T subject;
+
+    public ChangeEvent(Type type, T subject) {
+        this.type = type;
+        this.subject = subject;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // The changed object (for DELETED, the object that was removed)
+    public T getSubject() {
+        return subject;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + subject;
+    }
+}
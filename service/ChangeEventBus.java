@@ -0,0 +1,40 @@
+package clinicapp.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Listener list shared by the managers to publish change events.
+// Registration is rare and publishing is frequent, so listeners are kept in a
+// copy-on-write list that can be iterated without locking.
+class ChangeEventBus<T> {
+
+    private final List<ChangeEventListener<T>> listeners;
+
+    ChangeEventBus() {
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    void addListener(ChangeEventListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(ChangeEventListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    // Deliver an event to every listener. A failing listener does not stop the others,
+    // since the change it reports has already been made.
+    void publish(ChangeEvent.Type type, T subject) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        ChangeEvent<T> event = new ChangeEvent<>(type, subject);
+        for (ChangeEventListener<T> listener : listeners) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException e) {
+                System.err.println("Change listener failed on " + event + ": " + e.getMessage());
+            }
+        }
+    }
+}
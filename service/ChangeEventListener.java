@@ -0,0 +1,7 @@
+package clinicapp.service;
+
+// Receives change events from a manager.
+// Called on the thread that made the change, after the change is applied.
+public interface ChangeEventListener<T> {
+    void onChange(ChangeEvent<T> event);
+}
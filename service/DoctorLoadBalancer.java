@@ -0,0 +1,228 @@
+package clinicapp.service;
+
+import clinicapp.model.Doctor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Tracks each doctor's load and finds the least-loaded doctor of a specialization.
+// A doctor's load on a date is the number of active (SCHEDULED/CONFIRMED) bookings
+// for that date. Waiting walk-ins are SCHEDULED, so today's load covers both the
+// remaining bookings and the walk-in backlog.
+//
+// Doctors of each specialization sit in an indexed min-heap keyed by today's load,
+// so a load change or a routing decision is O(log d). The heaps are re-keyed once
+// when the date rolls over. All methods are synchronized.
+class DoctorLoadBalancer {
+
+    // Doctor ID -> date -> active bookings on that date
+    private final Map<Integer, Map<LocalDate, Integer>> activeCounts;
+
+    // Registered doctors by ID, and the specialization heap each one is filed under
+    private final Map<Integer, Doctor> doctors;
+    private final Map<Integer, String> filedUnder;
+
+    // Normalized specialization -> heap of its doctors by today's load
+    private final Map<String, LoadHeap> heaps;
+
+    // Date the heap keys refer to
+    private LocalDate heapDate;
+
+    DoctorLoadBalancer(LocalDate today) {
+        this.activeCounts = new HashMap<>();
+        this.doctors = new HashMap<>();
+        this.filedUnder = new HashMap<>();
+        this.heaps = new HashMap<>();
+        this.heapDate = today;
+    }
+
+    // Add a doctor, or re-file one whose specialization changed.
+    synchronized void register(Doctor doctor) {
+        String key = normalize(doctor.getSpecialization());
+        String current = filedUnder.get(doctor.getId());
+        if (current != null && current.equals(key)) {
+            return;
+        }
+        unregister(doctor);
+        doctors.put(doctor.getId(), doctor);
+        filedUnder.put(doctor.getId(), key);
+        heaps.computeIfAbsent(key, k -> new LoadHeap()).add(doctor.getId(), load(doctor.getId(), heapDate));
+    }
+
+    synchronized void unregister(Doctor doctor) {
+        String key = filedUnder.remove(doctor.getId());
+        doctors.remove(doctor.getId());
+        if (key != null) {
+            heaps.get(key).remove(doctor.getId());
+        }
+    }
+
+    // Record that a doctor's active bookings on a date changed by delta.
+    synchronized void adjust(int doctorId, LocalDate date, int delta) {
+        Map<LocalDate, Integer> byDate = activeCounts.computeIfAbsent(doctorId, id -> new HashMap<>());
+        int count = byDate.getOrDefault(date, 0) + delta;
+        if (count == 0) {
+            byDate.remove(date);
+        } else {
+            byDate.put(date, count);
+        }
+
+        String key = filedUnder.get(doctorId);
+        if (key != null && date.equals(heapDate)) {
+            heaps.get(key).update(doctorId, count);
+        }
+    }
+
+    // Get a doctor's load on a date.
+    synchronized int load(int doctorId, LocalDate date) {
+        Map<LocalDate, Integer> byDate = activeCounts.get(doctorId);
+        return byDate != null ? byDate.getOrDefault(date, 0) : 0;
+    }
+
+    // Find the least-loaded doctor of a specialization who passes the filter
+    // (e.g., available and working today), or null if there is none.
+    // Ties go to the lower doctor ID.
+    synchronized Doctor leastLoaded(String specialization, LocalDate today,
+            Predicate<Doctor> eligible) {
+        if (!today.equals(heapDate)) {
+            rekey(today);
+        }
+        LoadHeap heap = heaps.get(normalize(specialization));
+        if (heap == null) {
+            return null;
+        }
+
+        // Usually the top doctor is eligible; otherwise set aside the ineligible ones
+        List<int[]> skipped = new ArrayList<>();
+        Doctor found = null;
+        while (!heap.isEmpty()) {
+            int doctorId = heap.peekId();
+            Doctor doctor = doctors.get(doctorId);
+            if (eligible.test(doctor)) {
+                found = doctor;
+                break;
+            }
+            skipped.add(new int[] { doctorId, heap.peekLoad() });
+            heap.remove(doctorId);
+        }
+        for (int[] entry : skipped) {
+            heap.add(entry[0], entry[1]);
+        }
+        return found;
+    }
+
+    // Re-key every heap with the loads of a new day.
+    private void rekey(LocalDate today) {
+        heapDate = today;
+        for (Map.Entry<Integer, String> entry : filedUnder.entrySet()) {
+            heaps.get(entry.getValue()).update(entry.getKey(), load(entry.getKey(), today));
+        }
+    }
+
+    private static String normalize(String specialization) {
+        return specialization != null ? specialization.trim().toLowerCase() : "";
+    }
+
+    // Indexed binary min-heap of doctor IDs by load (ties by lower ID).
+    private static class LoadHeap {
+        private int[] ids = new int[8];
+        private int[] loads = new int[8];
+        private int size;
+        private final Map<Integer, Integer> slots = new HashMap<>();
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peekId() {
+            return ids[0];
+        }
+
+        int peekLoad() {
+            return loads[0];
+        }
+
+        void add(int id, int load) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                loads = Arrays.copyOf(loads, size * 2);
+            }
+            ids[size] = id;
+            loads[size] = load;
+            slots.put(id, size);
+            siftUp(size++);
+        }
+
+        void update(int id, int load) {
+            Integer slot = slots.get(id);
+            if (slot == null) {
+                return;
+            }
+            loads[slot] = load;
+            siftUp(slot);
+            siftDown(slots.get(id));
+        }
+
+        void remove(int id) {
+            Integer slot = slots.remove(id);
+            if (slot == null) {
+                return;
+            }
+            int last = --size;
+            if (slot != last) {
+                int moved = ids[last];
+                ids[slot] = moved;
+                loads[slot] = loads[last];
+                slots.put(moved, slot);
+                siftUp(slot);
+                siftDown(slots.get(moved));
+            }
+        }
+
+        private boolean less(int a, int b) {
+            return loads[a] < loads[b] || (loads[a] == loads[b] && ids[a] < ids[b]);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (!less(slot, parent)) {
+                    break;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int left = 2 * slot + 1;
+                if (left >= size) {
+                    break;
+                }
+                int child = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+                if (!less(child, slot)) {
+                    break;
+                }
+                swap(slot, child);
+                slot = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            int load = loads[a];
+            ids[a] = ids[b];
+            loads[a] = loads[b];
+            ids[b] = id;
+            loads[b] = load;
+            slots.put(ids[a], a);
+            slots.put(ids[b], b);
+        }
+    }
+}
@@ -1,19 +1,55 @@
 package clinicapp.service;
 
 import clinicapp.model.Doctor;
+import clinicapp.model.DoctorSchedule;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DoctorManager {
 
     // Initialize Hashmap for doctors
     private final Map<Integer, Doctor> doctors;
 
+    // Trigram indexes for substring search by name and by specialization
+    private final TrigramIndex nameIndex;
+    private final TrigramIndex specializationIndex;
+
+    // Listeners told about every added, updated or deleted doctor
+    private final ChangeEventBus<Doctor> events;
+
+    // Call counts and latencies per operation
+    private final OperationStats stats = new OperationStats("DoctorManager");
+    private final OperationStats.Op addStats = stats.register("addDoctor");
+    private final OperationStats.Op updateStats = stats.register("updateDoctor");
+    private final OperationStats.Op deleteStats = stats.register("deleteDoctor");
+    private final OperationStats.Op availableStats = stats.register("getAvailableDoctors");
+    private final OperationStats.Op searchByNameStats = stats.register("searchDoctorByName");
+    private final OperationStats.Op searchBySpecializationStats = stats.register("searchDoctorBySpecialization");
+
     // Constructor
     public DoctorManager() {
-        this.doctors = new HashMap<>();
+        // Concurrent so bookings on other threads can read the roster safely
+        this.doctors = new ConcurrentHashMap<>();
+        this.nameIndex = new TrigramIndex();
+        this.specializationIndex = new TrigramIndex();
+        this.events = new ChangeEventBus<>();
+    }
+
+    // Call counts and latencies of this manager's operations.
+    public OperationStats getOperationStats() {
+        return stats;
+    }
+
+    // Register a listener for doctor changes.
+    public void addChangeListener(ChangeEventListener<Doctor> listener) {
+        events.addListener(listener);
+    }
+
+    public void removeChangeListener(ChangeEventListener<Doctor> listener) {
+        events.removeListener(listener);
     }
 
     // Methods
@@ -21,8 +57,14 @@ public class DoctorManager {
     // Add a Doctor with these credentials
     public Doctor addDoctor(String name, String specialization, String phoneNumber, String email,
             List<String> availableDays, String startTime, String endTime) {
+        OperationEvent call = addStats.begin();
         Doctor doctor = new Doctor(name, specialization, phoneNumber, email, availableDays, startTime, endTime);
+        compileSchedule(doctor);
         doctors.put(doctor.getId(), doctor);
+        nameIndex.put(doctor.getId(), name);
+        specializationIndex.put(doctor.getId(), specialization);
+        events.publish(ChangeEvent.Type.CREATED, doctor);
+        addStats.end(call, true);
         return doctor;
     }
 
@@ -38,6 +80,7 @@ public class DoctorManager {
 
     // Grabs all available doctors
     public List<Doctor> getAvailableDoctors() {
+        OperationEvent call = availableStats.begin();
         List<Doctor> available = new ArrayList<>();
         for(Doctor doctor : doctors.values()) {
             if (doctor.isAvailable()) {
@@ -45,67 +88,119 @@ public class DoctorManager {
             }
         }
 
+        availableStats.end(call, true, doctors.size(), available.size());
         return available;
     }
 
-    // Search for a doctor by name (with Partial search)
+    // Search for a doctor by name (with Partial search), ordered by ID
     public List<Doctor> searchDoctorByName(String name) {
-        List<Doctor> results = new ArrayList<>();
-        String searchTerm = name.toLowerCase();
-
-        for(Doctor doctor : doctors.values()) {
-            if (doctor.getName().toLowerCase().contains(searchTerm)) {
-                results.add(doctor);
-            }
-        }
-
+        OperationEvent call = searchByNameStats.begin();
+        TrigramIndex.Hits hits = nameIndex.search(name);
+        List<Doctor> results = toDoctors(hits);
+        searchByNameStats.end(call, true, hits.candidates, results.size());
         return results;
     }
 
-    // Search for a doctor by specialization (with Partial search)
+    // Search for a doctor by specialization (with Partial search), ordered by ID
     public List<Doctor> searchDoctorBySpecialization(String specialization) {
-        List<Doctor> results = new ArrayList<>();
-        String searchTerm = specialization.toLowerCase();
+        OperationEvent call = searchBySpecializationStats.begin();
+        TrigramIndex.Hits hits = specializationIndex.search(specialization);
+        List<Doctor> results = toDoctors(hits);
+        searchBySpecializationStats.end(call, true, hits.candidates, results.size());
+        return results;
+    }
 
-        for (Doctor doctor : doctors.values()) {
-            if (doctor.getSpecialization().toLowerCase().contains(searchTerm)) {
+    // Look up the doctors of a search, skipping any deleted since
+    private List<Doctor> toDoctors(TrigramIndex.Hits hits) {
+        List<Doctor> results = new ArrayList<>(hits.ids.length);
+        for (int id : hits.ids) {
+            Doctor doctor = doctors.get(id);
+            if (doctor != null) {
                 results.add(doctor);
             }
         }
-
         return results;
     }
 
     // Update a doctor with the associated ID
     public Boolean updateDoctor(int id, String name, String specialization, String phoneNumber, String email,
             List<String> availableDays, String startTime, String endTime) {
+        OperationEvent call = updateStats.begin();
         Doctor doctor = doctors.get(id);
         if (doctor == null) {
+            updateStats.end(call, false);
             return false;
         }
 
-        if (name != null) doctor.setName(name);
-        if (specialization != null) doctor.setSpecialization(specialization);
+        if (name != null) {
+            doctor.setName(name);
+            nameIndex.put(id, name);
+        }
+        if (specialization != null) {
+            doctor.setSpecialization(specialization);
+            specializationIndex.put(id, specialization);
+        }
         if (phoneNumber != null) doctor.setPhoneNumber(phoneNumber);
         if (email!= null) doctor.setEmail(email);
         if (availableDays != null) doctor.setAvailableDays(availableDays);
         if (startTime != null) doctor.setStartTime(startTime);
         if (endTime != null) doctor.setEndTime(endTime);
-        
+        if (availableDays != null || startTime != null || endTime != null) compileSchedule(doctor);
+
+        events.publish(ChangeEvent.Type.UPDATED, doctor);
+        updateStats.end(call, true);
         return true;
     }
 
 
 
+    // Compile the doctor's day names and time strings once, so availability
+    // checks during booking need no parsing
+    private void compileSchedule(Doctor doctor) {
+        doctor.setSchedule(DoctorSchedule.compile(doctor.getAvailableDays(), doctor.getStartTime(), doctor.getEndTime()));
+    }
+
     // Delete a doctor with the associated ID
     public Boolean deleteDoctor(int id) {
-        return doctors.remove(id) != null;
+        OperationEvent call = deleteStats.begin();
+        Doctor removed = doctors.remove(id);
+        if (removed == null) {
+            deleteStats.end(call, false);
+            return false;
+        }
+        nameIndex.remove(id);
+        specializationIndex.remove(id);
+        events.publish(ChangeEvent.Type.DELETED, removed);
+        deleteStats.end(call, true);
+        return true;
     }
 
     // Get the number of doctors in the Hashmap
     public int getDoctorCount() {
         return doctors.size();
     }
+
+    // Entries per lookup index
+    public Map<String, Integer> getIndexSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("doctors", doctors.size());
+        sizes.put("nameTrigrams", nameIndex.gramCount());
+        sizes.put("namePostings", (int) Math.min(Integer.MAX_VALUE, nameIndex.postingCount()));
+        sizes.put("specializationTrigrams", specializationIndex.gramCount());
+        sizes.put("specializationPostings", (int) Math.min(Integer.MAX_VALUE, specializationIndex.postingCount()));
+        return sizes;
+    }
+
+    // Get the number of doctors currently available
+    public int getAvailableDoctorCount() {
+        int count = 0;
+        for (Doctor doctor : doctors.values()) {
+            if (doctor.isAvailable()) {
+                count++;
+            }
+        }
+        return count;
+    }
     
     // Check if a doctor exists with the associated ID
     public Boolean doctorExists(int id) {
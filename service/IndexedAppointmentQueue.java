@@ -0,0 +1,134 @@
+package clinicapp.service;
+
+import clinicapp.model.Appointment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// FIFO queue of appointments keyed by appointment ID.
+// Contains is an O(1) hash lookup. Offer, poll and remove are O(log n): besides
+// the hash operations, each updates a Fenwick tree over arrival numbers. That
+// tree answers the position of a waiting appointment in O(log n), so callers
+// never copy the queue just to find one entry.
+// All methods are synchronized so the queue can be shared between threads.
+class IndexedAppointmentQueue {
+
+    // Waiting appointments in arrival order
+    private final LinkedHashMap<Integer, Appointment> entries;
+
+    // Appointment ID -> arrival number (index into the Fenwick tree)
+    private final Map<Integer, Integer> arrivals;
+
+    // Fenwick tree: prefix sums count how many arrivals up to an index are still waiting
+    private int[] tree;
+
+    // Arrival number for the next offer
+    private int nextArrival;
+
+    IndexedAppointmentQueue() {
+        this.entries = new LinkedHashMap<>();
+        this.arrivals = new HashMap<>();
+        this.tree = new int[64];
+        this.nextArrival = 0;
+    }
+
+    // Add an appointment at the back of the queue. Returns false if it is already waiting.
+    synchronized boolean offer(Appointment appointment) {
+        if (entries.containsKey(appointment.getId())) {
+            return false;
+        }
+        if (nextArrival >= tree.length - 1) {
+            compact();
+        }
+
+        int arrival = nextArrival++;
+        entries.put(appointment.getId(), appointment);
+        arrivals.put(appointment.getId(), arrival);
+        update(arrival, 1);
+        return true;
+    }
+
+    // Remove and return the appointment at the front of the queue, or null if empty.
+    synchronized Appointment poll() {
+        Iterator<Appointment> iterator = entries.values().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Appointment first = iterator.next();
+        remove(first.getId());
+        return first;
+    }
+
+    // Remove an appointment wherever it waits. Returns false if it was not queued.
+    synchronized boolean remove(Appointment appointment) {
+        return remove(appointment.getId());
+    }
+
+    synchronized boolean remove(int appointmentId) {
+        if (entries.remove(appointmentId) == null) {
+            return false;
+        }
+        update(arrivals.remove(appointmentId), -1);
+        return true;
+    }
+
+    synchronized boolean contains(Appointment appointment) {
+        return entries.containsKey(appointment.getId());
+    }
+
+    // Get the 1-based position of a waiting appointment, or -1 if it is not queued.
+    synchronized int position(int appointmentId) {
+        Integer arrival = arrivals.get(appointmentId);
+        return arrival != null ? prefixSum(arrival) : -1;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    // Snapshot of the waiting appointments in queue order.
+    synchronized List<Appointment> toList() {
+        return new ArrayList<>(entries.values());
+    }
+
+    // Renumber the waiting appointments from zero and rebuild the tree,
+    // growing it when the queue itself is large. Each live entry is re-added
+    // with an O(log n) update, which is amortized O(log n) per offer.
+    private void compact() {
+        int capacity = tree.length;
+        while (entries.size() * 2 >= capacity - 1) {
+            capacity *= 2;
+        }
+        tree = new int[capacity];
+        nextArrival = 0;
+        for (Integer id : entries.keySet()) {
+            int arrival = nextArrival++;
+            arrivals.put(id, arrival);
+            update(arrival, 1);
+        }
+    }
+
+    // Fenwick tree update (tree is 1-indexed internally).
+    private void update(int arrival, int delta) {
+        for (int i = arrival + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Number of waiting appointments with arrival number <= arrival.
+    private int prefixSum(int arrival) {
+        int sum = 0;
+        for (int i = arrival + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,40 @@
+package clinicapp.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder event for one timed manager operation (see OperationStats).
+// Scanned is how many stored items the operation looked at, Results how many it
+// returned or changed, so a slow call can be told apart as a big scan, a big
+// copy or time spent waiting. Costs next to nothing unless a recording enables
+// clinicapp.ServiceOperation (see monitoring/clinic.jfc).
+@Name("clinicapp.ServiceOperation")
+@Label("Service Operation")
+@Category({ "Clinic App", "Service" })
+@Description("A call into PatientManager, DoctorManager or AppointmentManager")
+@StackTrace(false)
+class OperationEvent extends Event {
+    @Label("Component")
+    String component;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Scanned")
+    @Description("Stored items the operation looked at")
+    long scanned;
+
+    @Label("Results")
+    @Description("Items returned or changed")
+    long results;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    // System.nanoTime at begin, for OperationStats; not recorded
+    transient long startNanos;
+}
@@ -0,0 +1,141 @@
+package clinicapp.service;
+
+import clinicapp.util.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Call counts, failures and latency distribution for each public operation of
+// a manager, cheap enough to stay on permanently. Counters are LongAdders, and
+// latencies go into one of a few Histograms chosen by the calling thread, so
+// concurrent callers rarely write the same memory. Reads merge the stripes and
+// are approximate while calls are running. Read through JMX (see
+// clinicapp.monitoring.ClinicMBeans) or directly.
+//
+// Each call is also a Flight Recorder event (OperationEvent) carrying how much
+// data it scanned and returned; it is only committed while a recording has the
+// event enabled.
+public final class OperationStats {
+
+    // Power of two, at most 8, so stripe selection is a mask
+    private static final int STRIPES = Integer.highestOneBit(
+            Math.min(8, Math.max(1, Runtime.getRuntime().availableProcessors())));
+
+    // Name of the manager, as reported in Flight Recorder events
+    private final String component;
+
+    // Registered while the manager is constructed; read afterwards
+    private final Map<String, Op> operations = new LinkedHashMap<>();
+
+    public OperationStats(String component) {
+        this.component = component;
+    }
+
+    // Get the counters of an operation, creating them on first use.
+    public synchronized Op register(String name) {
+        return operations.computeIfAbsent(name, n -> new Op(component, n));
+    }
+
+    // Every registered operation, in registration order.
+    public synchronized List<Op> getOperations() {
+        return new ArrayList<>(operations.values());
+    }
+
+    // Zero every operation's counters and latencies.
+    public void reset() {
+        for (Op op : getOperations()) {
+            op.reset();
+        }
+    }
+
+    // Counters for one operation.
+    public static final class Op {
+        private final String component;
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final Histogram[] latencies = new Histogram[STRIPES];
+
+        private Op(String component, String name) {
+            this.component = component;
+            this.name = name;
+            for (int i = 0; i < STRIPES; i++) {
+                latencies[i] = new Histogram();
+            }
+        }
+
+        // Start timing a call.
+        OperationEvent begin() {
+            OperationEvent event = new OperationEvent();
+            event.startNanos = System.nanoTime();
+            event.begin();
+            return event;
+        }
+
+        // Finish a call that returned or changed one item, or none if it failed.
+        void end(OperationEvent event, boolean succeeded) {
+            end(event, succeeded, succeeded ? 1 : 0, succeeded ? 1 : 0);
+        }
+
+        // Finish a call. succeeded = false for calls that were rejected or found
+        // nothing to change; scanned and results feed the Flight Recorder event.
+        void end(OperationEvent event, boolean succeeded, long scanned, long results) {
+            long elapsed = System.nanoTime() - event.startNanos;
+            calls.increment();
+            totalNanos.add(elapsed);
+            if (!succeeded) {
+                failures.increment();
+            }
+            latencies[(int) Thread.currentThread().getId() & (STRIPES - 1)].record(elapsed);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.component = component;
+                event.operation = name;
+                event.succeeded = succeeded;
+                event.scanned = scanned;
+                event.results = results;
+                event.commit();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public double getMeanNanos() {
+            long n = calls.sum();
+            return n > 0 ? (double) totalNanos.sum() / n : 0;
+        }
+
+        // Latencies in nanoseconds of every recorded call, merged into a new Histogram.
+        public Histogram getLatencies() {
+            Histogram merged = new Histogram();
+            for (Histogram stripe : latencies) {
+                merged.add(stripe);
+            }
+            return merged;
+        }
+
+        public void reset() {
+            calls.reset();
+            failures.reset();
+            totalNanos.reset();
+            for (Histogram stripe : latencies) {
+                stripe.reset();
+            }
+        }
+    }
+}
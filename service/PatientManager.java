@@ -3,9 +3,27 @@ package clinicapp.service;
 import clinicapp.model.Patient;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 
 public class PatientManager {
 
@@ -14,15 +32,96 @@ public class PatientManager {
     // Map then to Hashmap for verstaility
     private final Map<Integer, Patient> patients;
 
+    // Highest patient ID ever added, so a query walking IDs in order knows where to stop
+    private final AtomicInteger highestId = new AtomicInteger();
+
+    // Trigram index over patient names, for substring search without a full scan
+    private final TrigramIndex nameIndex;
+
+    // Phone digits -> IDs, used to weight fuzzy search results
+    private final Map<String, Set<Integer>> patientsByPhone;
+
+    // Date of birth (epoch day) -> patients, ordered so age ranges and birthdays
+    // are range walks. The patients themselves are stored so a walk needs no
+    // lookups by ID. Keys are never removed (there are only so many dates), which
+    // lets adds and removes change the sets without coordinating over keys.
+    private final NavigableMap<Long, Set<Patient>> patientsByBirthDate;
+
+    // Trigram index over allergies, and one bitmap per gender and per blood type,
+    // for combined queries (see PatientQueryEngine)
+    private final TrigramIndex allergyIndex;
+    private final BitmapIndex genderIndex;
+    private final BitmapIndex bloodTypeIndex;
+    private final PatientQueryEngine queryEngine;
+
+    // Matches streamPatients finds per step
+    private static final int STREAM_BATCH = 256;
+
+    // Added to a fuzzy match's name similarity (at most 1) when the phone number
+    // or date of birth given with the search matches exactly. A phone number
+    // nearly identifies a patient, so it outweighs any difference in spelling.
+    private static final double PHONE_MATCH_WEIGHT = 1.0;
+    private static final double BIRTH_DATE_MATCH_WEIGHT = 0.5;
+
+    // Listeners told about every added, updated or deleted patient
+    private final ChangeEventBus<Patient> events;
+
+    // Call counts and latencies per operation
+    private final OperationStats stats = new OperationStats("PatientManager");
+    private final OperationStats.Op addStats = stats.register("addPatient");
+    private final OperationStats.Op updateStats = stats.register("updatePatient");
+    private final OperationStats.Op deleteStats = stats.register("deletePatient");
+    private final OperationStats.Op searchByNameStats = stats.register("searchPatientByName");
+    private final OperationStats.Op fuzzyStats = stats.register("searchPatientsFuzzy");
+    private final OperationStats.Op searchByGenderStats = stats.register("searchPatientByGender");
+    private final OperationStats.Op byAgeStats = stats.register("getPatientsByAge");
+    private final OperationStats.Op birthdayStats = stats.register("getPatientsWithBirthdayBetween");
+    private final OperationStats.Op queryStats = stats.register("queryPatients");
+    private final OperationStats.Op allStats = stats.register("getAllPatients");
+
     // Constructor
     public PatientManager() {
-        this.patients = new HashMap<>();
+        // Concurrent so several intake terminals can register patients at once
+        this.patients = new ConcurrentHashMap<>();
+        this.nameIndex = new TrigramIndex();
+        this.patientsByPhone = new ConcurrentHashMap<>();
+        this.patientsByBirthDate = new ConcurrentSkipListMap<>();
+        this.allergyIndex = new TrigramIndex();
+        this.genderIndex = new BitmapIndex();
+        this.bloodTypeIndex = new BitmapIndex();
+        this.queryEngine = new PatientQueryEngine(patients, highestId::get, nameIndex, allergyIndex, genderIndex,
+                bloodTypeIndex, patientsByBirthDate);
+        this.events = new ChangeEventBus<>();
+    }
+
+    // Call counts and latencies of this manager's operations.
+    public OperationStats getOperationStats() {
+        return stats;
+    }
+
+    // Register a listener for patient changes.
+    public void addChangeListener(ChangeEventListener<Patient> listener) {
+        events.addListener(listener);
+    }
+
+    public void removeChangeListener(ChangeEventListener<Patient> listener) {
+        events.removeListener(listener);
     }
 
     // Methods
     public Patient addPatient(String name, LocalDate dateOfBirth, String gender, String phoneNumber, String email, String address,String bloodType, String allergies) {
+        OperationEvent call = addStats.begin();
         Patient patient = new Patient(name, dateOfBirth, gender, phoneNumber, email, address, bloodType, allergies);
         patients.put(patient.getId(), patient);
+        highestId.accumulateAndGet(patient.getId(), Math::max);
+        nameIndex.put(patient.getId(), name);
+        addTo(patientsByPhone, digits(phoneNumber), patient.getId());
+        addBirthDate(patient);
+        genderIndex.put(patient.getId(), gender);
+        bloodTypeIndex.put(patient.getId(), bloodType);
+        allergyIndex.put(patient.getId(), allergies);
+        events.publish(ChangeEvent.Type.CREATED, patient);
+        addStats.end(call, true);
         return patient;
     }
     
@@ -32,48 +131,274 @@ public class PatientManager {
 
     // .values() spits out every value it has
     public List<Patient> getAllPatients() {
-        return new ArrayList<>(patients.values());
+        OperationEvent call = allStats.begin();
+        List<Patient> all = new ArrayList<>(patients.values());
+        allStats.end(call, true, all.size(), all.size());
+        return all;
     }
 
-    // Inputs name, checks if it contains that name. Compiles and returns the result.
+    // Inputs name, finds every patient whose name contains it (ignoring case), ordered by ID.
     public List<Patient> searchPatientByName(String name) {
-        List<Patient> results = new ArrayList<>();
-        String searchTerm = name.toLowerCase();
-
-        // reusing "patient" here as "i"
-        for (Patient patient : patients.values()) {
-            if (patient.getName().toLowerCase().contains(searchTerm)) {
+        OperationEvent call = searchByNameStats.begin();
+        TrigramIndex.Hits hits = nameIndex.search(name);
+        List<Patient> results = new ArrayList<>(hits.ids.length);
+        for (int id : hits.ids) {
+            Patient patient = patients.get(id);
+            // Skip a patient deleted since the search
+            if (patient != null) {
                 results.add(patient);
             }
         }
 
+        searchByNameStats.end(call, true, hits.candidates, results.size());
+        return results;
+    }
+
+    /**
+     * Find the patients whose names best resemble a possibly misspelled name,
+     * e.g. "Jon Doe" finds John Doe and "Smyth" finds the Smiths.
+     * Each word of the name is matched to the words of patient names within a
+     * letter or two of it (see TrigramIndex.searchSimilar), so only patients
+     * with a close word are scored, never every patient.
+     * A patient's score is its name similarity (0 to 1), plus PHONE_MATCH_WEIGHT
+     * when its phone number has the given digits and BIRTH_DATE_MATCH_WEIGHT when
+     * its date of birth is the given one. A patient with the given phone number is
+     * returned even when the name was too far off.
+     *
+     * @param name        Name as typed, words in any order
+     * @param phoneNumber Phone number to weight (compared by digits only), or null
+     * @param dateOfBirth Date of birth to weight, or null
+     * @param limit       Maximum number of matches to return
+     * @return Up to limit matches, highest score first, then by ID
+     */
+    public List<PatientMatch> searchPatientsFuzzy(String name, String phoneNumber, LocalDate dateOfBirth, int limit) {
+        OperationEvent call = fuzzyStats.begin();
+        int[] phoneIds = sortedIds(patientsByPhone, digits(phoneNumber));
+        int[] birthDateIds = bornOn(dateOfBirth);
+        boolean[] phoneSeen = new boolean[phoneIds.length];
+
+        // Worst kept match on top, so it is the one replaced
+        Comparator<PatientMatch> ranking = PatientMatch.RANKING;
+        PriorityQueue<PatientMatch> best = new PriorityQueue<>(Math.max(1, limit), ranking.reversed());
+
+        // Similar names arrive in ascending ID order, so the few phone and birth
+        // date matches are found by walking their sorted IDs alongside
+        int[] phoneAt = { 0 };
+        int[] birthDateAt = { 0 };
+        int merged = nameIndex.searchSimilar(name, (id, similarity) -> {
+            double score = similarity;
+            if (advance(phoneIds, phoneAt, id)) {
+                phoneSeen[phoneAt[0]] = true;
+                score += PHONE_MATCH_WEIGHT;
+            }
+            if (advance(birthDateIds, birthDateAt, id)) {
+                score += BIRTH_DATE_MATCH_WEIGHT;
+            }
+            offer(best, limit, id, score);
+        });
+        for (int k = 0; k < phoneIds.length; k++) {
+            if (!phoneSeen[k]) {
+                boolean bornThatDay = Arrays.binarySearch(birthDateIds, phoneIds[k]) >= 0;
+                offer(best, limit, phoneIds[k], PHONE_MATCH_WEIGHT + (bornThatDay ? BIRTH_DATE_MATCH_WEIGHT : 0));
+            }
+        }
+
+        List<PatientMatch> results = new ArrayList<>(best.size());
+        for (PatientMatch match : best) {
+            Patient patient = patients.get(match.patientId);
+            // Skip a patient deleted since the search
+            if (patient != null) {
+                results.add(new PatientMatch(patient, match.score));
+            }
+        }
+        results.sort(ranking);
+
+        fuzzyStats.end(call, true, merged, results.size());
         return results;
     }
 
+    // Fuzzy search by name alone.
+    public List<Patient> searchPatientsFuzzy(String name, int limit) {
+        List<Patient> results = new ArrayList<>();
+        for (PatientMatch match : searchPatientsFuzzy(name, null, null, limit)) {
+            results.add(match.getPatient());
+        }
+        return results;
+    }
+
+    // Keep a candidate if there is room or it ranks above the worst kept one.
+    // The patient itself is only looked up for the final matches.
+    private static void offer(PriorityQueue<PatientMatch> best, int limit, int id, double score) {
+        if (limit <= 0) {
+            return;
+        }
+        if (best.size() < limit) {
+            best.add(new PatientMatch(id, score));
+            return;
+        }
+        PatientMatch worst = best.peek();
+        if (score > worst.score || (score == worst.score && id < worst.patientId)) {
+            best.poll();
+            best.add(new PatientMatch(id, score));
+        }
+    }
+
+    // Move a cursor over sorted IDs up to id; true if id is there.
+    private static boolean advance(int[] ids, int[] cursor, int id) {
+        int at = cursor[0];
+        while (at < ids.length && ids[at] < id) {
+            at++;
+        }
+        cursor[0] = at;
+        return at < ids.length && ids[at] == id;
+    }
+
+    // One page of queryPatients results.
+    public static class PatientPage {
+        private final List<Patient> patients;
+        private final int lastId;
+        private final boolean hasMore;
+        private final long estimatedTotal;
+        private final String plan;
+
+        public PatientPage(List<Patient> patients, int lastId, boolean hasMore, long estimatedTotal, String plan) {
+            this.patients = patients;
+            this.lastId = lastId;
+            this.hasMore = hasMore;
+            this.estimatedTotal = estimatedTotal;
+            this.plan = plan;
+        }
+
+        public List<Patient> getPatients() {
+            return patients;
+        }
+
+        // ID to pass as afterId for the next page
+        public int getLastId() {
+            return lastId;
+        }
+
+        public boolean hasMore() {
+            return hasMore;
+        }
+
+        // Upper bound on the patients matching the query across all pages: the
+        // count of its most selective criterion. Counting exactly would mean
+        // evaluating the whole query for every page.
+        public long getEstimatedTotal() {
+            return estimatedTotal;
+        }
+
+        // Order the criteria are applied in
+        public String getPlan() {
+            return plan;
+        }
+
+        @Override
+        public String toString() {
+            return "PatientPage[" + patients.size() + " of at most " + estimatedTotal + ", lastId=" + lastId + ", hasMore=" + hasMore + "]";
+        }
+    }
+
+    // A patient found by fuzzy search, with its score.
+    public static class PatientMatch {
+        // Highest score first, then lowest ID
+        static final Comparator<PatientMatch> RANKING = Comparator
+                .comparingDouble((PatientMatch match) -> -match.score)
+                .thenComparingInt(match -> match.patientId);
+
+        private final int patientId;
+        private final Patient patient;
+        private final double score;
+
+        // Candidate kept while ranking, before the patient is looked up
+        private PatientMatch(int patientId, double score) {
+            this.patientId = patientId;
+            this.patient = null;
+            this.score = score;
+        }
+
+        public PatientMatch(Patient patient, double score) {
+            this.patientId = patient.getId();
+            this.patient = patient;
+            this.score = score;
+        }
+
+        public Patient getPatient() {
+            return patient;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return patient.getName() + " (" + String.format("%.2f", score) + ")";
+        }
+    }
+
     // Inputs new Patient Details, checks if it exists, if it does then overwrite every details.
     public Boolean updatePatient(int id, String name, LocalDate dateOfBirth, String gender, String phoneNumber, String email, String address,String bloodType, String allergies) {
-
+        OperationEvent call = updateStats.begin();
         Patient patient =  patients.get(id);
         if (patient == null) {
             System.out.println("Patient does not exist");
+            updateStats.end(call, false);
             return false;
         }
 
-        if (name != null) patient.setName(name);
-        if (dateOfBirth != null) patient.setDateOfBirth(dateOfBirth);
-        if (gender != null) patient.setGender(gender);
-        if (phoneNumber != null) patient.setPhoneNumber(phoneNumber);
+        if (name != null) {
+            patient.setName(name);
+            nameIndex.put(id, name);
+        }
+        if (dateOfBirth != null) {
+            removeBirthDate(patient);
+            patient.setDateOfBirth(dateOfBirth);
+            addBirthDate(patient);
+        }
+        if (gender != null) {
+            patient.setGender(gender);
+            genderIndex.put(id, gender);
+        }
+        if (phoneNumber != null) {
+            removeFrom(patientsByPhone, digits(patient.getPhoneNumber()), id);
+            patient.setPhoneNumber(phoneNumber);
+            addTo(patientsByPhone, digits(phoneNumber), id);
+        }
         if (email != null) patient.setEmail(email);
         if (address != null) patient.setAddress(address);
-        if (bloodType != null) patient.setBloodType(bloodType);
-        if (allergies != null) patient.setAllergies(allergies);
-        
+        if (bloodType != null) {
+            patient.setBloodType(bloodType);
+            bloodTypeIndex.put(id, bloodType);
+        }
+        if (allergies != null) {
+            patient.setAllergies(allergies);
+            allergyIndex.put(id, allergies);
+        }
+
+        events.publish(ChangeEvent.Type.UPDATED, patient);
+        updateStats.end(call, true);
         return true;
     }
 
     // Removes then check if it exists
     public Boolean deletePatient(int id) {
-        return patients.remove(id) != null;
+        OperationEvent call = deleteStats.begin();
+        Patient removed = patients.remove(id);
+        if (removed == null) {
+            deleteStats.end(call, false);
+            return false;
+        }
+        nameIndex.remove(id);
+        removeFrom(patientsByPhone, digits(removed.getPhoneNumber()), id);
+        removeBirthDate(removed);
+        genderIndex.remove(id);
+        bloodTypeIndex.remove(id);
+        allergyIndex.remove(id);
+        events.publish(ChangeEvent.Type.DELETED, removed);
+        deleteStats.end(call, true);
+        return true;
     }
 
     // Gets the size
@@ -81,38 +406,303 @@ public class PatientManager {
         return patients.size();
     }
 
+    // Entries per lookup index
+    public Map<String, Integer> getIndexSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("patients", patients.size());
+        sizes.put("nameTrigrams", nameIndex.gramCount());
+        sizes.put("namePostings", (int) Math.min(Integer.MAX_VALUE, nameIndex.postingCount()));
+        sizes.put("nameWords", nameIndex.wordCount());
+        sizes.put("phoneNumbers", patientsByPhone.size());
+        sizes.put("birthDates", patientsByBirthDate.size());
+        sizes.put("genders", genderIndex.counts().size());
+        sizes.put("bloodTypes", bloodTypeIndex.counts().size());
+        sizes.put("allergyTrigrams", allergyIndex.gramCount());
+        return sizes;
+    }
+
     // Checks if the id has a patient
     public Boolean patientExists(int id) {
         return patients.containsKey(id);
     }
 
-    // Checks gender in every Patient, returns the patient if it matches.
+    // Digits of a phone number, or null if it has none
+    private static String digits(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            if (Character.isDigit(phoneNumber.charAt(i))) {
+                digits.append(phoneNumber.charAt(i));
+            }
+        }
+        return digits.length() > 0 ? digits.toString() : null;
+    }
+
+    // Add an ID under a key of an exact-match index (null keys are not indexed).
+    // The ID sets are only changed inside compute(), so a key is never dropped
+    // while another thread is adding to its set.
+    private static <K> void addTo(Map<K, Set<Integer>> index, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Integer>> index, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // Index a patient under its current date of birth.
+    private void addBirthDate(Patient patient) {
+        if (patient.getDateOfBirth() != null) {
+            patientsByBirthDate.computeIfAbsent(patient.getDateOfBirth().toEpochDay(),
+                    day -> ConcurrentHashMap.newKeySet()).add(patient);
+        }
+    }
+
+    // Must be called BEFORE the date of birth changes, since it locates the entry.
+    private void removeBirthDate(Patient patient) {
+        Set<Patient> born = patient.getDateOfBirth() != null
+                ? patientsByBirthDate.get(patient.getDateOfBirth().toEpochDay()) : null;
+        if (born != null) {
+            born.remove(patient);
+        }
+    }
+
+    // IDs of the patients born on a date (none for null), sorted for binary search.
+    private int[] bornOn(LocalDate dateOfBirth) {
+        Set<Patient> born = dateOfBirth != null ? patientsByBirthDate.get(dateOfBirth.toEpochDay()) : null;
+        if (born == null) {
+            return new int[0];
+        }
+        int[] ids = born.stream().mapToInt(Patient::getId).toArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    // IDs under a key of an exact-match index, sorted for binary search.
+    private static <K> int[] sortedIds(Map<K, Set<Integer>> index, K key) {
+        Set<Integer> ids = key != null ? index.get(key) : null;
+        if (ids == null) {
+            return new int[0];
+        }
+        int[] sorted = ids.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Finds every patient whose gender contains the text (ignoring case), ordered by ID.
     public List<Patient> searchPatientByGender(String gender) {
-        List<Patient> results = new ArrayList<>();
-        String searchGender = gender.toLowerCase();
+        OperationEvent call = searchByGenderStats.begin();
+        // Union of the bitmaps of every gender containing the text
+        List<Patient> results = toPatients(genderIndex.containing(gender));
+        searchByGenderStats.end(call, true, results.size(), results.size());
+        return results;
+    }
+
+    /**
+     * Get one page of the patients matching every criterion of a query, in
+     * ascending ID order. Pages are keyed by the last ID of the previous page
+     * rather than an offset, so patients added or deleted between pages do not
+     * shift the others. Each page only walks the IDs after afterId until it is
+     * full: the most selective criterion lists its candidates in ID order and
+     * the others narrow them (see PatientQueryEngine), so a page costs about
+     * the IDs it covers rather than the whole result set.
+     *
+     * @param query    Criteria to match
+     * @param afterId  Last ID of the previous page; 0 for the first page
+     * @param pageSize Most patients to return
+     * @return The page, with its last ID to pass for the next one
+     */
+    public PatientPage queryPatients(PatientQuery query, int afterId, int pageSize) {
+        OperationEvent call = queryStats.begin();
+        int size = Math.max(pageSize, 0);
+        PatientQueryEngine.Plan plan = queryEngine.plan(query, size + 1);
+
+        // One more than asked for tells whether there is a next page
+        List<Patient> page = new ArrayList<>(Math.min(size, 1024) + 1);
+        long scanned = plan.next(afterId, size + 1, page);
+        boolean hasMore = page.size() > size;
+        if (hasMore) {
+            page.remove(size);
+        }
+        int lastId = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+
+        queryStats.end(call, true, scanned, page.size());
+        return new PatientPage(page, lastId, hasMore, plan.estimate(), plan.toString());
+    }
 
-        // reusing "patient" here as "i"
-        for (Patient patient : patients.values()) {
-            if (patient.getGender().toLowerCase().contains(searchGender)) {
+    // Every patient matching a query, in ascending ID order. The query is planned
+    // once; matches are then found a batch at a time as the stream is consumed.
+    public Stream<Patient> streamPatients(PatientQuery query) {
+        PatientQueryEngine.Plan plan = queryEngine.plan(query, STREAM_BATCH);
+        Iterator<Patient> matches = new Iterator<Patient>() {
+            private final List<Patient> batch = new ArrayList<>(STREAM_BATCH);
+            private int next;
+            private int lastId;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (next == batch.size() && !done) {
+                    OperationEvent call = queryStats.begin();
+                    batch.clear();
+                    next = 0;
+                    long scanned = plan.next(lastId, STREAM_BATCH, batch);
+                    queryStats.end(call, true, scanned, batch.size());
+                    done = batch.size() < STREAM_BATCH;
+                    if (!batch.isEmpty()) {
+                        lastId = batch.get(batch.size() - 1).getId();
+                    }
+                }
+                return next < batch.size();
+            }
+
+            @Override
+            public Patient next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.get(next++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(matches,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    // Patients with the given IDs, ordered by ID.
+    private List<Patient> toPatients(BitSet ids) {
+        List<Patient> results = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            Patient patient = patients.get(id);
+            if (patient != null) {
                 results.add(patient);
             }
         }
-
         return results;
     }
 
-    // Inputs two age values, checks if it's between. Compiles and returns the result.
+    // Inputs two age values, returns the patients whose age is between them (both inclusive), oldest first.
     public List<Patient> getPatientsByAge(int minAge, int maxAge) {
+        return getPatientsByAge(minAge, maxAge, LocalDate.now());
+    }
+
+    /**
+     * Get the patients whose age on a date is within a range, oldest first.
+     * Ages are whole years as in Patient.getAge(); the range is one walk over
+     * the birth date index (see PatientQueryEngine.forEachAgeGroup).
+     *
+     * @param minAge Lowest age, inclusive
+     * @param maxAge Highest age, inclusive
+     * @param asOf   Date the ages are taken on
+     * @return Matching patients ordered by date of birth
+     */
+    public List<Patient> getPatientsByAge(int minAge, int maxAge, LocalDate asOf) {
+        OperationEvent call = byAgeStats.begin();
         List<Patient> results = new ArrayList<>();
+        PatientQueryEngine.forEachAgeGroup(patientsByBirthDate, minAge, maxAge, asOf, results::addAll);
+        byAgeStats.end(call, true, results.size(), results.size());
+        return results;
+    }
 
-        for (Patient patient : patients.values()) {
-            int age = patient.getAge();
+    // Get the patients with a birthday in the current week (Monday to Sunday).
+    public List<Patient> getPatientsWithBirthdayThisWeek() {
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return getPatientsWithBirthdayBetween(monday, monday.plusDays(6));
+    }
 
-            if (age >= minAge && age <= maxAge) {
-                results.add(patient);
+    /**
+     * Get the patients with a birthday between two dates, ordered by birthday
+     * then ID. Someone born on February 29 has their birthday on February 28
+     * in other years, and a birthday only counts from the first one on.
+     * For each birth year, the dates of birth whose birthday lands in the window
+     * form one range of the birth date index, so the cost is one range walk per
+     * birth year plus the patients found.
+     *
+     * @param from First day of the window, inclusive
+     * @param to   Last day of the window, inclusive; less than a year after from
+     * @return Matching patients
+     */
+    public List<Patient> getPatientsWithBirthdayBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || !to.isBefore(from.plusYears(1))) {
+            throw new IllegalArgumentException("Birthday window must be under a year: " + from + " to " + to);
+        }
+        OperationEvent call = birthdayStats.begin();
+        List<Patient> results = new ArrayList<>();
+        if (!patientsByBirthDate.isEmpty()) {
+            // The window covers at most the end of one year and the start of the next
+            LocalDate endOfYear = from.with(TemporalAdjusters.lastDayOfYear());
+            addBirthdays(from, to.isAfter(endOfYear) ? endOfYear : to, results);
+            if (to.isAfter(endOfYear)) {
+                addBirthdays(endOfYear.plusDays(1), to, results);
             }
         }
 
+        birthdayStats.end(call, true, results.size(), results.size());
         return results;
     }
+
+    // Add the patients with a birthday in [first, last], two dates of the same year, ordered by birthday then ID.
+    private void addBirthdays(LocalDate first, LocalDate last, List<Patient> results) {
+        int year = first.getYear();
+        int firstBirthYear = LocalDate.ofEpochDay(patientsByBirthDate.firstKey()).getYear();
+        int lastBirthYear = Math.min(LocalDate.ofEpochDay(patientsByBirthDate.lastKey()).getYear(), year - 1);
+
+        // One bucket per day of the window; everyone under one index key shares a birthday
+        int days = (int) (last.toEpochDay() - first.toEpochDay()) + 1;
+        List<List<Patient>> byDay = new ArrayList<>(Collections.nCopies(days, null));
+        for (int birthYear = firstBirthYear; birthYear <= lastBirthYear; birthYear++) {
+            // Birthdays in a year only move forward with the date of birth, so
+            // the dates of birth that land in the window are one range
+            LocalDate low = first.withYear(birthYear);
+            if (low.withYear(year).isBefore(first)) {
+                // February 29 of the window: February 28 of a common birth year celebrates a day earlier
+                low = low.plusDays(1);
+            }
+            LocalDate high = last.withYear(birthYear);
+            LocalDate next = high.plusDays(1);
+            if (next.getYear() == birthYear && !next.withYear(year).isAfter(last)) {
+                // February 28 of a common year: February 29 of a leap birth year celebrates that day too
+                high = next;
+            }
+            if (low.isAfter(high)) {
+                continue;
+            }
+            for (Map.Entry<Long, Set<Patient>> entry
+                    : patientsByBirthDate.subMap(low.toEpochDay(), true, high.toEpochDay(), true).entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    continue;
+                }
+                LocalDate birthday = LocalDate.ofEpochDay(entry.getKey()).withYear(year);
+                int day = (int) (birthday.toEpochDay() - first.toEpochDay());
+                List<Patient> bucket = byDay.get(day);
+                if (bucket == null) {
+                    bucket = new ArrayList<>();
+                    byDay.set(day, bucket);
+                }
+                bucket.addAll(entry.getValue());
+            }
+        }
+
+        for (List<Patient> born : byDay) {
+            if (born != null) {
+                born.sort(Comparator.comparingInt(Patient::getId));
+                results.addAll(born);
+            }
+        }
+    }
 }
\ No newline at end of file
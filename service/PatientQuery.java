@@ -0,0 +1,86 @@
+package clinicapp.service;
+
+import clinicapp.model.Patient;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Locale;
+
+/**
+ * Combined patient search criteria for PatientManager.queryPatients and
+ * streamPatients. A patient matches when it satisfies every criterion that is
+ * set; null (or blank) criteria are ignored, so an empty query matches everyone.
+ */
+public class PatientQuery {
+    // Name contains this text, ignoring case
+    public String name;
+
+    // Gender equals this, ignoring case and surrounding spaces
+    public String gender;
+
+    // Blood type equals this (e.g. "AB-"), ignoring case and surrounding spaces
+    public String bloodType;
+
+    // Age range in whole years, both inclusive; either bound may be left open
+    public Integer minAge;
+    public Integer maxAge;
+
+    // Allergies contain this text, ignoring case (e.g. "peanut")
+    public String allergy;
+
+    // Date the ages are taken on; null for today
+    public LocalDate asOf;
+
+    // Check one patient against every criterion that is set, the same way
+    // queryPatients matches them through the indexes.
+    public boolean matches(Patient patient) {
+        if (!isBlank(name) && !contains(patient.getName(), name)) {
+            return false;
+        }
+        if (!isBlank(allergy) && !contains(patient.getAllergies(), allergy)) {
+            return false;
+        }
+        if (!isBlank(gender) && !sameValue(patient.getGender(), gender)) {
+            return false;
+        }
+        if (!isBlank(bloodType) && !sameValue(patient.getBloodType(), bloodType)) {
+            return false;
+        }
+        if (minAge != null || maxAge != null) {
+            if (patient.getDateOfBirth() == null) {
+                return false;
+            }
+            int age = Period.between(patient.getDateOfBirth(), asOf != null ? asOf : LocalDate.now()).getYears();
+            if ((minAge != null && age < minAge) || (maxAge != null && age > maxAge)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.trim().isEmpty();
+    }
+
+    private static boolean contains(String text, String term) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(term.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean sameValue(String value, String wanted) {
+        return value != null && value.trim().equalsIgnoreCase(wanted.trim());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("PatientQuery[");
+        if (name != null) text.append(" name~").append(name);
+        if (gender != null) text.append(" gender=").append(gender);
+        if (bloodType != null) text.append(" bloodType=").append(bloodType);
+        if (minAge != null || maxAge != null) {
+            text.append(" age=").append(minAge != null ? minAge : "").append("..").append(maxAge != null ? maxAge : "");
+        }
+        if (allergy != null) text.append(" allergy~").append(allergy);
+        if (asOf != null) text.append(" asOf=").append(asOf);
+        return text.append(" ]").toString();
+    }
+}
@@ -0,0 +1,442 @@
+package clinicapp.service;
+
+import clinicapp.model.Patient;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+// Evaluates a PatientQuery against PatientManager's indexes, a range of IDs at a time.
+//
+// Each criterion that is set first estimates how many patients it matches:
+// a bitmap popcount for gender and blood type, the shortest trigram posting
+// list for name and allergy text, and the size of the birth date range for age.
+// The most selective criterion drives the evaluation: it lists its candidate
+// IDs in ascending order one window of IDs at a time (a slice of its bitmap, or
+// a stretch of its shortest posting list), jumping straight to its next
+// candidate between windows. Each further criterion then narrows the window in
+// the cheapest way:
+// - bitmaps are sliced to the window and ANDed in a word at a time (so they go first),
+// - a trigram index expected to hold no more IDs in the window than there are
+//   candidates is read for that range and ANDed in,
+// - otherwise the remaining candidates are checked one by one.
+// Evaluation stops once enough matches are found, so a page of results only
+// pays for the IDs up to its last match rather than for the whole result set.
+// A birth date range cannot list IDs in order: driving by age means collecting
+// every patient in the range into a bitmap, once per Plan. That only pays when
+// the range is rarer than the candidates an ordered criterion (or, failing one,
+// every patient) would yield to fill a page, so otherwise age is checked.
+class PatientQueryEngine {
+
+    // Ages are clamped to this many years either way, beyond any real age,
+    // so the boundary dates cannot overflow
+    private static final int MAX_AGE_YEARS = 10_000;
+
+    // IDs per window: small at first so a short page stops early, growing so a
+    // long walk over sparse matches does not pay per window
+    private static final int MIN_WINDOW = 1 << 10;
+    private static final int MAX_WINDOW = 1 << 16;
+
+    private final Map<Integer, Patient> patients;
+    private final IntSupplier highestId;
+    private final TrigramIndex nameIndex;
+    private final TrigramIndex allergyIndex;
+    private final BitmapIndex genderIndex;
+    private final BitmapIndex bloodTypeIndex;
+    private final NavigableMap<Long, Set<Patient>> patientsByBirthDate;
+
+    PatientQueryEngine(Map<Integer, Patient> patients, IntSupplier highestId, TrigramIndex nameIndex,
+            TrigramIndex allergyIndex, BitmapIndex genderIndex, BitmapIndex bloodTypeIndex,
+            NavigableMap<Long, Set<Patient>> patientsByBirthDate) {
+        this.patients = patients;
+        this.highestId = highestId;
+        this.nameIndex = nameIndex;
+        this.allergyIndex = allergyIndex;
+        this.genderIndex = genderIndex;
+        this.bloodTypeIndex = bloodTypeIndex;
+        this.patientsByBirthDate = patientsByBirthDate;
+    }
+
+    // The order a query's criteria are applied in. Reusable for every page of the query.
+    final class Plan {
+        private final Criterion driver;
+        private final List<Criterion> filters;
+        private final long estimate;
+
+        private Plan(Criterion driver, List<Criterion> filters, long estimate) {
+            this.driver = driver;
+            this.filters = filters;
+            this.estimate = estimate;
+        }
+
+        // Upper bound on the number of matches: the most selective criterion's estimate.
+        long estimate() {
+            return estimate;
+        }
+
+        /**
+         * Append up to limit matching patients with IDs above afterId to out,
+         * in ascending ID order. Only the IDs up to the last match appended (and
+         * the rest of its window) are examined.
+         *
+         * @return How many candidate IDs the driving criterion yielded
+         */
+        long next(int afterId, int limit, List<Patient> out) {
+            int highest = highestId.getAsInt();
+            long scanned = 0;
+            int added = 0;
+            int size = MIN_WINDOW;
+            int from = Math.max(afterId, -1) + 1;
+            while (added < limit && afterId < highest && from <= highest) {
+                from = driver.nextCandidate(from);
+                if (from < 0 || from > highest) {
+                    break;
+                }
+                int to = (int) Math.min((long) from + size, (long) highest + 1);
+                BitSet window = driver.window(from, to);
+                scanned += window.cardinality();
+                for (Criterion filter : filters) {
+                    if (window.isEmpty()) {
+                        break;
+                    }
+                    filter.retain(window, from, to, highest);
+                }
+                for (int i = window.nextSetBit(0); i >= 0 && added < limit; i = window.nextSetBit(i + 1)) {
+                    Patient patient = patients.get(from + i);
+                    // Skip a patient deleted since the window was read
+                    if (patient != null) {
+                        out.add(patient);
+                        added++;
+                    }
+                }
+                from = to;
+                size = Math.min(size * 2, MAX_WINDOW);
+            }
+            return scanned;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder plan = new StringBuilder(driver.label).append(" index: ").append(driver.estimate);
+            for (Criterion filter : filters) {
+                plan.append(" -> ").append(filter.label).append(filter.isBitmap() ? " bitmap" : " check");
+            }
+            return plan.toString();
+        }
+    }
+
+    // Plan a query expected to be read about rows matches at a time.
+    Plan plan(PatientQuery query, int rows) {
+        List<Criterion> criteria = criteria(query);
+        Criterion all = new AllPatients();
+        all.estimate = all.estimate();
+        Criterion driver = all;
+        Criterion unordered = null;
+        for (Criterion criterion : criteria) {
+            criterion.estimate = criterion.estimate();
+            if (!criterion.isOrdered()) {
+                unordered = criterion;
+            } else if (driver == all || criterion.estimate < driver.estimate) {
+                driver = criterion;
+            }
+        }
+        // Filling a page from the ordered driver takes about rows * driver / unordered
+        // candidates (if the criteria are independent); collecting takes unordered
+        if (unordered != null && unordered.estimate < driver.estimate
+                && unordered.estimate * unordered.estimate < Math.max(rows, 1) * driver.estimate) {
+            driver = unordered;
+        }
+
+        // After the driver, bitmaps (cheapest to apply) then the rest, most selective first
+        List<Criterion> filters = new ArrayList<>(criteria);
+        filters.remove(driver);
+        filters.sort(Comparator.comparing((Criterion criterion) -> !criterion.isBitmap())
+                .thenComparingLong(criterion -> criterion.estimate));
+        long estimate = driver.estimate;
+        for (Criterion filter : filters) {
+            estimate = Math.min(estimate, filter.estimate);
+        }
+        return new Plan(driver, filters, estimate);
+    }
+
+    /**
+     * Visit the patients whose age on a date is within a range, as sets of
+     * patients sharing a date of birth, oldest first. Ages are whole years as in
+     * Patient.getAge(). Being at least minAge means being born on or before asOf
+     * minus minAge years, and being at most maxAge means being born after asOf
+     * minus (maxAge + 1) years, so the range is one walk over the birth date
+     * index. Dates of birth after asOf (bad data, but possible) count as age 0
+     * until a year ahead, as Period does, so they are checked date by date.
+     */
+    static void forEachAgeGroup(NavigableMap<Long, Set<Patient>> patientsByBirthDate, int minAge, int maxAge,
+            LocalDate asOf, Consumer<Set<Patient>> action) {
+        minAge = Math.max(minAge, -MAX_AGE_YEARS);
+        maxAge = Math.min(maxAge, MAX_AGE_YEARS);
+        if (minAge > maxAge) {
+            return;
+        }
+        if (maxAge >= 0) {
+            long bornAfter = asOf.minusYears(maxAge + 1L).toEpochDay();
+            long bornBy = asOf.minusYears(Math.max(minAge, 0)).toEpochDay();
+            for (Set<Patient> born : patientsByBirthDate.subMap(bornAfter, false, bornBy, true).values()) {
+                action.accept(born);
+            }
+        }
+        if (minAge <= 0) {
+            for (Map.Entry<Long, Set<Patient>> entry : patientsByBirthDate.tailMap(asOf.toEpochDay(), false).entrySet()) {
+                int age = Period.between(LocalDate.ofEpochDay(entry.getKey()), asOf).getYears();
+                if (age >= minAge && age <= maxAge) {
+                    action.accept(entry.getValue());
+                }
+            }
+        }
+    }
+
+    // One criterion per query field that is set.
+    private List<Criterion> criteria(PatientQuery query) {
+        List<Criterion> criteria = new ArrayList<>();
+        if (!isBlank(query.name)) {
+            criteria.add(new TextCriterion("name~" + query.name, nameIndex, query.name));
+        }
+        if (!isBlank(query.allergy)) {
+            criteria.add(new TextCriterion("allergy~" + query.allergy, allergyIndex, query.allergy));
+        }
+        if (!isBlank(query.gender)) {
+            criteria.add(new ValueCriterion("gender=" + query.gender, genderIndex, query.gender));
+        }
+        if (!isBlank(query.bloodType)) {
+            criteria.add(new ValueCriterion("bloodType=" + query.bloodType, bloodTypeIndex, query.bloodType));
+        }
+        if (query.minAge != null || query.maxAge != null) {
+            int minAge = query.minAge != null ? query.minAge : Integer.MIN_VALUE;
+            int maxAge = query.maxAge != null ? query.maxAge : Integer.MAX_VALUE;
+            LocalDate asOf = query.asOf != null ? query.asOf : LocalDate.now();
+            criteria.add(new AgeCriterion(minAge, maxAge, asOf));
+        }
+        return criteria;
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.trim().isEmpty();
+    }
+
+    // One condition of a query and the index that answers it. Windows are
+    // BitSets in which bit i stands for ID from + i.
+    private abstract static class Criterion {
+        final String label;
+        long estimate;
+
+        Criterion(String label) {
+            this.label = label;
+        }
+
+        // Expected number of matching patients (an upper bound is fine)
+        abstract long estimate();
+
+        // Smallest ID >= from that may match, or -1 if none can
+        abstract int nextCandidate(int from);
+
+        // Matching IDs in [from, to)
+        abstract BitSet window(int from, int to);
+
+        // Keep only the matching IDs of a window over [from, to)
+        abstract void retain(BitSet window, int from, int to, int highestId);
+
+        boolean isBitmap() {
+            return false;
+        }
+
+        // Whether nextCandidate() and window() walk an index in ID order, rather
+        // than collecting every match first
+        boolean isOrdered() {
+            return true;
+        }
+    }
+
+    // No criteria at all: every patient, walked by ID.
+    private class AllPatients extends Criterion {
+
+        AllPatients() {
+            super("all patients");
+        }
+
+        @Override
+        long estimate() {
+            return patients.size();
+        }
+
+        @Override
+        int nextCandidate(int from) {
+            return from;
+        }
+
+        @Override
+        BitSet window(int from, int to) {
+            BitSet window = new BitSet(to - from);
+            for (int id = from; id < to; id++) {
+                if (patients.containsKey(id)) {
+                    window.set(id - from);
+                }
+            }
+            return window;
+        }
+
+        @Override
+        void retain(BitSet window, int from, int to, int highestId) {
+        }
+    }
+
+    // Case-insensitive substring match answered by a trigram index.
+    private static class TextCriterion extends Criterion {
+        private final TrigramIndex index;
+        private final String text;
+
+        TextCriterion(String label, TrigramIndex index, String text) {
+            super(label);
+            this.index = index;
+            this.text = text;
+        }
+
+        @Override
+        long estimate() {
+            return index.estimate(text);
+        }
+
+        @Override
+        int nextCandidate(int from) {
+            return index.nextCandidate(text, from);
+        }
+
+        @Override
+        BitSet window(int from, int to) {
+            BitSet window = new BitSet(to - from);
+            for (int id : index.search(text, from, to).ids) {
+                window.set(id - from);
+            }
+            return window;
+        }
+
+        @Override
+        void retain(BitSet window, int from, int to, int highestId) {
+            // Posting entries expected in the window, if IDs are spread evenly
+            long expected = estimate * (to - from) / ((long) highestId + 1);
+            if (expected <= window.cardinality()) {
+                window.and(window(from, to));
+            } else {
+                index.retain(text, window, from);
+            }
+        }
+    }
+
+    // Exact value of a low-cardinality attribute, answered by a bitmap.
+    private static class ValueCriterion extends Criterion {
+        private final BitmapIndex index;
+        private final String value;
+
+        ValueCriterion(String label, BitmapIndex index, String value) {
+            super(label);
+            this.index = index;
+            this.value = value;
+        }
+
+        @Override
+        long estimate() {
+            return index.count(value);
+        }
+
+        @Override
+        int nextCandidate(int from) {
+            return index.nextId(value, from);
+        }
+
+        @Override
+        BitSet window(int from, int to) {
+            return index.slice(value, from, to);
+        }
+
+        @Override
+        void retain(BitSet window, int from, int to, int highestId) {
+            index.and(value, window, from);
+        }
+
+        @Override
+        boolean isBitmap() {
+            return true;
+        }
+    }
+
+    // Age range answered by the birth date index, or checked patient by patient.
+    private class AgeCriterion extends Criterion {
+        private final int minAge;
+        private final int maxAge;
+        private final LocalDate asOf;
+
+        // IDs in the range, collected the first time this criterion drives a walk
+        private BitSet matching;
+
+        AgeCriterion(int minAge, int maxAge, LocalDate asOf) {
+            super("age=" + (minAge != Integer.MIN_VALUE ? minAge : "") + ".." + (maxAge != Integer.MAX_VALUE ? maxAge : ""));
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+            this.asOf = asOf;
+        }
+
+        @Override
+        long estimate() {
+            long[] count = { 0 };
+            forEachAgeGroup(patientsByBirthDate, minAge, maxAge, asOf, born -> count[0] += born.size());
+            return count[0];
+        }
+
+        @Override
+        int nextCandidate(int from) {
+            return matching().nextSetBit(from);
+        }
+
+        @Override
+        BitSet window(int from, int to) {
+            return matching().get(from, to);
+        }
+
+        @Override
+        void retain(BitSet window, int from, int to, int highestId) {
+            for (int i = window.nextSetBit(0); i >= 0; i = window.nextSetBit(i + 1)) {
+                Patient patient = patients.get(from + i);
+                if (patient == null || patient.getDateOfBirth() == null || !inRange(patient.getDateOfBirth())) {
+                    window.clear(i);
+                }
+            }
+        }
+
+        @Override
+        boolean isOrdered() {
+            return false;
+        }
+
+        private BitSet matching() {
+            if (matching == null) {
+                BitSet ids = new BitSet();
+                forEachAgeGroup(patientsByBirthDate, minAge, maxAge, asOf, born -> {
+                    for (Patient patient : born) {
+                        ids.set(patient.getId());
+                    }
+                });
+                matching = ids;
+            }
+            return matching;
+        }
+
+        private boolean inRange(LocalDate dateOfBirth) {
+            int age = Period.between(dateOfBirth, asOf).getYears();
+            return age >= minAge && age <= maxAge;
+        }
+    }
+}
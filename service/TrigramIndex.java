@@ -0,0 +1,638 @@
+package clinicapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Case-insensitive substring index over one text field per ID (a patient's
+// name, a doctor's specialization, ...). Every three-character run (trigram)
+// of the lowercased text maps to the sorted IDs whose text contains it.
+// A query of three or more characters intersects the posting lists of its
+// trigrams, starting from the shortest, so the work grows with the number of
+// candidates rather than with the number of indexed texts. Candidates are then
+// checked against the stored text, since sharing every trigram does not make
+// the query a substring. Shorter queries have no trigram and scan the stored
+// (already lowercased) texts instead.
+//
+// For fuzzy lookups the index also keeps the distinct words of the texts,
+// each with the IDs containing it, and a second trigram index over the words
+// (padded with spaces so the first and last letters count). A misspelled query
+// word only has to be compared against the few words sharing some of its
+// trigrams, and the patients behind the close words are found by merging their
+// word posting lists.
+//
+// The owning manager calls put() and remove() as entities change. Safe for
+// concurrent use; searches share a read lock.
+class TrigramIndex {
+
+    // ID -> lowercased text
+    private final Map<Integer, String> texts = new HashMap<>();
+
+    // Packed trigram -> IDs of the texts containing it
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    // Total entries across all posting lists
+    private long postingCount;
+
+    // Word -> IDs of the texts containing it as a whole word
+    private final Map<String, Postings> words = new HashMap<>();
+
+    // Packed trigram of a space-padded word -> words containing it
+    private final Map<Long, List<String>> wordGrams = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Result of a search: matching IDs in ascending order, and how many
+    // candidates had to be checked to find them.
+    static final class Hits {
+        final int[] ids;
+        final int candidates;
+
+        Hits(int[] ids, int candidates) {
+            this.ids = ids;
+            this.candidates = candidates;
+        }
+    }
+
+    // Receives the IDs resembling a fuzzy query in ascending order, each with its
+    // similarity in (0, 1].
+    interface SimilarityVisitor {
+        void visit(int id, double similarity);
+    }
+
+    // Lowercase a text the way it is indexed. Null counts as empty.
+    static String normalize(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+
+    // Index the text of an ID, replacing what was indexed for it before.
+    void put(int id, String text) {
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            String old = texts.put(id, normalized);
+            if (normalized.equals(old)) {
+                return;
+            }
+            long[] oldGrams = old != null ? grams(old) : new long[0];
+            long[] newGrams = grams(normalized);
+
+            // Both arrays are sorted; only touch the trigrams that changed
+            int i = 0;
+            int j = 0;
+            while (i < oldGrams.length || j < newGrams.length) {
+                if (j == newGrams.length || (i < oldGrams.length && oldGrams[i] < newGrams[j])) {
+                    unpost(oldGrams[i++], id);
+                } else if (i == oldGrams.length || newGrams[j] < oldGrams[i]) {
+                    post(newGrams[j++], id);
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+
+            // Same for the words
+            String[] oldWords = old != null ? words(old) : new String[0];
+            String[] newWords = words(normalized);
+            i = 0;
+            j = 0;
+            while (i < oldWords.length || j < newWords.length) {
+                int order = i == oldWords.length ? 1 : j == newWords.length ? -1 : oldWords[i].compareTo(newWords[j]);
+                if (order < 0) {
+                    unpostWord(oldWords[i++], id);
+                } else if (order > 0) {
+                    postWord(newWords[j++], id);
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drop an ID from the index.
+    void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            String old = texts.remove(id);
+            if (old != null) {
+                for (long gram : grams(old)) {
+                    unpost(gram, id);
+                }
+                for (String word : words(old)) {
+                    unpostWord(word, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Find the IDs whose text contains the query, ignoring case.
+    Hits search(String query) {
+        return search(query, 0, Integer.MAX_VALUE);
+    }
+
+    // Find the IDs in [from, to) whose text contains the query, ignoring case.
+    Hits search(String query, int from, int to) {
+        String term = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (term.length() < 3) {
+                return scan(term, from, to);
+            }
+
+            long[] queryGrams = grams(term);
+            Postings[] lists = new Postings[queryGrams.length];
+            for (int k = 0; k < queryGrams.length; k++) {
+                lists[k] = postings.get(queryGrams[k]);
+                if (lists[k] == null) {
+                    return new Hits(new int[0], 0);
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            // Walk the shortest list; the others are probed with cursors that only move forward
+            Postings shortest = lists[0];
+            int[] cursors = new int[lists.length];
+            int[] matches = new int[Math.min(shortest.size, 16)];
+            int count = 0;
+            int first = shortest.seek(0, from);
+            int n = first;
+            candidates:
+            for (; n < shortest.size && shortest.ids[n] < to; n++) {
+                int id = shortest.ids[n];
+                for (int k = 1; k < lists.length; k++) {
+                    cursors[k] = lists[k].seek(cursors[k], id);
+                    if (cursors[k] == lists[k].size) {
+                        break candidates;
+                    }
+                    if (lists[k].ids[cursors[k]] != id) {
+                        continue candidates;
+                    }
+                }
+                if (texts.get(id).contains(term)) {
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, Math.min(shortest.size, count * 2));
+                    }
+                    matches[count++] = id;
+                }
+            }
+            return new Hits(Arrays.copyOf(matches, count), n - first);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Smallest ID >= from that may match the query (the next entry of its
+    // shortest posting list), or -1 if none can. Lets a caller walk the matches
+    // in ID order a range at a time with search(query, from, to). A query too
+    // short to have a trigram may match any ID, so from itself is returned.
+    int nextCandidate(String query, int from) {
+        String term = normalize(query);
+        if (term.length() < 3) {
+            return from;
+        }
+        lock.readLock().lock();
+        try {
+            Postings shortest = null;
+            for (long gram : grams(term)) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return -1;
+                }
+                if (shortest == null || list.size < shortest.size) {
+                    shortest = list;
+                }
+            }
+            int at = shortest.seek(0, from);
+            return at < shortest.size ? shortest.ids[at] : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Upper bound on the number of IDs search() would return: the shortest posting
+    // list of the query's trigrams, or every text for queries too short to have one.
+    int estimate(String query) {
+        String term = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (term.length() < 3) {
+                return texts.size();
+            }
+            int smallest = Integer.MAX_VALUE;
+            for (long gram : grams(term)) {
+                Postings list = postings.get(gram);
+                smallest = Math.min(smallest, list != null ? list.size : 0);
+            }
+            return smallest;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Keep only the IDs whose text contains the query, ignoring case, where bit i
+    // of ids stands for ID offset + i. Cheaper than search() when there are far
+    // fewer IDs than matches.
+    void retain(String query, BitSet ids, int offset) {
+        String term = normalize(query);
+        lock.readLock().lock();
+        try {
+            for (int i = ids.nextSetBit(0); i >= 0; i = ids.nextSetBit(i + 1)) {
+                String text = texts.get(offset + i);
+                if (text == null || !text.contains(term)) {
+                    ids.clear(i);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the IDs whose words resemble the words of a query, tolerating typos.
+     * Each query word is matched to the indexed words within a few edits of it
+     * (0 edits for words of up to 2 letters, 1 up to 5, 2 beyond; a swap of two
+     * neighbouring letters is one edit). A close word scores
+     * 1 - edits / longer length. An ID's similarity is the sum, over the query
+     * words, of its best score for that word, divided by the number of query
+     * words. IDs with no close word are not visited.
+     *
+     * @param query   Words to look for, in any order
+     * @param visitor Receives each resembling ID, in ascending ID order
+     * @return Number of word postings merged
+     */
+    int searchSimilar(String query, SimilarityVisitor visitor) {
+        String[] terms = words(normalize(query));
+        lock.readLock().lock();
+        try {
+            // One posting list per (query word, close word) pair
+            List<Postings> found = new ArrayList<>();
+            List<Integer> foundTerm = new ArrayList<>();
+            List<Double> foundScore = new ArrayList<>();
+            for (int t = 0; t < terms.length; t++) {
+                for (Map.Entry<String, Integer> close : closeWords(terms[t]).entrySet()) {
+                    String word = close.getKey();
+                    found.add(words.get(word));
+                    foundTerm.add(t);
+                    foundScore.add(1.0 - (double) close.getValue() / Math.max(terms[t].length(), word.length()));
+                }
+            }
+
+            int lists = found.size();
+            Postings[] postingLists = found.toArray(new Postings[0]);
+            int[] termOf = new int[lists];
+            double[] scoreOf = new double[lists];
+            for (int l = 0; l < lists; l++) {
+                termOf[l] = foundTerm.get(l);
+                scoreOf[l] = foundScore.get(l);
+            }
+
+            // Merge the lists through a min-heap of list indices keyed by each list's current ID
+            int[] cursors = new int[lists];
+            int[] heap = new int[lists];
+            int heapSize = lists;
+            for (int l = 0; l < lists; l++) {
+                heap[l] = l;
+            }
+            for (int h = heapSize / 2 - 1; h >= 0; h--) {
+                siftDown(heap, heapSize, h, postingLists, cursors);
+            }
+
+            double[] best = new double[terms.length];
+            int merged = 0;
+            while (heapSize > 0) {
+                int id = postingLists[heap[0]].ids[cursors[heap[0]]];
+                Arrays.fill(best, 0);
+                while (heapSize > 0 && postingLists[heap[0]].ids[cursors[heap[0]]] == id) {
+                    int l = heap[0];
+                    best[termOf[l]] = Math.max(best[termOf[l]], scoreOf[l]);
+                    merged++;
+                    if (++cursors[l] == postingLists[l].size) {
+                        heap[0] = heap[--heapSize];
+                    }
+                    siftDown(heap, heapSize, 0, postingLists, cursors);
+                }
+
+                double sum = 0;
+                for (double score : best) {
+                    sum += score;
+                }
+                visitor.visit(id, sum / terms.length);
+            }
+            return merged;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of distinct words.
+    int wordCount() {
+        lock.readLock().lock();
+        try {
+            return words.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of distinct trigrams.
+    int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Total entries across all posting lists.
+    long postingCount() {
+        lock.readLock().lock();
+        try {
+            return postingCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Queries too short to have a trigram: check every stored text with an ID in
+    // [from, to), looking the IDs up one by one when the range is the smaller.
+    private Hits scan(String term, int from, int to) {
+        List<Integer> found = new ArrayList<>();
+        int checked = 0;
+        if ((long) to - from < texts.size()) {
+            for (int id = from; id < to; id++) {
+                String text = texts.get(id);
+                if (text != null) {
+                    checked++;
+                    if (text.contains(term)) {
+                        found.add(id);
+                    }
+                }
+            }
+        } else {
+            for (Map.Entry<Integer, String> entry : texts.entrySet()) {
+                int id = entry.getKey();
+                if (id >= from && id < to) {
+                    checked++;
+                    if (entry.getValue().contains(term)) {
+                        found.add(id);
+                    }
+                }
+            }
+        }
+        int[] ids = new int[found.size()];
+        for (int k = 0; k < ids.length; k++) {
+            ids[k] = found.get(k);
+        }
+        Arrays.sort(ids);
+        return new Hits(ids, checked);
+    }
+
+    // Indexed words within the allowed number of edits of a query word, with their distance.
+    private Map<String, Integer> closeWords(String term) {
+        int maxEdits = term.length() <= 2 ? 0 : term.length() <= 5 ? 1 : 2;
+        Map<String, Integer> close = new HashMap<>();
+        if (maxEdits == 0) {
+            if (words.containsKey(term)) {
+                close.put(term, 0);
+            }
+            return close;
+        }
+
+        // Each edit destroys at most three trigrams, so a close word shares the rest
+        long[] termGrams = grams(" " + term + " ");
+        Map<String, Integer> shared = new HashMap<>();
+        for (long gram : termGrams) {
+            List<String> containing = wordGrams.get(gram);
+            if (containing != null) {
+                for (String word : containing) {
+                    shared.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        int needed = Math.max(1, termGrams.length - 3 * maxEdits);
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() >= needed) {
+                int edits = distance(term, entry.getKey(), maxEdits);
+                if (edits <= maxEdits) {
+                    close.put(entry.getKey(), edits);
+                }
+            }
+        }
+        return close;
+    }
+
+    /**
+     * Edit distance between two words, counting insertions, deletions,
+     * substitutions and swaps of neighbouring letters (optimal string alignment).
+     * Stops early once the distance must exceed max.
+     *
+     * @return The distance, or max + 1 if it is larger than max
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] before = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, before[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            // Neighbouring rows differ by at most one, so no later cell can come back under max
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // Restore the heap order below position at, keyed by each list's current ID.
+    private static void siftDown(int[] heap, int size, int at, Postings[] lists, int[] cursors) {
+        while (true) {
+            int smallest = at;
+            for (int child = 2 * at + 1; child <= 2 * at + 2 && child < size; child++) {
+                if (lists[heap[child]].ids[cursors[heap[child]]] < lists[heap[smallest]].ids[cursors[heap[smallest]]]) {
+                    smallest = child;
+                }
+            }
+            if (smallest == at) {
+                return;
+            }
+            int swap = heap[at];
+            heap[at] = heap[smallest];
+            heap[smallest] = swap;
+            at = smallest;
+        }
+    }
+
+    private void post(long gram, int id) {
+        if (postings.computeIfAbsent(gram, g -> new Postings()).add(id)) {
+            postingCount++;
+        }
+    }
+
+    private void unpost(long gram, int id) {
+        Postings list = postings.get(gram);
+        if (list != null && list.remove(id)) {
+            postingCount--;
+            if (list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private void postWord(String word, int id) {
+        Postings list = words.get(word);
+        if (list == null) {
+            list = new Postings();
+            words.put(word, list);
+            for (long gram : grams(" " + word + " ")) {
+                wordGrams.computeIfAbsent(gram, g -> new ArrayList<>()).add(word);
+            }
+        }
+        list.add(id);
+    }
+
+    private void unpostWord(String word, int id) {
+        Postings list = words.get(word);
+        if (list != null && list.remove(id) && list.size == 0) {
+            words.remove(word);
+            for (long gram : grams(" " + word + " ")) {
+                List<String> containing = wordGrams.get(gram);
+                containing.remove(word);
+                if (containing.isEmpty()) {
+                    wordGrams.remove(gram);
+                }
+            }
+        }
+    }
+
+    // Distinct words (runs of letters and digits) of a lowercased text, sorted.
+    static String[] words(String text) {
+        List<String> found = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                found.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return found.stream().distinct().sorted().toArray(String[]::new);
+    }
+
+    // Distinct trigrams of a lowercased text, sorted.
+    static long[] grams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = gram(text, i);
+        }
+        Arrays.sort(grams);
+
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    // The three chars starting at i, packed 16 bits each. The packed value is
+    // scrambled (multiplying by an odd constant loses nothing) because
+    // Long.hashCode folds the first char onto the other two, which made
+    // common trigrams collide in the hash maps.
+    static long gram(String text, int i) {
+        long packed = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        return packed * 0x9E3779B97F4A7C15L;
+    }
+
+    // Sorted IDs for one trigram. IDs are allocated in increasing order, so
+    // adding is nearly always an append.
+    static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        boolean add(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return false;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+            return true;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            // Give memory back once a list has shrunk well below its capacity
+            if (ids.length > 16 && size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            }
+            return true;
+        }
+
+        // Index of the first ID >= id at or after from (size if none).
+        // Gallops ahead, then binary searches the last step.
+        int seek(int from, int id) {
+            if (from >= size || ids[from] >= id) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + step;
+            while (high < size && ids[high] < id) {
+                low = high;
+                step <<= 1;
+                high = low + step;
+            }
+            high = Math.min(high, size);
+            // ids[low] < id, and ids[high] >= id or high == size
+            int at = Arrays.binarySearch(ids, low + 1, high, id);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package clinicapp.service;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Bounded undo/redo journal for AppointmentManager.
+// Entries live column-wise in fixed-size primitive arrays used as a ring buffer,
+// and only the fields an action changed are recorded (old and new value), so
+// memory stays flat no matter how many actions a clinic day sees. Once full,
+// recording a new action overwrites the oldest one. Recording clears redo.
+// All methods are synchronized so the journal can be shared between threads.
+class UndoJournal {
+
+    enum ActionType {
+        ADD, UPDATE, CANCEL, COMPLETE, DELETE
+    }
+
+    // Bits of the changed-field mask
+    private static final int DATE = 1;
+    private static final int START = 1 << 1;
+    private static final int END = 1 << 2;
+    private static final int STATUS = 1 << 3;
+    private static final int REASON = 1 << 4;
+    private static final int NOTES = 1 << 5;
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    private final int capacity;
+
+    // One column per recorded value; index = ring slot
+    private final byte[] types;
+    private final int[] appointmentIds;
+    private final byte[] masks;
+    private final int[] oldDates;    // epoch day
+    private final int[] newDates;
+    private final int[] oldStarts;   // second of day
+    private final int[] newStarts;
+    private final int[] oldEnds;
+    private final int[] newEnds;
+    private final byte[] oldStatuses; // status ordinal
+    private final byte[] newStatuses;
+    private final String[] oldReasons;
+    private final String[] newReasons;
+    private final String[] oldNotes;
+    private final String[] newNotes;
+
+    // ADD and DELETE keep the appointment itself so it comes back with the same ID
+    private final Appointment[] subjects;
+
+    // Slot of the oldest undoable entry
+    private int oldest;
+
+    // Entries that can be undone, followed by entries that can be redone
+    private int undoCount;
+    private int redoCount;
+
+    UndoJournal(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Undo capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.types = new byte[capacity];
+        this.appointmentIds = new int[capacity];
+        this.masks = new byte[capacity];
+        this.oldDates = new int[capacity];
+        this.newDates = new int[capacity];
+        this.oldStarts = new int[capacity];
+        this.newStarts = new int[capacity];
+        this.oldEnds = new int[capacity];
+        this.newEnds = new int[capacity];
+        this.oldStatuses = new byte[capacity];
+        this.newStatuses = new byte[capacity];
+        this.oldReasons = new String[capacity];
+        this.newReasons = new String[capacity];
+        this.oldNotes = new String[capacity];
+        this.newNotes = new String[capacity];
+        this.subjects = new Appointment[capacity];
+    }
+
+    // A journal entry read back for undo or redo: the values to apply and where.
+    static class Change {
+        final ActionType type;
+        final int appointmentId;
+        final Appointment subject; // only for ADD and DELETE
+        private final int mask;
+        private final int date;
+        private final int start;
+        private final int end;
+        private final byte status;
+        private final String reason;
+        private final String notes;
+
+        private Change(ActionType type, int appointmentId, Appointment subject, int mask,
+                int date, int start, int end, byte status, String reason, String notes) {
+            this.type = type;
+            this.appointmentId = appointmentId;
+            this.subject = subject;
+            this.mask = mask;
+            this.date = date;
+            this.start = start;
+            this.end = end;
+            this.status = status;
+            this.reason = reason;
+            this.notes = notes;
+        }
+
+        // Write the recorded field values into the appointment.
+        void applyTo(Appointment appointment) {
+            if ((mask & DATE) != 0)
+                appointment.setAppointmentDate(LocalDate.ofEpochDay(date));
+            if ((mask & START) != 0)
+                appointment.setStartTime(LocalTime.ofSecondOfDay(start));
+            if ((mask & END) != 0)
+                appointment.setEndTime(LocalTime.ofSecondOfDay(end));
+            if ((mask & STATUS) != 0)
+                appointment.setStatus(STATUSES[status]);
+            if ((mask & REASON) != 0)
+                appointment.setReason(reason);
+            if ((mask & NOTES) != 0)
+                appointment.setNotes(notes);
+        }
+    }
+
+    // Record that an appointment was added or deleted.
+    synchronized void recordLifecycle(ActionType type, Appointment appointment) {
+        int slot = nextSlot();
+        types[slot] = (byte) type.ordinal();
+        appointmentIds[slot] = appointment.getId();
+        masks[slot] = 0;
+        subjects[slot] = appointment;
+        oldReasons[slot] = null;
+        newReasons[slot] = null;
+        oldNotes[slot] = null;
+        newNotes[slot] = null;
+    }
+
+    // Record a change to an existing appointment. Called after the change with the
+    // previous field values; only the fields that differ are stored.
+    synchronized void recordChange(ActionType type, Appointment appointment, LocalDate oldDate,
+            LocalTime oldStart, LocalTime oldEnd, AppointmentStatus oldStatus, String oldReason, String oldNote) {
+        int slot = nextSlot();
+        types[slot] = (byte) type.ordinal();
+        appointmentIds[slot] = appointment.getId();
+        subjects[slot] = null;
+
+        int mask = 0;
+        if (!oldDate.equals(appointment.getAppointmentDate())) {
+            mask |= DATE;
+            oldDates[slot] = (int) oldDate.toEpochDay();
+            newDates[slot] = (int) appointment.getAppointmentDate().toEpochDay();
+        }
+        if (!oldStart.equals(appointment.getStartTime())) {
+            mask |= START;
+            oldStarts[slot] = oldStart.toSecondOfDay();
+            newStarts[slot] = appointment.getStartTime().toSecondOfDay();
+        }
+        if (!oldEnd.equals(appointment.getEndTime())) {
+            mask |= END;
+            oldEnds[slot] = oldEnd.toSecondOfDay();
+            newEnds[slot] = appointment.getEndTime().toSecondOfDay();
+        }
+        if (oldStatus != appointment.getStatus()) {
+            mask |= STATUS;
+            oldStatuses[slot] = (byte) oldStatus.ordinal();
+            newStatuses[slot] = (byte) appointment.getStatus().ordinal();
+        }
+        // Strings are kept by reference, only when changed
+        boolean reasonChanged = oldReason != appointment.getReason();
+        oldReasons[slot] = reasonChanged ? oldReason : null;
+        newReasons[slot] = reasonChanged ? appointment.getReason() : null;
+        if (reasonChanged) {
+            mask |= REASON;
+        }
+        boolean notesChanged = oldNote != appointment.getNotes();
+        oldNotes[slot] = notesChanged ? oldNote : null;
+        newNotes[slot] = notesChanged ? appointment.getNotes() : null;
+        if (notesChanged) {
+            mask |= NOTES;
+        }
+        masks[slot] = (byte) mask;
+    }
+
+    // Step back one entry. Returns the old values to restore, or null if nothing to undo.
+    synchronized Change undo() {
+        if (undoCount == 0) {
+            return null;
+        }
+        undoCount--;
+        redoCount++;
+        int slot = (oldest + undoCount) % capacity;
+        return new Change(ActionType.values()[types[slot]], appointmentIds[slot], subjects[slot], masks[slot],
+                oldDates[slot], oldStarts[slot], oldEnds[slot], oldStatuses[slot], oldReasons[slot], oldNotes[slot]);
+    }
+
+    // Step forward one entry. Returns the new values to re-apply, or null if nothing to redo.
+    synchronized Change redo() {
+        if (redoCount == 0) {
+            return null;
+        }
+        int slot = (oldest + undoCount) % capacity;
+        undoCount++;
+        redoCount--;
+        return new Change(ActionType.values()[types[slot]], appointmentIds[slot], subjects[slot], masks[slot],
+                newDates[slot], newStarts[slot], newEnds[slot], newStatuses[slot], newReasons[slot], newNotes[slot]);
+    }
+
+    synchronized int undoSize() {
+        return undoCount;
+    }
+
+    synchronized int redoSize() {
+        return redoCount;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    // Claim the slot for a new entry: drop the redo history and, when full,
+    // overwrite the oldest entry.
+    private int nextSlot() {
+        redoCount = 0;
+        if (undoCount == capacity) {
+            oldest = (oldest + 1) % capacity;
+            undoCount--;
+        }
+        int slot = (oldest + undoCount) % capacity;
+        undoCount++;
+        return slot;
+    }
+}
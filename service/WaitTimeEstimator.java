@@ -0,0 +1,101 @@
+package clinicapp.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Learns how long each doctor takes per patient and projects when waiting
+// walk-ins will be seen.
+//
+// Service times come from the IN_PROGRESS -> COMPLETED transitions and are kept
+// as a rolling window of the doctor's last WINDOW visits with a running sum, so
+// recording a visit and reading the mean are O(1). Until a doctor has a history,
+// DEFAULT_SERVICE_MINUTES is assumed.
+//
+// A waiting walk-in's expected start is the moment its doctor is next free plus
+// one mean service time per patient ahead of it in that doctor's queue. The
+// number ahead is maintained by the queue itself on every enqueue and dequeue.
+// All methods are synchronized.
+class WaitTimeEstimator {
+    // Assumed service time before a doctor has completed any visit (one booking slot)
+    static final int DEFAULT_SERVICE_MINUTES = 30;
+
+    // Number of recent visits the rolling mean covers
+    static final int WINDOW = 20;
+
+    private final Map<Integer, DoctorStats> stats = new HashMap<>();
+
+    // A doctor started seeing a patient at startedMillis.
+    synchronized void started(int doctorId, long startedMillis) {
+        DoctorStats doctor = statsFor(doctorId);
+        doctor.inProgress++;
+        doctor.busyUntil = Math.max(doctor.busyUntil, startedMillis + doctor.meanMillis());
+    }
+
+    // A doctor stopped seeing a patient at endedMillis. Completed visits with a known
+    // start (startedMillis > 0) are added to the rolling service time.
+    synchronized void finished(int doctorId, long startedMillis, long endedMillis, boolean completed) {
+        DoctorStats doctor = statsFor(doctorId);
+        if (completed && startedMillis > 0 && endedMillis >= startedMillis) {
+            doctor.record(endedMillis - startedMillis);
+        }
+        if (doctor.inProgress > 0) {
+            doctor.inProgress--;
+        }
+        if (doctor.inProgress == 0) {
+            doctor.busyUntil = endedMillis;
+        }
+    }
+
+    // Mean service time of a doctor over the rolling window, in millis.
+    synchronized long meanServiceMillis(int doctorId) {
+        DoctorStats doctor = stats.get(doctorId);
+        return doctor != null ? doctor.meanMillis() : DEFAULT_SERVICE_MINUTES * 60_000L;
+    }
+
+    // Number of visits the doctor's mean is based on (at most WINDOW).
+    synchronized int sampleCount(int doctorId) {
+        DoctorStats doctor = stats.get(doctorId);
+        return doctor != null ? doctor.count : 0;
+    }
+
+    // Expected start, in millis, of the walk-in with patientsAhead others before it
+    // in the doctor's queue.
+    synchronized long expectedStart(int doctorId, int patientsAhead, long nowMillis) {
+        DoctorStats doctor = stats.get(doctorId);
+        long mean = doctor != null ? doctor.meanMillis() : DEFAULT_SERVICE_MINUTES * 60_000L;
+        // An overrunning visit is assumed to end now
+        long freeAt = doctor != null && doctor.inProgress > 0 ? Math.max(nowMillis, doctor.busyUntil) : nowMillis;
+        return freeAt + patientsAhead * mean;
+    }
+
+    private DoctorStats statsFor(int doctorId) {
+        return stats.computeIfAbsent(doctorId, id -> new DoctorStats());
+    }
+
+    // Rolling window of one doctor's recent service times
+    private static class DoctorStats {
+        private final long[] samples = new long[WINDOW];
+        private int count;
+        private int next;
+        private long sum;
+
+        // Patients currently IN_PROGRESS and when the doctor is expected to be free
+        private int inProgress;
+        private long busyUntil;
+
+        void record(long millis) {
+            if (count == WINDOW) {
+                sum -= samples[next];
+            } else {
+                count++;
+            }
+            samples[next] = millis;
+            sum += millis;
+            next = (next + 1) % WINDOW;
+        }
+
+        long meanMillis() {
+            return count > 0 ? sum / count : DEFAULT_SERVICE_MINUTES * 60_000L;
+        }
+    }
+}
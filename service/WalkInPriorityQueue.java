@@ -0,0 +1,380 @@
+package clinicapp.service;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.TriageLevel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+// Walk-in queue ordered by triage level with aging.
+// Each entry's rank is its arrival time minus the head start of its triage level,
+// so a higher level jumps ahead by a fixed amount of waiting time. Because the
+// head start is bounded, anyone who has waited longer than the largest head start
+// can no longer be overtaken by newcomers - low levels are never starved. Ranks
+// are fixed once assigned, which keeps the heap valid as time passes.
+//
+// Binary min-heap with an ID -> slot map: offer, poll, remove and reprioritize
+// are O(log n). Ties keep arrival order, so with equal levels the queue is FIFO.
+// The waiting entries are also kept in an order-statistic tree keyed by
+// (rank, sequence), so position() - and the wait estimates built on it - count
+// the keys ahead of an entry in O(log n) too, and forEach() walks the entries in
+// service order without copying or sorting them. All methods are synchronized
+// so the queue can be shared between threads.
+class WalkInPriorityQueue {
+
+    // Heap slots: entries[i] has rank ranks[i], ties broken by sequence numbers seqs[i]
+    private Appointment[] entries;
+    private long[] ranks;
+    private long[] seqs;
+    private long[] arrivals; // arrival time in millis, kept for reprioritization
+    private int size;
+
+    // The waiting entries in service order, for positions and in-order walks
+    private final RankTree order;
+
+    // Appointment ID -> heap slot
+    private final Map<Integer, Integer> slots;
+
+    // Sequence number for the next offer
+    private long nextSeq;
+
+    WalkInPriorityQueue() {
+        this.entries = new Appointment[16];
+        this.ranks = new long[16];
+        this.seqs = new long[16];
+        this.arrivals = new long[16];
+        this.order = new RankTree();
+        this.slots = new HashMap<>();
+    }
+
+    // Add an appointment that arrived at arrivalMillis, ranked by its triage level.
+    // Returns false if it is already waiting.
+    synchronized boolean offer(Appointment appointment, long arrivalMillis) {
+        if (slots.containsKey(appointment.getId())) {
+            return false;
+        }
+        if (size == entries.length) {
+            grow();
+        }
+
+        int slot = size++;
+        entries[slot] = appointment;
+        arrivals[slot] = arrivalMillis;
+        ranks[slot] = rank(arrivalMillis, appointment.getTriageLevel());
+        seqs[slot] = nextSeq++;
+        slots.put(appointment.getId(), slot);
+        order.insert(ranks[slot], seqs[slot], appointment);
+        siftUp(slot);
+        return true;
+    }
+
+    // Remove and return the highest-priority appointment, or null if empty.
+    synchronized Appointment poll() {
+        if (size == 0) {
+            return null;
+        }
+        Appointment first = entries[0];
+        removeAt(0);
+        return first;
+    }
+
+    synchronized Appointment peek() {
+        return size > 0 ? entries[0] : null;
+    }
+
+    // Remove an appointment wherever it waits. Returns false if it was not queued.
+    synchronized boolean remove(Appointment appointment) {
+        Integer slot = slots.get(appointment.getId());
+        if (slot == null) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    // Re-rank a waiting appointment after its triage level changed. Keeps its arrival time.
+    // Returns false if it is not queued.
+    synchronized boolean reprioritize(int appointmentId) {
+        Integer slot = slots.get(appointmentId);
+        if (slot == null) {
+            return false;
+        }
+        long oldRank = ranks[slot];
+        order.delete(oldRank, seqs[slot]);
+        ranks[slot] = rank(arrivals[slot], entries[slot].getTriageLevel());
+        order.insert(ranks[slot], seqs[slot], entries[slot]);
+        if (ranks[slot] < oldRank) {
+            siftUp(slot);
+        } else {
+            siftDown(slot);
+        }
+        return true;
+    }
+
+    synchronized boolean contains(Appointment appointment) {
+        return slots.containsKey(appointment.getId());
+    }
+
+    // Get the 1-based position of a waiting appointment in service order, or -1 if
+    // it is not queued.
+    synchronized int position(int appointmentId) {
+        Integer slot = slots.get(appointmentId);
+        return slot != null ? order.countBefore(ranks[slot], seqs[slot]) + 1 : -1;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Snapshot of the waiting appointments in service order.
+    synchronized List<Appointment> toList() {
+        List<Appointment> result = new ArrayList<>(size);
+        order.forEach((appointment, position) -> result.add(appointment));
+        return result;
+    }
+
+    // Visit the waiting appointments in service order with their 1-based positions,
+    // without copying the queue. The queue stays locked meanwhile, so the visitor
+    // should be quick and must not change the queue.
+    synchronized void forEach(ObjIntConsumer<Appointment> visitor) {
+        order.forEach(visitor);
+    }
+
+    // Lower rank is served first; the head start is subtracted from the arrival time.
+    private static long rank(long arrivalMillis, TriageLevel level) {
+        TriageLevel effective = level != null ? level : TriageLevel.STANDARD;
+        return arrivalMillis - effective.getHeadStartMinutes() * 60_000L;
+    }
+
+    private boolean less(int a, int b) {
+        return ranks[a] < ranks[b] || (ranks[a] == ranks[b] && seqs[a] < seqs[b]);
+    }
+
+    private void removeAt(int slot) {
+        order.delete(ranks[slot], seqs[slot]);
+        slots.remove(entries[slot].getId());
+        int last = --size;
+        if (slot != last) {
+            move(last, slot);
+            entries[last] = null;
+            // The moved entry may belong above or below its new slot
+            siftUp(slot);
+            siftDown(slot);
+        } else {
+            entries[last] = null;
+        }
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!less(slot, parent)) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int left = 2 * slot + 1;
+            if (left >= size) {
+                break;
+            }
+            int child = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+            if (!less(child, slot)) {
+                break;
+            }
+            swap(slot, child);
+            slot = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Appointment entry = entries[a];
+        long rank = ranks[a];
+        long seq = seqs[a];
+        long arrival = arrivals[a];
+        move(b, a);
+        entries[b] = entry;
+        ranks[b] = rank;
+        seqs[b] = seq;
+        arrivals[b] = arrival;
+        slots.put(entry.getId(), b);
+    }
+
+    // Copy slot from into slot to (overwriting it) and update the ID map.
+    private void move(int from, int to) {
+        entries[to] = entries[from];
+        ranks[to] = ranks[from];
+        seqs[to] = seqs[from];
+        arrivals[to] = arrivals[from];
+        slots.put(entries[to].getId(), to);
+    }
+
+    private void grow() {
+        int capacity = entries.length * 2;
+        entries = Arrays.copyOf(entries, capacity);
+        ranks = Arrays.copyOf(ranks, capacity);
+        seqs = Arrays.copyOf(seqs, capacity);
+        arrivals = Arrays.copyOf(arrivals, capacity);
+    }
+
+    // Order-statistic treap over (rank, seq) keys: each node knows the size of
+    // its subtree, so counting the keys before a key is one walk from the root,
+    // and an in-order walk visits the entries in service order.
+    // Node priorities are a hash of the (unique) sequence number, which keeps the
+    // tree balanced in expectation without a random source.
+    private static final class RankTree {
+        private static final class Node {
+            final long rank;
+            final long seq;
+            final long priority;
+            final Appointment appointment;
+            int count = 1;
+            Node left;
+            Node right;
+
+            Node(long rank, long seq, Appointment appointment) {
+                this.rank = rank;
+                this.seq = seq;
+                this.priority = seq * 0x9E3779B97F4A7C15L;
+                this.appointment = appointment;
+            }
+        }
+
+        private Node root;
+
+        void insert(long rank, long seq, Appointment appointment) {
+            root = insert(root, new Node(rank, seq, appointment));
+        }
+
+        void delete(long rank, long seq) {
+            root = delete(root, rank, seq);
+        }
+
+        // Number of keys ordered before (rank, seq)
+        int countBefore(long rank, long seq) {
+            int count = 0;
+            Node node = root;
+            while (node != null) {
+                if (before(node.rank, node.seq, rank, seq)) {
+                    count += count(node.left) + 1;
+                    node = node.right;
+                } else {
+                    node = node.left;
+                }
+            }
+            return count;
+        }
+
+        // Visit the entries in key order, numbering them from 1
+        void forEach(ObjIntConsumer<Appointment> visitor) {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            int position = 0;
+            while (node != null || !path.isEmpty()) {
+                while (node != null) {
+                    path.push(node);
+                    node = node.left;
+                }
+                node = path.pop();
+                visitor.accept(node.appointment, ++position);
+                node = node.right;
+            }
+        }
+
+        private static boolean before(long rankA, long seqA, long rankB, long seqB) {
+            return rankA < rankB || (rankA == rankB && seqA < seqB);
+        }
+
+        private static int count(Node node) {
+            return node != null ? node.count : 0;
+        }
+
+        private static Node insert(Node node, Node added) {
+            if (node == null) {
+                return added;
+            }
+            if (added.priority > node.priority) {
+                // The new node becomes this subtree's root; split the old one around it
+                Node[] halves = split(node, added.rank, added.seq);
+                added.left = halves[0];
+                added.right = halves[1];
+                added.count = count(added.left) + count(added.right) + 1;
+                return added;
+            }
+            if (before(added.rank, added.seq, node.rank, node.seq)) {
+                node.left = insert(node.left, added);
+            } else {
+                node.right = insert(node.right, added);
+            }
+            node.count++;
+            return node;
+        }
+
+        private static Node delete(Node node, long rank, long seq) {
+            if (node == null) {
+                return null;
+            }
+            if (node.rank == rank && node.seq == seq) {
+                return merge(node.left, node.right);
+            }
+            if (before(rank, seq, node.rank, node.seq)) {
+                node.left = delete(node.left, rank, seq);
+            } else {
+                node.right = delete(node.right, rank, seq);
+            }
+            node.count = count(node.left) + count(node.right) + 1;
+            return node;
+        }
+
+        // Split a subtree into the keys before (rank, seq) and the rest.
+        private static Node[] split(Node node, long rank, long seq) {
+            if (node == null) {
+                return new Node[2];
+            }
+            Node[] halves;
+            if (before(node.rank, node.seq, rank, seq)) {
+                halves = split(node.right, rank, seq);
+                node.right = halves[0];
+                halves[0] = node;
+            } else {
+                halves = split(node.left, rank, seq);
+                node.left = halves[1];
+                halves[1] = node;
+            }
+            node.count = count(node.left) + count(node.right) + 1;
+            return halves;
+        }
+
+        // Join two subtrees where every key of the first comes before the second.
+        private static Node merge(Node first, Node second) {
+            if (first == null) {
+                return second;
+            }
+            if (second == null) {
+                return first;
+            }
+            if (first.priority > second.priority) {
+                first.right = merge(first.right, second);
+                first.count = count(first.left) + count(first.right) + 1;
+                return first;
+            }
+            second.left = merge(first, second.left);
+            second.count = count(second.left) + count(second.right) + 1;
+            return second;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package clinicapp.simulation;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.TriageLevel;
+import clinicapp.model.Doctor;
+import clinicapp.model.Patient;
+import clinicapp.service.AppointmentManager;
+import clinicapp.service.DoctorManager;
+import clinicapp.service.PatientManager;
+import clinicapp.util.Histogram;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Headless discrete-event simulation of clinic days, driven through the real
+ * PatientManager, DoctorManager and AppointmentManager on a virtual clock.
+ *
+ * Each clinic day, every doctor gets a random number of bookings placed into free
+ * slots; booked patients arrive around their slot time or do not show up, walk-ins
+ * arrive as a Poisson process and are routed to the least-loaded doctor of a random
+ * specialization. A free doctor sees the next due booked patient, otherwise the next
+ * walk-in in their queue, for a randomly drawn service time. Time jumps from event
+ * to event, so a simulated year runs in seconds.
+ *
+ * Reports throughput, waits, doctor utilization and the engine's own latency per
+ * operation (wall-clock time spent inside the managers).
+ *
+ * Run: java clinicapp.simulation.ClinicSimulator [key=value ...]
+ * e.g. java clinicapp.simulation.ClinicSimulator days=365 walkInsPerHour=8 noShowRate=0.15
+ */
+public class ClinicSimulator {
+
+    // How service times are drawn
+    public enum ServiceTimeDistribution {
+        FIXED,       // always the mean
+        EXPONENTIAL, // memoryless, coefficient of variation 1
+        LOGNORMAL    // right-skewed with the configured coefficient of variation
+    }
+
+    // Simulation settings. Public fields with defaults, changed before run().
+    public static class Config {
+        public long seed = 42;
+        public int days = 365;
+        public LocalDate startDate = LocalDate.of(2025, 1, 6); // a Monday
+        public List<String> specializations = List.of("General Practice", "Pediatrics", "Cardiology");
+        public int doctorsPerSpecialization = 3;
+        public Set<DayOfWeek> workingDays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+        public LocalTime openTime = LocalTime.of(8, 0);
+        public LocalTime closeTime = LocalTime.of(17, 0);
+        public int slotMinutes = 30;
+        public int patientPool = 5000;
+
+        // Mean bookings per doctor per clinic day (Poisson)
+        public double bookedPerDoctorPerDay = 12;
+        // Mean walk-ins per open hour for the whole clinic (Poisson process)
+        public double walkInsPerHour = 6;
+        // Share of booked patients who never arrive
+        public double noShowRate = 0.1;
+        // Booked patients arrive uniformly within this many minutes of their slot start
+        public int arrivalSpreadMinutes = 10;
+        // No-shows are marked once this many minutes of their slot have passed
+        public int noShowGraceMinutes = 15;
+
+        public ServiceTimeDistribution serviceTimeDistribution = ServiceTimeDistribution.LOGNORMAL;
+        public double meanServiceMinutes = 20;
+        public double serviceTimeCv = 0.5;
+    }
+
+    // Event kinds, in the order they are handled when due at the same moment
+    private static final int DAY_START = 0;
+    private static final int SERVICE_END = 1;
+    private static final int NO_SHOW = 2;
+    private static final int BOOKED_ARRIVAL = 3;
+    private static final int WALK_IN_ARRIVAL = 4;
+
+    private static final long MINUTE = 60_000L;
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+
+    private final Config config;
+    private final Random random;
+    private final VirtualClock clock;
+    private final PatientManager patientManager;
+    private final DoctorManager doctorManager;
+    private final AppointmentManager appointmentManager;
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long nextSeq;
+
+    private final List<Patient> patients = new ArrayList<>();
+    private final List<DoctorState> doctors = new ArrayList<>();
+    private final Map<Integer, DoctorState> doctorsById = new HashMap<>();
+    private final Map<Integer, Long> arrivals = new HashMap<>(); // appointment ID -> arrival millis
+
+    // Results
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+    private final Histogram bookedWaits = new Histogram();  // seconds
+    private final Histogram walkInWaits = new Histogram();  // seconds
+    private long booked;
+    private long rejectedBookings;
+    private long noShows;
+    private long walkIns;
+    private long turnedAway;
+    private long completed;
+    private int peakWalkInQueue;
+    private int clinicDays;
+    private long openMillisPerDoctor;
+
+    public ClinicSimulator(Config config) {
+        this.config = config;
+        this.random = new Random(config.seed);
+        this.clock = new VirtualClock(config.startDate.atStartOfDay(), ZONE);
+        this.patientManager = new PatientManager();
+        this.doctorManager = new DoctorManager();
+        this.appointmentManager = new AppointmentManager(patientManager, doctorManager,
+                AppointmentManager.DEFAULT_UNDO_CAPACITY, clock);
+    }
+
+    public static void main(String[] args) {
+        Config config = new Config();
+        for (String arg : args) {
+            apply(config, arg);
+        }
+        ClinicSimulator simulator = new ClinicSimulator(config);
+        long start = System.nanoTime();
+        simulator.run();
+        long wallNanos = System.nanoTime() - start;
+        System.out.print(simulator.report(wallNanos));
+    }
+
+    // Set up the clinic and process events until the last simulated day is done.
+    public void run() {
+        List<String> dayNames = new ArrayList<>();
+        for (DayOfWeek day : config.workingDays) {
+            dayNames.add(day.name());
+        }
+        for (String specialization : config.specializations) {
+            for (int i = 1; i <= config.doctorsPerSpecialization; i++) {
+                Doctor doctor = doctorManager.addDoctor("Dr. " + specialization + " " + i, specialization,
+                        "5550000000", null, dayNames, config.openTime.toString(), config.closeTime.toString());
+                DoctorState state = new DoctorState(doctor);
+                doctors.add(state);
+                doctorsById.put(doctor.getId(), state);
+            }
+        }
+        for (int i = 0; i < config.patientPool; i++) {
+            patients.add(patientManager.addPatient("Patient " + i,
+                    LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    random.nextBoolean() ? "Male" : "Female", "5551234567", null, "", null, null));
+        }
+
+        schedule(millisOf(config.startDate, LocalTime.MIDNIGHT), DAY_START, null, config.startDate);
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            clock.setMillis(event.time);
+            switch (event.kind) {
+                case DAY_START:
+                    startDay(event.date);
+                    break;
+                case SERVICE_END:
+                    endService(event.doctor);
+                    break;
+                case NO_SHOW:
+                    timed("markNoShow", () -> appointmentManager.markNoShow(event.appointment.getId()));
+                    noShows++;
+                    break;
+                case BOOKED_ARRIVAL:
+                    arriveBooked(event.appointment);
+                    break;
+                case WALK_IN_ARRIVAL:
+                    arriveWalkIn(event.date);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event " + event.kind);
+            }
+        }
+    }
+
+    // Book the day's appointments and start its walk-in arrivals; queue the next day.
+    private void startDay(LocalDate date) {
+        LocalDate next = date.plusDays(1);
+        if (next.isBefore(config.startDate.plusDays(config.days))) {
+            schedule(millisOf(next, LocalTime.MIDNIGHT), DAY_START, null, next);
+        }
+        if (!config.workingDays.contains(date.getDayOfWeek())) {
+            return;
+        }
+        clinicDays++;
+
+        for (DoctorState state : doctors) {
+            List<AppointmentManager.TimeSlot> free = new ArrayList<>();
+            for (AppointmentManager.TimeSlot slot : timed("getAvailableTimeSlots",
+                    () -> appointmentManager.getAvailableTimeSlots(state.doctor, date, config.slotMinutes))) {
+                if (slot.isAvailable()) {
+                    free.add(slot);
+                }
+            }
+            Collections.shuffle(free, random);
+
+            int wanted = poisson(config.bookedPerDoctorPerDay);
+            rejectedBookings += Math.max(0, wanted - free.size());
+            for (int i = 0; i < Math.min(wanted, free.size()); i++) {
+                AppointmentManager.TimeSlot slot = free.get(i);
+                Appointment appointment = timed("scheduleAppointment", () -> appointmentManager.scheduleAppointment(
+                        randomPatient(), state.doctor, date, slot.getStartTime(), slot.getEndTime(), "Booked visit"));
+                if (appointment == null) {
+                    rejectedBookings++;
+                    continue;
+                }
+                booked++;
+                long slotStart = millisOf(date, slot.getStartTime());
+                if (random.nextDouble() < config.noShowRate) {
+                    schedule(slotStart + config.noShowGraceMinutes * MINUTE, NO_SHOW, appointment, date);
+                } else {
+                    long spread = config.arrivalSpreadMinutes * MINUTE;
+                    long offset = spread > 0 ? (long) ((random.nextDouble() * 2 - 1) * spread) : 0;
+                    schedule(slotStart + offset, BOOKED_ARRIVAL, appointment, date);
+                }
+            }
+        }
+
+        long open = millisOf(date, config.openTime);
+        long close = millisOf(date, config.closeTime);
+        openMillisPerDoctor += close - open;
+        if (config.walkInsPerHour > 0) {
+            long first = open + nextArrivalGap();
+            if (first < close) {
+                schedule(first, WALK_IN_ARRIVAL, null, date);
+            }
+        }
+    }
+
+    // A booked patient checks in and waits for their doctor.
+    private void arriveBooked(Appointment appointment) {
+        if (!timed("confirmAppointment", () -> appointmentManager.confirmAppointment(appointment.getId()))) {
+            return;
+        }
+        DoctorState state = doctorsById.get(appointment.getDoctor().getId());
+        arrivals.put(appointment.getId(), clock.millis());
+        state.waitingBooked.add(appointment);
+        tryStart(state);
+    }
+
+    // A walk-in arrives, is routed to a doctor, and the next walk-in is scheduled.
+    private void arriveWalkIn(LocalDate date) {
+        long next = clock.millis() + nextArrivalGap();
+        if (next < millisOf(date, config.closeTime)) {
+            schedule(next, WALK_IN_ARRIVAL, null, date);
+        }
+
+        String specialization = config.specializations.get(random.nextInt(config.specializations.size()));
+        TriageLevel level = randomTriageLevel();
+        Appointment appointment = timed("scheduleWalkIn",
+                () -> appointmentManager.scheduleWalkIn(randomPatient(), specialization, "Walk-in", level));
+        if (appointment == null) {
+            turnedAway++;
+            return;
+        }
+        walkIns++;
+        arrivals.put(appointment.getId(), clock.millis());
+        peakWalkInQueue = Math.max(peakWalkInQueue, appointmentManager.getWalkInQueueSize());
+        tryStart(doctorsById.get(appointment.getDoctor().getId()));
+    }
+
+    private void endService(DoctorState state) {
+        Appointment appointment = state.current;
+        timed("markCompleted", () -> appointmentManager.markCompleted(appointment.getId()));
+        completed++;
+
+        long now = clock.millis();
+        state.busyMillis += now - state.busySince;
+        long close = millisOf(appointment.getAppointmentDate(), config.closeTime);
+        if (now > close) {
+            state.overtimeMillis += now - Math.max(close, state.busySince);
+        }
+        state.current = null;
+        tryStart(state);
+    }
+
+    // If the doctor is free, see a booked patient whose slot has come, else the next
+    // walk-in, else a booked patient who arrived early.
+    private void tryStart(DoctorState state) {
+        if (state.current != null) {
+            return;
+        }
+        long now = clock.millis();
+        Appointment due = state.waitingBooked.peek();
+        Appointment next = null;
+        if (due == null || slotStart(due) > now) {
+            // processNextWalkIn also marks the walk-in IN_PROGRESS
+            next = timed("processNextWalkIn", () -> appointmentManager.processNextWalkIn(state.doctor.getId()));
+            if (next != null) {
+                walkInWaits.record((now - arrivals.remove(next.getId())) / 1000);
+            }
+        }
+        if (next == null && due != null) {
+            next = state.waitingBooked.poll();
+            timed("markInProgress", () -> appointmentManager.markInProgress(due.getId()));
+            long ready = Math.max(arrivals.remove(due.getId()), slotStart(due));
+            bookedWaits.record(Math.max(0, now - ready) / 1000);
+        }
+        if (next == null) {
+            return;
+        }
+
+        state.current = next;
+        state.busySince = now;
+        schedule(now + sampleServiceMillis(), SERVICE_END, next, null, state);
+    }
+
+    // Build the text report.
+    public String report(long wallNanos) {
+        StringBuilder out = new StringBuilder();
+        double simulatedHours = clinicDays * (double) (millisOf(config.startDate, config.closeTime)
+                - millisOf(config.startDate, config.openTime)) / (60 * MINUTE);
+        out.append(String.format("Simulated %d days (%d clinic days), %d doctors in %d specializations, seed %d%n",
+                config.days, clinicDays, doctors.size(), config.specializations.size(), config.seed));
+        double wallSeconds = wallNanos / 1e9;
+        out.append(String.format("Wall time: %.2f s (%,.0fx real time)%n%n", wallSeconds,
+                config.days * 86_400.0 / Math.max(wallSeconds, 1e-9)));
+
+        out.append("Patients\n");
+        out.append(String.format("  Booked appointments %,10d  (%,d requests found no free slot)%n", booked, rejectedBookings));
+        out.append(String.format("  No-shows            %,10d  (%.1f%% of booked)%n", noShows,
+                booked > 0 ? 100.0 * noShows / booked : 0));
+        out.append(String.format("  Walk-ins            %,10d  (%,d turned away, peak queue %d)%n", walkIns, turnedAway,
+                peakWalkInQueue));
+        out.append(String.format("  Completed visits    %,10d  (%.1f per clinic day, %.1f per open hour)%n%n", completed,
+                clinicDays > 0 ? (double) completed / clinicDays : 0,
+                simulatedHours > 0 ? completed / simulatedHours : 0));
+
+        out.append(String.format("Wait (minutes)      %8s %8s %8s %8s %8s%n", "mean", "p50", "p90", "p99", "max"));
+        appendWaits(out, "Booked", bookedWaits);
+        appendWaits(out, "Walk-in", walkInWaits);
+        out.append('\n');
+
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        double sum = 0;
+        long overtime = 0;
+        for (DoctorState state : doctors) {
+            double utilization = openMillisPerDoctor > 0 ? (double) state.busyMillis / openMillisPerDoctor : 0;
+            min = Math.min(min, utilization);
+            max = Math.max(max, utilization);
+            sum += utilization;
+            overtime += state.overtimeMillis;
+        }
+        out.append(String.format("Doctor utilization  mean %.1f%%, min %.1f%%, max %.1f%%, overtime %,.1f h in total%n%n",
+                100 * sum / Math.max(1, doctors.size()), 100 * (doctors.isEmpty() ? 0 : min), 100 * max,
+                overtime / (60.0 * MINUTE)));
+
+        out.append(String.format("Engine latency (us)  %10s %8s %8s %8s %8s %8s%n", "count", "mean", "p50", "p99", "p999", "max"));
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            Histogram h = entry.getValue();
+            out.append(String.format("  %-20s %,10d %8.1f %8.1f %8.1f %8.1f %8.1f%n", entry.getKey(), h.getCount(),
+                    h.getMean() / 1000, h.getPercentile(50) / 1000.0, h.getPercentile(99) / 1000.0,
+                    h.getPercentile(99.9) / 1000.0, h.getMax() / 1000.0));
+        }
+        return out.toString();
+    }
+
+    private static void appendWaits(StringBuilder out, String label, Histogram waits) {
+        out.append(String.format("  %-17s %8.1f %8.1f %8.1f %8.1f %8.1f%n", label, waits.getMean() / 60,
+                waits.getPercentile(50) / 60.0, waits.getPercentile(90) / 60.0, waits.getPercentile(99) / 60.0,
+                waits.getMax() / 60.0));
+    }
+
+    // Run an engine call and record how long it took.
+    private <T> T timed(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        T result = call.get();
+        latencies.computeIfAbsent(operation, op -> new Histogram()).record(System.nanoTime() - start);
+        return result;
+    }
+
+    private void schedule(long time, int kind, Appointment appointment, LocalDate date) {
+        schedule(time, kind, appointment, date, null);
+    }
+
+    private void schedule(long time, int kind, Appointment appointment, LocalDate date, DoctorState doctor) {
+        events.add(new Event(time, kind, nextSeq++, appointment, date, doctor));
+    }
+
+    private long slotStart(Appointment appointment) {
+        return millisOf(appointment.getAppointmentDate(), appointment.getStartTime());
+    }
+
+    private long millisOf(LocalDate date, LocalTime time) {
+        return date.atTime(time).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private Patient randomPatient() {
+        return patients.get(random.nextInt(patients.size()));
+    }
+
+    private TriageLevel randomTriageLevel() {
+        double roll = random.nextDouble();
+        if (roll < 0.02) return TriageLevel.IMMEDIATE;
+        if (roll < 0.15) return TriageLevel.URGENT;
+        if (roll < 0.80) return TriageLevel.STANDARD;
+        return TriageLevel.NON_URGENT;
+    }
+
+    // Gap to the next walk-in of a Poisson process with walkInsPerHour arrivals per hour.
+    private long nextArrivalGap() {
+        return (long) (-Math.log(1 - random.nextDouble()) / config.walkInsPerHour * 60 * MINUTE);
+    }
+
+    private long sampleServiceMillis() {
+        double mean = config.meanServiceMinutes;
+        double minutes;
+        switch (config.serviceTimeDistribution) {
+            case FIXED:
+                minutes = mean;
+                break;
+            case EXPONENTIAL:
+                minutes = -Math.log(1 - random.nextDouble()) * mean;
+                break;
+            default:
+                double sigma2 = Math.log(1 + config.serviceTimeCv * config.serviceTimeCv);
+                minutes = Math.exp(Math.log(mean) - sigma2 / 2 + Math.sqrt(sigma2) * random.nextGaussian());
+                break;
+        }
+        return Math.max(MINUTE, (long) (minutes * MINUTE));
+    }
+
+    // Poisson-distributed count with the given mean (normal approximation above 30).
+    private int poisson(double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        if (mean > 30) {
+            return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    // Apply one key=value command-line setting.
+    private static void apply(Config config, String arg) {
+        String[] parts = arg.split("=", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected key=value, got: " + arg);
+        }
+        String value = parts[1].trim();
+        switch (parts[0].trim()) {
+            case "seed": config.seed = Long.parseLong(value); break;
+            case "days": config.days = Integer.parseInt(value); break;
+            case "startDate": config.startDate = LocalDate.parse(value); break;
+            case "specializations": config.specializations = List.of(value.split(",")); break;
+            case "doctorsPerSpecialization": config.doctorsPerSpecialization = Integer.parseInt(value); break;
+            case "openTime": config.openTime = LocalTime.parse(value); break;
+            case "closeTime": config.closeTime = LocalTime.parse(value); break;
+            case "slotMinutes": config.slotMinutes = Integer.parseInt(value); break;
+            case "patientPool": config.patientPool = Integer.parseInt(value); break;
+            case "bookedPerDoctorPerDay": config.bookedPerDoctorPerDay = Double.parseDouble(value); break;
+            case "walkInsPerHour": config.walkInsPerHour = Double.parseDouble(value); break;
+            case "noShowRate": config.noShowRate = Double.parseDouble(value); break;
+            case "arrivalSpreadMinutes": config.arrivalSpreadMinutes = Integer.parseInt(value); break;
+            case "noShowGraceMinutes": config.noShowGraceMinutes = Integer.parseInt(value); break;
+            case "serviceTimeDistribution":
+                config.serviceTimeDistribution = ServiceTimeDistribution.valueOf(value.toUpperCase());
+                break;
+            case "meanServiceMinutes": config.meanServiceMinutes = Double.parseDouble(value); break;
+            case "serviceTimeCv": config.serviceTimeCv = Double.parseDouble(value); break;
+            default: throw new IllegalArgumentException("Unknown setting: " + parts[0]);
+        }
+    }
+
+    // One doctor's state during the simulation
+    private static class DoctorState {
+        final Doctor doctor;
+        // Checked-in booked patients, earliest slot first
+        final PriorityQueue<Appointment> waitingBooked = new PriorityQueue<>(
+                Comparator.comparing(Appointment::getStartTime).thenComparingInt(Appointment::getId));
+        Appointment current;
+        long busySince;
+        long busyMillis;
+        long overtimeMillis;
+
+        DoctorState(Doctor doctor) {
+            this.doctor = doctor;
+        }
+    }
+
+    // Something that happens at a moment of simulated time
+    private static class Event implements Comparable<Event> {
+        final long time;
+        final int kind;
+        final long seq;
+        final Appointment appointment;
+        final LocalDate date;
+        final DoctorState doctor;
+
+        Event(long time, int kind, long seq, Appointment appointment, LocalDate date, DoctorState doctor) {
+            this.time = time;
+            this.kind = kind;
+            this.seq = seq;
+            this.appointment = appointment;
+            this.date = date;
+            this.doctor = doctor;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            if (time != other.time) {
+                return Long.compare(time, other.time);
+            }
+            if (kind != other.kind) {
+                return Integer.compare(kind, other.kind);
+            }
+            return Long.compare(seq, other.seq);
+        }
+    }
+}
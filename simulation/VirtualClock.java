@@ -0,0 +1,56 @@
+package clinicapp.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// A clock that only moves when the simulation moves it. Handed to
+// AppointmentManager so "now" (walk-in arrivals, status transition times,
+// today's date) follows simulated time instead of the wall clock.
+public class VirtualClock extends Clock {
+    private final ZoneId zone;
+    private volatile long millis;
+
+    public VirtualClock(LocalDateTime start, ZoneId zone) {
+        this.zone = zone;
+        this.millis = start.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private VirtualClock(long millis, ZoneId zone) {
+        this.zone = zone;
+        this.millis = millis;
+    }
+
+    // Move the clock to a point in time. Time never runs backwards.
+    public void setMillis(long newMillis) {
+        if (newMillis > millis) {
+            millis = newMillis;
+        }
+    }
+
+    public LocalDateTime now() {
+        return LocalDateTime.ofInstant(instant(), zone);
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // Returns a frozen copy in another zone; only this clock is advanced by the simulation.
+    @Override
+    public Clock withZone(ZoneId newZone) {
+        return new VirtualClock(millis, newZone);
+    }
+}
@@ -0,0 +1,567 @@
+package clinicapp.util;
+
+import clinicapp.model.Appointment;
+import clinicapp.model.Appointment.AppointmentStatus;
+import clinicapp.model.Doctor;
+import clinicapp.model.DoctorSchedule;
+import clinicapp.model.Patient;
+import clinicapp.service.AppointmentManager;
+import clinicapp.service.DoctorManager;
+import clinicapp.service.PatientManager;
+import com.opencsv.CSVWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seeded generator of realistic clinic data at any scale: patients with
+ * plausible names, ages, blood types and allergies, doctors with varied rosters
+ * (weekday, alternate-day, weekend and split shifts), and years of appointment
+ * history ending in every AppointmentStatus.
+ *
+ * Every patient and every doctor's history is drawn from its own random stream
+ * derived from the seed and its position, so the same Config always produces the
+ * same people and bookings no matter how many threads do the work. (IDs come from
+ * the shared allocators, so with more than one thread the ID given to a record
+ * can differ between runs; use threads=1 when IDs must repeat too.)
+ *
+ * Patients are added in parallel chunks and each doctor's history is booked by
+ * its own task; AppointmentManager locks per doctor, so those tasks rarely meet.
+ * writePatientsCsv and writeDoctorsCsv produce the files CsvImporter reads.
+ *
+ * Run: java clinicapp.util.DatasetGenerator [key=value ...]
+ * e.g. java clinicapp.util.DatasetGenerator patients=1000000 doctors=500 historyDays=1095
+ *      java clinicapp.util.DatasetGenerator patients=1000000 csv=exports/
+ */
+public class DatasetGenerator {
+
+    // Generator settings. Public fields with defaults, changed before use.
+    public static class Config {
+        public long seed = 42;
+        public int patients = 10_000;
+        public int doctors = 50;
+        // Appointment history runs from today - historyDays to today + futureDays
+        public int historyDays = 730;
+        public int futureDays = 30;
+        public LocalDate today = LocalDate.of(2025, 6, 2);
+        // Appointments before this time today are over, the one around it is in progress
+        public LocalTime nowTime = LocalTime.of(12, 0);
+        public int slotMinutes = 30;
+        // Share of a doctor's slots that get booked
+        public double fillRate = 0.6;
+        // Share of bookings that take two slots
+        public double longVisitRate = 0.15;
+        public double cancelRate = 0.08;
+        public double noShowRate = 0.06;
+        // Share of upcoming bookings already confirmed
+        public double confirmRate = 0.4;
+        public int threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    // What was generated
+    public static class Result {
+        public final List<Patient> patients;
+        public final List<Doctor> doctors;
+        public final Map<AppointmentStatus, Long> appointmentsByStatus = new EnumMap<>(AppointmentStatus.class);
+        public long rejectedBookings;
+        public long elapsedMillis;
+
+        Result(List<Patient> patients, List<Doctor> doctors) {
+            this.patients = patients;
+            this.doctors = doctors;
+        }
+
+        public long getAppointmentCount() {
+            long total = 0;
+            for (long count : appointmentsByStatus.values()) {
+                total += count;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return "Patients: " + patients.size() + ", Doctors: " + doctors.size()
+                    + ", Appointments: " + getAppointmentCount() + " " + appointmentsByStatus
+                    + (rejectedBookings > 0 ? ", rejected: " + rejectedBookings : "")
+                    + " in " + elapsedMillis + " ms";
+        }
+    }
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // Separate random streams, so adding a field to patients never shifts doctors
+    private static final int PATIENT_STREAM = 1;
+    private static final int DOCTOR_STREAM = 2;
+    private static final int HISTORY_STREAM = 3;
+
+    private static final int CHUNK_SIZE = 4096;
+
+    // Earlier names are drawn more often (see skewed), like real name frequencies
+    private static final String[] MALE_NAMES = { "James", "John", "Robert", "Michael", "David", "William",
+            "Joseph", "Daniel", "Carlos", "Jose", "Mark", "Paul", "Wei", "Ahmed", "Miguel", "Kevin", "Thomas",
+            "Andrew", "Luis", "Raj", "Kenji", "Ethan", "Noah", "Liam", "Gabriel" };
+    private static final String[] FEMALE_NAMES = { "Mary", "Maria", "Jennifer", "Linda", "Elizabeth", "Sarah",
+            "Patricia", "Ana", "Jessica", "Karen", "Emily", "Grace", "Mei", "Aisha", "Sofia", "Priya", "Hannah",
+            "Olivia", "Emma", "Chloe", "Yuki", "Fatima", "Isabel", "Rosa", "Nicole" };
+    private static final String[] LAST_NAMES = { "Smith", "Garcia", "Santos", "Reyes", "Johnson", "Cruz",
+            "Williams", "Brown", "Nguyen", "Rodriguez", "Lee", "Martinez", "Bautista", "Tan", "Kim", "Jones",
+            "Lopez", "Chen", "Davis", "Mendoza", "Wilson", "Khan", "Patel", "Torres", "Ramos", "Anderson",
+            "Flores", "Taylor", "Aquino", "Walker", "Dela Cruz", "Castillo", "Wang", "Singh", "Moore",
+            "Villanueva", "Clark", "Hernandez", "Ali", "Yamamoto" };
+    private static final String[] STREETS = { "Main St", "Oak Ave", "Pine Rd", "Maple Dr", "Cedar Ln",
+            "Rizal Ave", "Mabini St", "Lakeview Rd", "Hillside Dr", "Sunset Blvd", "Park Ave", "River Rd" };
+
+    // Blood types with their share of the population, in percent
+    private static final String[] BLOOD_TYPES = { "O+", "A+", "B+", "AB+", "O-", "A-", "B-", "AB-" };
+    private static final int[] BLOOD_TYPE_WEIGHTS = { 38, 34, 9, 3, 7, 6, 2, 1 };
+
+    private static final String[] ALLERGIES = { "Penicillin", "Peanuts", "Latex", "Sulfa drugs", "Shellfish",
+            "Aspirin", "Pollen", "Eggs", "Dust mites", "Ibuprofen" };
+
+    // Specializations with how many doctors of each a clinic tends to have
+    private static final String[] SPECIALIZATIONS = { "General Practice", "Pediatrics", "Internal Medicine",
+            "Cardiology", "Dermatology", "Orthopedics", "Obstetrics", "ENT", "Ophthalmology", "Psychiatry" };
+    private static final int[] SPECIALIZATION_WEIGHTS = { 30, 15, 12, 8, 7, 7, 6, 5, 5, 5 };
+
+    // Rosters: days worked and one or more shifts (comma-separated, as DoctorSchedule reads them)
+    private static final String[][] ROSTER_DAYS = {
+            { "Monday", "Tuesday", "Wednesday", "Thursday", "Friday" },
+            { "Monday", "Wednesday", "Friday" },
+            { "Tuesday", "Thursday", "Saturday" },
+            { "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday" },
+            { "Saturday", "Sunday" } };
+    private static final String[][] ROSTER_HOURS = {
+            { "08:00", "17:00" },
+            { "09:00", "17:00" },
+            { "10:00", "18:00" },
+            { "08:00,13:00", "12:00,17:00" },
+            { "07:00", "15:00" } };
+    private static final int[] ROSTER_WEIGHTS = { 40, 20, 15, 15, 10 };
+
+    private static final String[] REASONS = { "Regular checkup", "Follow-up visit", "Consultation",
+            "Fever and cough", "Vaccination", "Lab results review", "Prescription refill", "Back pain",
+            "Skin rash", "Blood pressure check", "Headache", "Annual physical" };
+
+    private final Config config;
+
+    public DatasetGenerator(Config config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Config config = new Config();
+        String csvDirectory = null;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length == 2 && parts[0].trim().equals("csv")) {
+                csvDirectory = parts[1].trim();
+            } else {
+                apply(config, arg);
+            }
+        }
+        DatasetGenerator generator = new DatasetGenerator(config);
+
+        if (csvDirectory != null) {
+            long start = System.nanoTime();
+            Path directory = Paths.get(csvDirectory);
+            Files.createDirectories(directory);
+            Path patients = directory.resolve("patients.csv");
+            Path doctors = directory.resolve("doctors.csv");
+            generator.writePatientsCsv(patients);
+            generator.writeDoctorsCsv(doctors);
+            System.out.println("Wrote " + config.patients + " patients to " + patients + " and "
+                    + config.doctors + " doctors to " + doctors + " in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return;
+        }
+
+        PatientManager patientManager = new PatientManager();
+        DoctorManager doctorManager = new DoctorManager();
+        AppointmentManager appointmentManager = new AppointmentManager(patientManager, doctorManager);
+        System.out.println(generator.generate(patientManager, doctorManager, appointmentManager));
+    }
+
+    /**
+     * Fill the managers with the configured patients, doctors and appointment history.
+     *
+     * @return The generated patients and doctors (in generation order) and counts
+     */
+    public Result generate(PatientManager patientManager, DoctorManager doctorManager,
+            AppointmentManager appointmentManager) {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, config.threads));
+        try {
+            Patient[] patients = new Patient[config.patients];
+            List<Future<?>> work = new ArrayList<>();
+            for (int from = 0; from < config.patients; from += CHUNK_SIZE) {
+                int chunkStart = from;
+                int chunkEnd = Math.min(config.patients, from + CHUNK_SIZE);
+                work.add(pool.submit(() -> {
+                    for (int i = chunkStart; i < chunkEnd; i++) {
+                        PatientData data = patient(i);
+                        patients[i] = patientManager.addPatient(data.name, data.dateOfBirth, data.gender,
+                                data.phoneNumber, data.email, data.address, data.bloodType, data.allergies);
+                    }
+                }));
+            }
+            await(work);
+
+            // Few doctors; added in order so their IDs follow the roster order
+            List<Doctor> doctors = new ArrayList<>(config.doctors);
+            for (int i = 0; i < config.doctors; i++) {
+                DoctorData data = doctor(i);
+                doctors.add(doctorManager.addDoctor(data.name, data.specialization, data.phoneNumber,
+                        data.email, data.availableDays, data.startTime, data.endTime));
+            }
+
+            Result result = new Result(Arrays.asList(patients), doctors);
+            AtomicLongArray statusCounts = new AtomicLongArray(AppointmentStatus.values().length + 1);
+            work.clear();
+            if (config.patients > 0) {
+                for (int i = 0; i < doctors.size(); i++) {
+                    int doctorIndex = i;
+                    work.add(pool.submit(() -> bookHistory(appointmentManager, doctors.get(doctorIndex),
+                            doctorIndex, patients, statusCounts)));
+                }
+                await(work);
+            }
+
+            for (AppointmentStatus status : AppointmentStatus.values()) {
+                result.appointmentsByStatus.put(status, statusCounts.get(status.ordinal()));
+            }
+            result.rejectedBookings = statusCounts.get(AppointmentStatus.values().length);
+            result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Book one doctor's appointments over the whole history window and move each
+    // to the status it would have reached by now.
+    private void bookHistory(AppointmentManager appointmentManager, Doctor doctor, int doctorIndex,
+            Patient[] patients, AtomicLongArray statusCounts) {
+        SplittableRandom random = new SplittableRandom(seedFor(HISTORY_STREAM, doctorIndex));
+        DoctorSchedule schedule = doctor.getSchedule();
+        LocalDateTime now = LocalDateTime.of(config.today, config.nowTime);
+        LocalDate last = config.today.plusDays(config.futureDays);
+        long[] counts = new long[statusCounts.length()];
+
+        for (LocalDate date = config.today.minusDays(config.historyDays); !date.isAfter(last);
+                date = date.plusDays(1)) {
+            if (!schedule.worksOn(date)) {
+                continue;
+            }
+            for (int shift = 0; shift < schedule.getShiftCount(); shift++) {
+                int shiftEnd = schedule.getShiftEndMinute(shift);
+                int minute = schedule.getShiftStartMinute(shift);
+                while (minute + config.slotMinutes <= shiftEnd) {
+                    int length = config.slotMinutes;
+                    if (random.nextDouble() < config.longVisitRate && minute + 2 * length <= shiftEnd) {
+                        length *= 2;
+                    }
+                    if (random.nextDouble() < config.fillRate) {
+                        LocalTime startTime = LocalTime.of(minute / 60, minute % 60);
+                        LocalTime endTime = startTime.plusMinutes(length);
+                        Appointment appointment = appointmentManager.scheduleAppointment(
+                                patients[random.nextInt(patients.length)], doctor, date, startTime, endTime,
+                                pick(random, REASONS));
+                        if (appointment == null) {
+                            counts[counts.length - 1]++;
+                        } else {
+                            settle(appointmentManager, appointment, now, random);
+                            counts[appointment.getStatus().ordinal()]++;
+                        }
+                    }
+                    minute += length;
+                }
+            }
+        }
+        for (int i = 0; i < counts.length; i++) {
+            statusCounts.addAndGet(i, counts[i]);
+        }
+    }
+
+    // Move a new booking to its final status based on where its slot lies relative to now.
+    private void settle(AppointmentManager appointmentManager, Appointment appointment, LocalDateTime now,
+            SplittableRandom random) {
+        int id = appointment.getId();
+        LocalDateTime start = LocalDateTime.of(appointment.getAppointmentDate(), appointment.getStartTime());
+        LocalDateTime end = LocalDateTime.of(appointment.getAppointmentDate(), appointment.getEndTime());
+        double outcome = random.nextDouble();
+
+        if (!end.isAfter(now)) {
+            if (outcome < config.cancelRate) {
+                appointmentManager.cancelAppointment(id);
+            } else if (outcome < config.cancelRate + config.noShowRate) {
+                appointmentManager.markNoShow(id);
+            } else {
+                appointmentManager.completeAppointment(id, null);
+                // Seen a little late, for somewhat less or more than the booked time
+                long bookedMinutes = Duration.between(start, end).toMinutes();
+                LocalDateTime startedAt = start.plusMinutes(random.nextInt(11));
+                appointment.setStartedAt(startedAt);
+                appointment.setCompletedAt(startedAt.plusMinutes(
+                        Math.max(5, Math.round(bookedMinutes * (0.6 + 0.5 * random.nextDouble())))));
+            }
+        } else if (!start.isAfter(now)) {
+            appointmentManager.confirmAppointment(id);
+            appointmentManager.markInProgress(id);
+            appointment.setStartedAt(start);
+        } else if (outcome < config.cancelRate / 2) {
+            appointmentManager.cancelAppointment(id);
+        } else if (outcome < config.cancelRate / 2 + config.confirmRate) {
+            appointmentManager.confirmAppointment(id);
+        }
+    }
+
+    // Write the patients as a CSV file in the layout CsvImporter.importPatients reads.
+    public void writePatientsCsv(Path file) throws IOException {
+        String[] header = { "ID", "Name", "Date of Birth", "Age", "Gender",
+                "Phone Number", "Email", "Address", "Blood Type", "Allergies" };
+        writeCsv(file, header, config.patients, i -> {
+            PatientData data = patient(i);
+            return new String[] {
+                    String.valueOf(i + 1),
+                    data.name,
+                    data.dateOfBirth.format(DATE_FORMATTER),
+                    String.valueOf(Period.between(data.dateOfBirth, config.today).getYears()),
+                    data.gender,
+                    data.phoneNumber,
+                    data.email != null ? data.email : "",
+                    data.address,
+                    data.bloodType != null ? data.bloodType : "",
+                    data.allergies != null ? data.allergies : ""
+            };
+        });
+    }
+
+    // Write the doctors as a CSV file in the layout CsvImporter.importDoctors reads.
+    public void writeDoctorsCsv(Path file) throws IOException {
+        String[] header = { "ID", "Name", "Specialization", "Phone Number",
+                "Email", "Available Days", "Start Time", "End Time", "Available" };
+        writeCsv(file, header, config.doctors, i -> {
+            DoctorData data = doctor(i);
+            return new String[] {
+                    String.valueOf(i + 1),
+                    data.name,
+                    data.specialization,
+                    data.phoneNumber,
+                    data.email,
+                    String.join(";", data.availableDays),
+                    data.startTime,
+                    data.endTime,
+                    "true"
+            };
+        });
+    }
+
+    private interface RowMaker {
+        String[] row(int index);
+    }
+
+    // Rows are made in parallel one batch at a time and written in order.
+    private void writeCsv(Path file, String[] header, int rows, RowMaker maker) throws IOException {
+        int threads = Math.max(1, config.threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (CSVWriter writer = new CSVWriter(Files.newBufferedWriter(file))) {
+            writer.writeNext(header);
+            String[][] batch = new String[threads * CHUNK_SIZE][];
+            for (int batchStart = 0; batchStart < rows; batchStart += batch.length) {
+                int batchSize = Math.min(batch.length, rows - batchStart);
+                int offset = batchStart;
+                List<Future<?>> work = new ArrayList<>();
+                for (int from = 0; from < batchSize; from += CHUNK_SIZE) {
+                    int chunkStart = from;
+                    int chunkEnd = Math.min(batchSize, from + CHUNK_SIZE);
+                    work.add(pool.submit(() -> {
+                        for (int i = chunkStart; i < chunkEnd; i++) {
+                            batch[i] = maker.row(offset + i);
+                        }
+                    }));
+                }
+                await(work);
+                for (int i = 0; i < batchSize; i++) {
+                    writer.writeNext(batch[i]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // The fields of one generated patient
+    private static class PatientData {
+        String name;
+        LocalDate dateOfBirth;
+        String gender;
+        String phoneNumber;
+        String email;
+        String address;
+        String bloodType;
+        String allergies;
+    }
+
+    // The fields of one generated doctor
+    private static class DoctorData {
+        String name;
+        String specialization;
+        String phoneNumber;
+        String email;
+        List<String> availableDays;
+        String startTime;
+        String endTime;
+    }
+
+    // Patient number i; the same i and seed always give the same patient.
+    private PatientData patient(int index) {
+        SplittableRandom random = new SplittableRandom(seedFor(PATIENT_STREAM, index));
+        PatientData data = new PatientData();
+
+        double genderDraw = random.nextDouble();
+        data.gender = genderDraw < 0.49 ? "Male" : genderDraw < 0.98 ? "Female" : "Other";
+        String[] firstNames = data.gender.equals("Male") ? MALE_NAMES
+                : data.gender.equals("Female") ? FEMALE_NAMES
+                : random.nextBoolean() ? MALE_NAMES : FEMALE_NAMES;
+        String firstName = skewed(random, firstNames);
+        String lastName = skewed(random, LAST_NAMES);
+        data.name = firstName + " " + lastName;
+
+        // Roughly a fifth children, three fifths working age, a fifth over 65
+        double ageDraw = random.nextDouble();
+        int age = ageDraw < 0.2 ? random.nextInt(18)
+                : ageDraw < 0.8 ? 18 + random.nextInt(47)
+                : 65 + random.nextInt(31);
+        data.dateOfBirth = config.today.minusYears(age).minusDays(1 + random.nextInt(365));
+
+        data.phoneNumber = "09" + String.format("%09d", random.nextInt(1_000_000_000));
+        data.email = random.nextDouble() < 0.8
+                ? (firstName + "." + lastName).toLowerCase().replace(' ', '.') + (index + 1) + "@example.com"
+                : null;
+        data.address = (1 + random.nextInt(999)) + " " + pick(random, STREETS);
+        data.bloodType = random.nextDouble() < 0.05 ? null : weighted(random, BLOOD_TYPES, BLOOD_TYPE_WEIGHTS);
+
+        double allergyDraw = random.nextDouble();
+        if (allergyDraw < 0.1) {
+            data.allergies = null; // never asked
+        } else if (allergyDraw < 0.75) {
+            data.allergies = "None";
+        } else {
+            String first = pick(random, ALLERGIES);
+            String second = pick(random, ALLERGIES);
+            data.allergies = random.nextDouble() < 0.3 && !second.equals(first) ? first + ", " + second : first;
+        }
+        return data;
+    }
+
+    // Doctor number i; the same i and seed always give the same doctor.
+    private DoctorData doctor(int index) {
+        SplittableRandom random = new SplittableRandom(seedFor(DOCTOR_STREAM, index));
+        DoctorData data = new DoctorData();
+        String[] firstNames = random.nextBoolean() ? MALE_NAMES : FEMALE_NAMES;
+        String firstName = pick(random, firstNames);
+        String lastName = pick(random, LAST_NAMES);
+        data.name = firstName + " " + lastName;
+        data.specialization = weighted(random, SPECIALIZATIONS, SPECIALIZATION_WEIGHTS);
+        data.phoneNumber = "09" + String.format("%09d", random.nextInt(1_000_000_000));
+        data.email = "dr." + lastName.toLowerCase().replace(' ', '.') + (index + 1) + "@clinic.com";
+
+        int roster = weightedIndex(random, ROSTER_WEIGHTS);
+        data.availableDays = Arrays.asList(ROSTER_DAYS[roster]);
+        data.startTime = ROSTER_HOURS[roster][0];
+        data.endTime = ROSTER_HOURS[roster][1];
+        return data;
+    }
+
+    // Seed of one record's random stream
+    private long seedFor(int stream, long index) {
+        return config.seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index * 0x94D049BB133111EBL;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // Favors the start of the array: the first entry is drawn far more often than the last.
+    private static String skewed(SplittableRandom random, String[] values) {
+        double draw = random.nextDouble();
+        return values[(int) (values.length * draw * draw)];
+    }
+
+    private static String weighted(SplittableRandom random, String[] values, int[] weights) {
+        return values[weightedIndex(random, weights)];
+    }
+
+    private static int weightedIndex(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int draw = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            draw -= weights[i];
+            if (draw < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static void await(List<Future<?>> work) {
+        try {
+            for (Future<?> future : work) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating data", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Data generation failed", e.getCause());
+        }
+    }
+
+    private static void apply(Config config, String arg) {
+        String[] parts = arg.split("=", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected key=value, got: " + arg);
+        }
+        String value = parts[1].trim();
+        switch (parts[0].trim()) {
+            case "seed": config.seed = Long.parseLong(value); break;
+            case "patients": config.patients = Integer.parseInt(value); break;
+            case "doctors": config.doctors = Integer.parseInt(value); break;
+            case "historyDays": config.historyDays = Integer.parseInt(value); break;
+            case "futureDays": config.futureDays = Integer.parseInt(value); break;
+            case "today": config.today = LocalDate.parse(value); break;
+            case "nowTime": config.nowTime = LocalTime.parse(value); break;
+            case "slotMinutes": config.slotMinutes = Integer.parseInt(value); break;
+            case "fillRate": config.fillRate = Double.parseDouble(value); break;
+            case "longVisitRate": config.longVisitRate = Double.parseDouble(value); break;
+            case "cancelRate": config.cancelRate = Double.parseDouble(value); break;
+            case "noShowRate": config.noShowRate = Double.parseDouble(value); break;
+            case "confirmRate": config.confirmRate = Double.parseDouble(value); break;
+            case "threads": config.threads = Integer.parseInt(value); break;
+            default: throw new IllegalArgumentException("Unknown setting: " + parts[0]);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package clinicapp.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique IDs for one kind of record (appointments, patients, doctors).
+ *
+ * IDs are reserved in ranges so callers almost never contend:
+ * - the process reserves a chunk of CHUNK_SIZE IDs from the high-water store,
+ * - each thread carves blocks of BLOCK_SIZE IDs out of that chunk,
+ * - nextId() then takes the next ID of the calling thread's block without locking.
+ *
+ * The store records the highest ID reserved so far. With a FileStore the mark is
+ * written (under a file lock) before any ID of a chunk is handed out, so a restart,
+ * or another process sharing the file, continues after it and never reuses an ID.
+ * IDs are unique but not dense: a restart skips the unused rest of a chunk, and
+ * threads hand out IDs from different blocks.
+ */
+public final class IdAllocator {
+    // IDs each thread takes from the process chunk at a time
+    public static final int BLOCK_SIZE = 64;
+
+    // IDs the process reserves from the store at a time
+    public static final int CHUNK_SIZE = 4096;
+
+    public static final IdAllocator APPOINTMENTS = new IdAllocator("appointment");
+    public static final IdAllocator PATIENTS = new IdAllocator("patient");
+    public static final IdAllocator DOCTORS = new IdAllocator("doctor");
+
+    // Where the high-water marks live. In memory unless the clinicapp.ids.file
+    // system property names a file, or setStore() is called.
+    private static volatile HighWaterStore store = defaultStore();
+
+    // Bumped by setStore() so chunks and blocks from the previous store are dropped
+    private static final AtomicLong storeGeneration = new AtomicLong();
+
+    private final String sequence;
+
+    // Current process chunk [chunkNext, chunkEnd), guarded by this
+    private long chunkNext;
+    private long chunkEnd;
+    private long chunkGeneration = -1;
+
+    // Each thread's block: {next, end, generation}
+    private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[] { 0, 0, -1 });
+
+    private IdAllocator(String sequence) {
+        this.sequence = sequence;
+    }
+
+    // Source of ID ranges shared by every process that must not collide.
+    public interface HighWaterStore {
+        // Reserve count IDs of a sequence and return the first; the range is [first, first + count).
+        long reserve(String sequence, int count);
+    }
+
+    // Use a different high-water store. Call at startup, before records are created.
+    public static void setStore(HighWaterStore newStore) {
+        store = newStore;
+        storeGeneration.incrementAndGet();
+    }
+
+    public static HighWaterStore getStore() {
+        return store;
+    }
+
+    // Get the next unique ID.
+    public int nextId() {
+        long[] block = blocks.get();
+        if (block[0] >= block[1] || block[2] != storeGeneration.get()) {
+            refill(block, BLOCK_SIZE);
+        }
+        return toInt(block[0]++);
+    }
+
+    /**
+     * Make sure the calling thread can hand out count IDs in one contiguous run,
+     * e.g. before a bulk import. Any rest of its current block is given up.
+     */
+    public void prefetch(int count) {
+        long[] block = blocks.get();
+        if (block[1] - block[0] < count || block[2] != storeGeneration.get()) {
+            refill(block, Math.max(count, BLOCK_SIZE));
+        }
+    }
+
+    public String getSequence() {
+        return sequence;
+    }
+
+    // Give the thread a new block of size IDs, from the process chunk when it is large enough.
+    private void refill(long[] block, int size) {
+        long generation = storeGeneration.get();
+        long first;
+        synchronized (this) {
+            if (size > CHUNK_SIZE) {
+                first = store.reserve(sequence, size);
+            } else {
+                if (chunkGeneration != generation || chunkEnd - chunkNext < size) {
+                    chunkNext = store.reserve(sequence, CHUNK_SIZE);
+                    chunkEnd = chunkNext + CHUNK_SIZE;
+                    chunkGeneration = generation;
+                }
+                first = chunkNext;
+                chunkNext += size;
+            }
+        }
+        block[0] = first;
+        block[1] = first + size;
+        block[2] = generation;
+    }
+
+    private int toInt(long id) {
+        if (id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Out of " + sequence + " IDs");
+        }
+        return (int) id;
+    }
+
+    private static HighWaterStore defaultStore() {
+        String file = System.getProperty("clinicapp.ids.file");
+        return file != null ? new FileStore(Path.of(file)) : new MemoryStore();
+    }
+
+    // High-water marks kept in memory; they restart at 1 with the process.
+    public static class MemoryStore implements HighWaterStore {
+        private final Map<String, AtomicLong> marks = new ConcurrentHashMap<>();
+
+        @Override
+        public long reserve(String sequence, int count) {
+            return marks.computeIfAbsent(sequence, s -> new AtomicLong(1)).getAndAdd(count);
+        }
+    }
+
+    // High-water marks kept in a properties file (sequence=next free ID).
+    // Reservations lock the file, so processes sharing it never get overlapping ranges.
+    public static class FileStore implements HighWaterStore {
+        private final Path file;
+
+        public FileStore(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public synchronized long reserve(String sequence, int count) {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    FileLock lock = channel.lock();
+                    try {
+                        Properties marks = new Properties();
+                        InputStream in = Channels.newInputStream(channel);
+                        marks.load(in);
+
+                        long first = Long.parseLong(marks.getProperty(sequence, "1"));
+                        marks.setProperty(sequence, String.valueOf(first + count));
+
+                        channel.truncate(0);
+                        channel.position(0);
+                        OutputStream out = Channels.newOutputStream(channel);
+                        marks.store(out, "Clinic ID high-water marks - next free ID per record type");
+                        channel.force(true);
+                        return first;
+                    } finally {
+                        lock.release();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot reserve " + sequence + " IDs in " + file, e);
+            }
+        }
+    }
+}